@@ -0,0 +1,587 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.metrics.CalendarMetrics;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+import com.ahdisease.calendarprinter.template.CalendarTemplate;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Imports event dumps in CSV or JSON Lines format into a single .ics file.
+ * <p>
+ * The import runs in three stages connected by bounded queues:
+ * <ol>
+ *     <li>The calling thread reads rows and groups them into batches, keeping the line number of each row.</li>
+ *     <li>A pool of workers parses each batch, builds its events and encodes their VEVENT blocks.</li>
+ *     <li>A writer thread writes the encoded batches in input order.</li>
+ * </ol>
+ * The reader waits whenever {@code maxPendingBatches} batches are queued for the writer. Memory therefore stays
+ * bounded by the batch size and queue length, however large the input. A malformed row is skipped and reported with
+ * its line number, and the import continues.
+ * <p>
+ * Columns, or JSON keys, are {@code summary}, {@code start}, {@code end}, {@code status}, {@code transparent},
+ * {@code language}, {@code categories} and {@code location}. Only {@code start} and {@code end} are required.
+ * Dates are ISO-8601 with an offset or zone, e.g. {@code 2023-10-22T15:00-05:00[America/Chicago]}. CSV categories
+ * are separated by {@code ;} and JSON categories are an array of strings. A CSV file starts with a header row naming
+ * its columns, and quoted CSV fields may span up to {@link #MAX_RECORD_LINES} lines. A missing summary or location is
+ * imported as empty text. Every event of one import shares a single DTSTAMP.
+ */
+public class BulkEventImporter implements AutoCloseable {
+
+    public enum Format {CSV, JSON_LINES}
+
+    /**
+     * A row that was not imported; {@code lineNumber} is the line on which the row starts, counting from 1.
+     */
+    public record RowError(long lineNumber, String message) {
+    }
+
+    /**
+     * Outcome of an import. At most {@link #MAX_REPORTED_ERRORS} errors are listed; {@code rowsRejected} counts all
+     * of them.
+     */
+    public record ImportReport(long rowsRead, long eventsImported, long rowsRejected, List<RowError> errors, Duration elapsed) {
+    }
+
+    //constants
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    public static final int DEFAULT_BATCH_SIZE = 2048;
+    // lines a quoted CSV field may span before its quote is taken as unterminated
+    public static final int MAX_RECORD_LINES = 256;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON = new JsonFactory();
+    // queue markers for the writer: the input is complete, or reading failed and the calendar is abandoned
+    private static final Future<Batch> END_OF_INPUT = CompletableFuture.completedFuture(null);
+    private static final Future<Batch> ABORTED = CompletableFuture.completedFuture(null);
+
+    //instance variables
+    private final ExecutorService workers;
+    private final ExecutorService writer;
+    private final int batchSize;
+    private final int maxPendingBatches;
+    private CalendarTemplate template = CalendarTemplate.defaultTemplate();
+
+    public BulkEventImporter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public BulkEventImporter(int workerThreads, int batchSize, int maxPendingBatches) {
+        if (workerThreads < 1 || batchSize < 1 || maxPendingBatches < 1) {
+            throw new IllegalArgumentException("Worker threads, batch size and pending batches must be positive integers.");
+        }
+        this.workers = Executors.newFixedThreadPool(workerThreads);
+        this.writer = Executors.newSingleThreadExecutor();
+        this.batchSize = batchSize;
+        this.maxPendingBatches = maxPendingBatches;
+    }
+
+    /**
+     * Imports {@code input} into {@code target}. The calendar is written to a temporary file and moved into place once
+     * complete, so a failed import leaves any previous calendar untouched.
+     */
+    public ImportReport importFile(Path input, Format format, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        ImportReport report;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(input), StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporaryFile), WRITE_BUFFER_SIZE)) {
+            report = importTo(reader, format, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        CalendarFileWriter.publish(temporaryFile, target);
+        return report;
+    }
+
+    /**
+     * Imports rows from {@code input} and streams the VCALENDAR to {@code out}, which is flushed but not closed.
+     * If reading fails, the queued batches are cancelled and the writer is stopped before the failure is rethrown,
+     * so nothing writes to {@code out} once this method returns or throws.
+     */
+    public ImportReport importTo(BufferedReader input, Format format, OutputStream out) throws IOException {
+        if (input == null || format == null || out == null) {
+            throw new IllegalArgumentException("Input, format and output cannot be null");
+        }
+        long start = System.nanoTime();
+        CalendarEventFactory factory = new CalendarEventFactory().batch();
+        CalendarTemplate importTemplate = template;
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(maxPendingBatches);
+        Future<Result> written = writer.submit(() -> writeBatches(pending, importTemplate, out));
+
+        long rowsRead = 0;
+        try {
+            long lineNumber = 0;
+            CsvRecords csv = null;
+            int[] columns = null;
+            if (format == Format.CSV) {
+                csv = new CsvRecords(input);
+                String header = csv.next();
+                columns = header == null ? null : csvColumns(header);
+            }
+
+            List<String> rows = new ArrayList<>(batchSize);
+            long[] rowLines = new long[batchSize];
+            while (format == Format.JSON_LINES || columns != null) {
+                String row;
+                if (csv != null) {
+                    row = csv.next();
+                    lineNumber = csv.recordLineNumber;
+                } else {
+                    row = input.readLine();
+                    lineNumber++;
+                }
+                if (row == null) {
+                    break;
+                }
+                if (row.isBlank()) {
+                    continue;
+                }
+                rowLines[rows.size()] = lineNumber;
+                rows.add(row);
+                rowsRead++;
+
+                if (rows.size() == batchSize) {
+                    submit(pending, rows, rowLines, columns, format, factory, importTemplate);
+                    rows = new ArrayList<>(batchSize);
+                    rowLines = new long[batchSize];
+                }
+            }
+            if (!rows.isEmpty()) {
+                submit(pending, rows, rowLines, columns, format, factory, importTemplate);
+            }
+        } catch (IOException | RuntimeException e) {
+            abort(pending, written, e);
+            throw e;
+        }
+        put(pending, END_OF_INPUT);
+
+        Result result = awaitWriter(written);
+        return new ImportReport(rowsRead, result.eventsImported, result.rowsRejected, result.errors,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Sets the header and event layout of the imported calendar.
+     */
+    public void setTemplate(CalendarTemplate template) throws IllegalArgumentException {
+        if (template == null) {
+            throw new IllegalArgumentException("Template cannot be null");
+        }
+        this.template = template;
+    }
+
+    // overrides
+    @Override
+    public void close() {
+        workers.shutdown();
+        writer.shutdown();
+    }
+
+    // helper methods
+
+    private void submit(BlockingQueue<Future<Batch>> pending, List<String> rows, long[] rowLines, int[] columns,
+                        Format format, CalendarEventFactory factory, CalendarTemplate template) {
+        // blocks while the writer is maxPendingBatches behind, which holds back reading
+        put(pending, workers.submit(() -> encodeBatch(rows, rowLines, columns, format, factory, template)));
+    }
+
+    private static void put(BlockingQueue<Future<Batch>> pending, Future<Batch> batch) {
+        try {
+            pending.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the import writer");
+        }
+    }
+
+    /**
+     * Stops the writer after reading failed: cancels the queued batches, tells the writer to leave the calendar
+     * without a footer and waits for it to finish. Writer failures are added to {@code failure} as suppressed.
+     */
+    private static void abort(BlockingQueue<Future<Batch>> pending, Future<Result> written, Exception failure) {
+        for (Future<Batch> batch : pending) {
+            batch.cancel(true);
+        }
+        try {
+            pending.put(ABORTED);
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            written.cancel(true);
+        } catch (ExecutionException e) {
+            failure.addSuppressed(e.getCause());
+        }
+    }
+
+    /**
+     * Writer stage: writes batches in the order they were read. After a write failure the remaining batches are
+     * drained without writing, so the reader never waits on a full queue. After {@link #ABORTED} nothing more is
+     * written.
+     */
+    private static Result writeBatches(BlockingQueue<Future<Batch>> pending, CalendarTemplate template, OutputStream out) throws Exception {
+        Result result = new Result();
+        Exception failure = null;
+        boolean headerWritten = false;
+        while (true) {
+            Future<Batch> next = pending.take();
+            if (next == ABORTED) {
+                return result;
+            }
+            Batch batch;
+            try {
+                batch = next.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+                continue;
+            } catch (CancellationException e) {
+                // only an aborted import cancels batches; ABORTED follows them
+                continue;
+            }
+            if (batch == null) {
+                break;
+            }
+            if (failure != null) {
+                continue;
+            }
+            try {
+                if (!headerWritten) {
+                    template.writeHeader(out);
+                    headerWritten = true;
+                }
+                long start = System.nanoTime();
+                out.write(batch.encodedEvents);
+                CalendarMetrics.recordWrite(CalendarMetrics.WRITE_IMPORT, start, batch.encodedEvents.length);
+                result.add(batch);
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (!headerWritten) {
+            template.writeHeader(out);
+        }
+        template.writeFooter(out);
+        out.flush();
+        return result;
+    }
+
+    private static Result awaitWriter(Future<Result> written) throws IOException {
+        try {
+            return written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the import writer");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Import failed", cause);
+        }
+    }
+
+    /**
+     * Worker stage: parses every row of a batch, builds its event and encodes the VEVENT blocks in row order.
+     */
+    private static Batch encodeBatch(List<String> rows, long[] rowLines, int[] columns, Format format,
+                                     CalendarEventFactory factory, CalendarTemplate template) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(rows.size() * 320);
+        List<RowError> errors = new ArrayList<>();
+        int imported = 0;
+        String[] fields = new String[Column.values().length];
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                Arrays.fill(fields, null);
+                List<String> categories = format == Format.CSV
+                        ? parseCsvRow(rows.get(i), columns, fields)
+                        : parseJsonRow(rows.get(i), fields);
+                CalendarEvent event = createEvent(fields, categories, factory);
+                template.writeEvent(event, encoded);
+                imported++;
+            } catch (IllegalArgumentException | DateTimeParseException | IOException e) {
+                errors.add(new RowError(rowLines[i], e.getMessage()));
+            }
+        }
+        CalendarMetrics.INGESTED_EVENTS.increment(imported);
+        return new Batch(encoded.toByteArray(), imported, errors);
+    }
+
+    private static CalendarEvent createEvent(String[] fields, List<String> categories, CalendarEventFactory factory) {
+        String start = fields[Column.START.ordinal()];
+        String end = fields[Column.END.ordinal()];
+        if (start == null || start.isBlank() || end == null || end.isBlank()) {
+            throw new IllegalArgumentException("Start and end are required");
+        }
+        ZonedDateTime startDate = ZonedDateTime.parse(start.trim());
+        ZonedDateTime endDate = ZonedDateTime.parse(end.trim());
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("End must be after start");
+        }
+
+        String language = blankToNull(fields[Column.LANGUAGE.ordinal()]);
+        if (language != null && !CalendarEventFactory.isLanguageTag(language)) {
+            throw new IllegalArgumentException("Invalid language tag: " + language);
+        }
+        String status = blankToNull(fields[Column.STATUS.ordinal()]);
+        String transparent = blankToNull(fields[Column.TRANSPARENT.ordinal()]);
+        if (transparent != null && !transparent.equalsIgnoreCase("true") && !transparent.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Transparent must be true or false: " + transparent);
+        }
+
+        return factory.create(nullToEmpty(fields[Column.SUMMARY.ordinal()]), startDate, endDate,
+                status == null ? CalendarEvent.Status.CONFIRMED : CalendarEvent.Status.valueOf(status.trim().toUpperCase(Locale.ROOT)),
+                Boolean.parseBoolean(transparent), language,
+                categories == null || categories.isEmpty() ? null : categories.toArray(new String[0]),
+                nullToEmpty(fields[Column.LOCATION.ordinal()]));
+    }
+
+    /**
+     * Input columns; the ordinal is the slot of the column's value in a parsed row.
+     */
+    private enum Column {
+        SUMMARY, START, END, STATUS, TRANSPARENT, LANGUAGE, CATEGORIES, LOCATION;
+
+        static Column named(String name) {
+            for (Column column : values()) {
+                if (column.name().equalsIgnoreCase(name.trim())) {
+                    return column;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return for each CSV column, the ordinal of its {@link Column}, or -1 for a column that is not imported
+     */
+    private static int[] csvColumns(String header) {
+        List<String> names = new ArrayList<>();
+        splitCsv(header, names);
+        int[] columns = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            Column column = Column.named(names.get(i));
+            columns[i] = column == null ? -1 : column.ordinal();
+        }
+        return columns;
+    }
+
+    private static List<String> parseCsvRow(String row, int[] columns, String[] fields) {
+        List<String> values = new ArrayList<>(columns.length);
+        splitCsv(row, values);
+        if (values.size() > columns.length) {
+            throw new IllegalArgumentException("Row has " + values.size() + " fields, header has " + columns.length);
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (columns[i] >= 0) {
+                fields[columns[i]] = values.get(i);
+            }
+        }
+        String categories = blankToNull(fields[Column.CATEGORIES.ordinal()]);
+        return categories == null ? null : Arrays.asList(categories.split(";"));
+    }
+
+    /**
+     * Splits one RFC 4180 record; quoted fields may contain separators, line breaks and doubled quotes. A quote only
+     * opens a quoted field at the start of a field; elsewhere it is kept as text.
+     */
+    private static void splitCsv(String record, List<String> values) {
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else {
+                field.append(c);
+                fieldStart = false;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(field.toString());
+    }
+
+    /**
+     * @return true if {@code line} ends inside a quoted field, following the rules of {@link #splitCsv}; {@code quoted}
+     * is true if the line continues a quoted field
+     */
+    private static boolean endsInQuotedField(String line, boolean quoted) {
+        boolean fieldStart = !quoted;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else {
+                fieldStart = c == ',';
+            }
+        }
+        return quoted;
+    }
+
+    private static List<String> parseJsonRow(String row, String[] fields) throws IOException {
+        List<String> categories = null;
+        try (JsonParser parser = JSON.createParser(row)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Row is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Column column = Column.named(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (column == null) {
+                    parser.skipChildren();
+                } else if (column == Column.CATEGORIES && value == JsonToken.START_ARRAY) {
+                    categories = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        categories.add(parser.getValueAsString());
+                    }
+                } else if (value.isScalarValue()) {
+                    fields[column.ordinal()] = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                } else {
+                    throw new IllegalArgumentException("Unexpected value for " + column.name().toLowerCase(Locale.ROOT));
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                throw new IllegalArgumentException("Row is not a single JSON object");
+            }
+        }
+        return categories;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Joins the lines of CSV records whose quoted fields span lines. A record still inside a quoted field after
+     * {@link #MAX_RECORD_LINES} lines, or at the end of the input, is returned as its first line alone, which is then
+     * rejected as an unterminated field at its own line number; the lines after it are read again as new records, so a
+     * stray quote costs one row rather than the rest of the file.
+     */
+    private static final class CsvRecords {
+        private final BufferedReader input;
+        // lines read ahead for a record that was given up on
+        private final Deque<String> replay = new ArrayDeque<>();
+        private long lineNumber;
+        // the line on which the last record returned by next() starts
+        private long recordLineNumber;
+
+        CsvRecords(BufferedReader input) {
+            this.input = input;
+        }
+
+        /**
+         * @return the next record, or null at the end of the input
+         */
+        String next() throws IOException {
+            String first = nextLine();
+            recordLineNumber = lineNumber;
+            if (first == null || !endsInQuotedField(first, false)) {
+                return first;
+            }
+
+            List<String> lines = new ArrayList<>();
+            lines.add(first);
+            boolean quoted = true;
+            while (quoted && lines.size() < MAX_RECORD_LINES) {
+                String line = nextLine();
+                if (line == null) {
+                    break;
+                }
+                lines.add(line);
+                quoted = endsInQuotedField(line, true);
+            }
+            if (quoted) {
+                for (int i = lines.size() - 1; i > 0; i--) {
+                    replay.push(lines.get(i));
+                }
+                lineNumber = recordLineNumber;
+                return first;
+            }
+            return String.join("\n", lines);
+        }
+
+        private String nextLine() throws IOException {
+            String line = replay.isEmpty() ? input.readLine() : replay.pop();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        }
+    }
+
+    private record Batch(byte[] encodedEvents, int eventsImported, List<RowError> errors) {
+    }
+
+    /**
+     * Totals kept by the writer thread.
+     */
+    private static final class Result {
+        private long eventsImported;
+        private long rowsRejected;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void add(Batch batch) {
+            eventsImported += batch.eventsImported;
+            rowsRejected += batch.errors.size();
+            for (RowError error : batch.errors) {
+                if (errors.size() == MAX_REPORTED_ERRORS) {
+                    break;
+                }
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.metrics.CalendarMetrics;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Insertion-ordered collection of calendar events indexed by UID, so duplicate detection is a single hash lookup
+ * instead of a scan over every stored event. Not thread-safe; see {@link ConcurrentCalendarEventStore} for several
+ * producers.
+ */
+public class CalendarEventStore implements EventStore {
+    //instance variables
+    private final Map<UUID, CalendarEvent> eventsByUid = new LinkedHashMap<>();
+    private long additions;
+
+    @Override
+    public void add(CalendarEvent newEvent) throws IllegalArgumentException {
+        if (newEvent == null) {
+            throw new IllegalArgumentException("Calendar event cannot be empty");
+        }
+
+        if (eventsByUid.putIfAbsent(newEvent.getUuid(), newEvent) != null) {
+            CalendarMetrics.DUPLICATE_EVENTS.increment();
+            throw new IllegalArgumentException("Calendar event already added");
+        }
+        additions++;
+        CalendarMetrics.INGESTED_EVENTS.increment();
+    }
+
+    /**
+     * The whole batch is validated before anything is stored, so a rejected batch leaves the store unchanged.
+     */
+    @Override
+    public void addAll(Collection<CalendarEvent> newEvents) throws IllegalArgumentException {
+        if (newEvents == null) {
+            throw new IllegalArgumentException("Calendar events cannot be empty");
+        }
+
+        Map<UUID, CalendarEvent> batch = new LinkedHashMap<>((int) (newEvents.size() / 0.75f) + 1);
+        for (CalendarEvent newEvent : newEvents) {
+            if (newEvent == null) {
+                throw new IllegalArgumentException("Calendar event cannot be empty");
+            }
+            UUID uid = newEvent.getUuid();
+            if (eventsByUid.containsKey(uid) || batch.putIfAbsent(uid, newEvent) != null) {
+                CalendarMetrics.DUPLICATE_EVENTS.increment();
+                throw new IllegalArgumentException("Calendar event already added");
+            }
+        }
+
+        eventsByUid.putAll(batch);
+        additions += batch.size();
+        CalendarMetrics.INGESTED_EVENTS.increment(batch.size());
+    }
+
+    @Override
+    public void addAll(Stream<CalendarEvent> newEvents) throws IllegalArgumentException {
+        if (newEvents == null) {
+            throw new IllegalArgumentException("Calendar events cannot be empty");
+        }
+
+        // the batch has to be materialized so it can be rejected as a whole
+        addAll(newEvents.collect(Collectors.toList()));
+    }
+
+    @Override
+    public boolean contains(UUID uid) {
+        return eventsByUid.containsKey(uid);
+    }
+
+    @Override
+    public CalendarEvent get(UUID uid) {
+        return eventsByUid.get(uid);
+    }
+
+    @Override
+    public int size() {
+        return eventsByUid.size();
+    }
+
+    @Override
+    public List<CalendarEvent> toList() {
+        return new ArrayList<>(eventsByUid.values());
+    }
+
+    @Override
+    public Stream<CalendarEvent> stream() {
+        return eventsByUid.values().stream();
+    }
+
+    @Override
+    public long version() {
+        // both terms only grow, so the sum changes whenever either does
+        return additions + CalendarEvent.getTotalModifications();
+    }
+
+    // overrides
+    @Override
+    public Iterator<CalendarEvent> iterator() {
+        return Collections.unmodifiableCollection(eventsByUid.values()).iterator();
+    }
+}
@@ -0,0 +1,219 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.metrics.CalendarMetrics;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs many small calendar exports at once, e.g. one calendar per user.
+ * <p>
+ * Each job is serialized into memory on a CPU pool of fixed size and then written on an I/O executor. That executor
+ * uses virtual threads when the JDK supports them (Java 21+) and a cached platform pool otherwise. Two limits
+ * apply to the I/O stage:
+ * <ul>
+ *     <li>I/O permits bound how many writes (create, write, flush and rename) are in progress at once.</li>
+ *     <li>File permits bound how many files are open at once. The semaphore can be shared with other components,
+ *     e.g. passed to {@link CalendarFileWriter#writeShardedEventsToFiles(ShardPeriod, boolean, Executor, Semaphore)},
+ *     so all of them stay under one descriptor limit.</li>
+ * </ul>
+ * Serialized calendars wait for an I/O permit in memory. At most {@code cpuThreads + maxConcurrentWrites} jobs are
+ * serialized or waiting at a time, so a slow disk holds back serialization instead of filling the heap.
+ * <p>
+ * A failed job is reported in its {@link ExportResult} and does not affect the other jobs.
+ */
+public class CalendarExportScheduler implements AutoCloseable {
+
+    /**
+     * One calendar to export: its events are written as a VCALENDAR to {@code target}.
+     */
+    public record ExportJob(String name, Path target, Collection<CalendarEvent> events) {
+        public ExportJob {
+            if (target == null || events == null) {
+                throw new IllegalArgumentException("Export target and events cannot be null");
+            }
+        }
+    }
+
+    /**
+     * Outcome of one job. {@code latency} runs from submission to completion, so it includes time spent queued;
+     * {@code failure} is null when the export succeeded.
+     */
+    public record ExportResult(ExportJob job, long bytesWritten, Duration serializationTime, Duration writeTime,
+                               Duration latency, Throwable failure) {
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+
+    //instance variables
+    private final ExecutorService cpuPool;
+    private final ExecutorService ioExecutor;
+    private final Semaphore ioPermits;
+    private final Semaphore openFiles;
+    private final Semaphore inFlightJobs;
+
+    public CalendarExportScheduler(int cpuThreads, int maxConcurrentWrites, int maxOpenFiles) {
+        this(cpuThreads, maxConcurrentWrites, new Semaphore(validateMaxOpenFiles(maxOpenFiles)));
+    }
+
+    public CalendarExportScheduler(int cpuThreads, int maxConcurrentWrites, Semaphore openFiles) {
+        if (cpuThreads < 1 || maxConcurrentWrites < 1) {
+            throw new IllegalArgumentException("Thread and write limits must be positive integers.");
+        }
+        if (openFiles == null) {
+            throw new IllegalArgumentException("Open file semaphore cannot be null.");
+        }
+        this.cpuPool = Executors.newFixedThreadPool(cpuThreads);
+        this.ioExecutor = newIoExecutor();
+        this.ioPermits = new Semaphore(maxConcurrentWrites);
+        this.openFiles = openFiles;
+        this.inFlightJobs = new Semaphore(cpuThreads + maxConcurrentWrites);
+    }
+
+    /**
+     * Schedules a job. The returned future always completes normally; failures are reported in the result.
+     */
+    public CompletableFuture<ExportResult> submit(ExportJob job) {
+        if (job == null) {
+            throw new IllegalArgumentException("Export job cannot be null");
+        }
+        long submitted = System.nanoTime();
+        long[] serializationNanos = new long[1];
+
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    acquire(inFlightJobs);
+                    try {
+                        long start = System.nanoTime();
+                        byte[] calendar = serialize(job.events());
+                        serializationNanos[0] = System.nanoTime() - start;
+                        return calendar;
+                    } catch (RuntimeException e) {
+                        // the write stage, which normally releases the permit, is skipped
+                        inFlightJobs.release();
+                        throw e;
+                    }
+                }, cpuPool)
+                .thenApplyAsync(calendar -> {
+                    try {
+                        long start = System.nanoTime();
+                        write(calendar, job.target());
+                        return new ExportResult(job, calendar.length, Duration.ofNanos(serializationNanos[0]),
+                                Duration.ofNanos(System.nanoTime() - start), Duration.ofNanos(System.nanoTime() - submitted), null);
+                    } finally {
+                        inFlightJobs.release();
+                    }
+                }, ioExecutor)
+                .exceptionally(failure -> new ExportResult(job, 0, Duration.ofNanos(serializationNanos[0]), Duration.ZERO,
+                        Duration.ofNanos(System.nanoTime() - submitted),
+                        failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure));
+    }
+
+    /**
+     * Runs every job and waits for all of them.
+     *
+     * @return one result per job, in the order of {@code jobs}
+     */
+    public List<ExportResult> runAll(Collection<ExportJob> jobs) {
+        List<CompletableFuture<ExportResult>> futures = new ArrayList<>(jobs.size());
+        for (ExportJob job : jobs) {
+            futures.add(submit(job));
+        }
+        List<ExportResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<ExportResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * @return true if I/O runs on virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return !(ioExecutor instanceof ThreadPoolExecutor);
+    }
+
+    // overrides
+    @Override
+    public void close() {
+        cpuPool.shutdown();
+        ioExecutor.shutdown();
+    }
+
+    // helper methods
+
+    private static byte[] serialize(Collection<CalendarEvent> events) {
+        ByteArrayOutputStream calendar = new ByteArrayOutputStream(events.size() * 320 + 256);
+        try {
+            CalendarFileWriter.writeCalendar(events, calendar);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw IOException
+            throw new CompletionException(e);
+        }
+        return calendar.toByteArray();
+    }
+
+    private void write(byte[] calendar, Path target) {
+        acquire(ioPermits);
+        try {
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try {
+                acquire(openFiles);
+                long start = System.nanoTime();
+                try (OutputStream out = Files.newOutputStream(temporaryFile)) {
+                    out.write(calendar);
+                } finally {
+                    openFiles.release();
+                }
+                CalendarMetrics.recordWrite(CalendarMetrics.WRITE_SCHEDULED, start, calendar.length);
+                CalendarFileWriter.publish(temporaryFile, target);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporaryFile);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        } finally {
+            ioPermits.release();
+        }
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for an export permit");
+        }
+    }
+
+    /**
+     * Virtual threads are looked up reflectively so the code still compiles and runs on Java 17.
+     */
+    private static ExecutorService newIoExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static int validateMaxOpenFiles(int maxOpenFiles) {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("At least one file must be allowed open.");
+        }
+        return maxOpenFiles;
+    }
+}
@@ -0,0 +1,640 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+import com.ahdisease.calendarprinter.model.RecurrenceRule;
+import com.ahdisease.calendarprinter.template.CalendarTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.*;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming VCALENDAR reader that yields one {@link CalendarEvent} per VEVENT without loading the whole file.
+ * <p>
+ * Files are read through a sliding memory-mapped window, or through a fixed-size buffer when reading from any other
+ * channel. Folded lines are unfolded at the byte level and only property values that end up in an event are decoded
+ * into Strings. Everything written by {@link CalendarFileWriter} round-trips to the same bytes, with two limits:
+ * UIDs that are not UUIDs are replaced by a name-based UUID of the original value, and times without a zone
+ * (floating times) are read as UTC. Properties and components this project does not model are skipped.
+ * <p>
+ * An event whose RRULE uses parts {@link RecurrenceRule} does not support, such as WKST, BYSETPOS or an ordinal
+ * BYDAY, or whose DURATION is negative, is skipped and listed in {@link #getSkippedEvents()}, so the rest of the
+ * calendar is still read. Malformed values still throw {@link IllegalStateException}.
+ * <p>
+ * This writer lists the language tag as the last category. In calendars with this project's PRODID the last
+ * category is read back as the language whenever it looks like a tag; in other calendars only a region-qualified
+ * tag such as {@code en-US} is, so ordinary categories such as "art" are kept.
+ */
+public class CalendarFileReader implements Iterator<CalendarEvent>, Closeable {
+
+    /**
+     * A VEVENT that was not returned; {@code lineNumber} is the line of the property that could not be used.
+     */
+    public record SkippedEvent(long lineNumber, String reason) {
+    }
+
+    //constants
+    public static final int MAX_REPORTED_SKIPS = 1000;
+    private static final int MAP_WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] BEGIN = ascii("BEGIN");
+    private static final byte[] END = ascii("END");
+    private static final byte[] VEVENT = ascii("VEVENT");
+    private static final byte[] END_VEVENT = ascii("END:VEVENT");
+    private static final byte[] SUMMARY = ascii("SUMMARY");
+    private static final byte[] UID = ascii("UID");
+    private static final byte[] SEQUENCE = ascii("SEQUENCE");
+    private static final byte[] STATUS = ascii("STATUS");
+    private static final byte[] TRANSP = ascii("TRANSP");
+    private static final byte[] RRULE = ascii("RRULE");
+    private static final byte[] DTSTART = ascii("DTSTART");
+    private static final byte[] DTEND = ascii("DTEND");
+    private static final byte[] DURATION = ascii("DURATION");
+    private static final byte[] DTSTAMP = ascii("DTSTAMP");
+    private static final byte[] CATEGORIES = ascii("CATEGORIES");
+    private static final byte[] LOCATION = ascii("LOCATION");
+    private static final byte[] TRANSPARENT = ascii("TRANSPARENT");
+    private static final byte[] TZID_PARAMETER = ascii("TZID=");
+    private static final byte[] PRODID = ascii("PRODID");
+    private static final byte[] WRITER_PRODUCT_ID = ascii(CalendarTemplate.DEFAULT_PRODUCT_ID);
+
+    //instance variables
+    private final ReadableByteChannel channel;
+    private final FileChannel mappedFile;
+    private long mappedPosition;
+    private ByteBuffer buffer;
+    private boolean endOfInput;
+
+    // current logical (unfolded) line
+    private byte[] line = new byte[256];
+    private int lineLength;
+    // bytes left over when END:VEVENT is directly followed by the next property on the same line
+    private int pendingOffset = -1;
+    // full length of the line read last, kept so the part after END:VEVENT can be replayed
+    private int pendingEnd;
+    private long lineNumber;
+
+    private CalendarEvent nextEvent;
+    // true once the PRODID shows the calendar was written by this project
+    private boolean writtenByThisProject;
+    private final List<SkippedEvent> skippedEvents = new ArrayList<>();
+    private long skippedEventCount;
+
+    // state of the VEVENT being parsed
+    private boolean inEvent;
+    private int nestedComponents;
+    private String summary;
+    private UUID uuid;
+    private int sequence;
+    private CalendarEvent.Status status;
+    private boolean transparent;
+    private RecurrenceRule recurrenceRule;
+    private ZonedDateTime startDate;
+    private boolean startIsDate;
+    private ZonedDateTime endDate;
+    private Duration duration;
+    private ZonedDateTime createdDate;
+    private Locale languageCategory;
+    private final List<String> categories = new ArrayList<>();
+    private String location;
+    private SkippedEvent skipReason;
+
+    /**
+     * Reads from any channel through a fixed-size buffer. The channel is closed when the reader is closed.
+     */
+    public CalendarFileReader(ReadableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        this.channel = channel;
+        this.mappedFile = null;
+        this.buffer = ByteBuffer.allocate(CHANNEL_BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    private CalendarFileReader(FileChannel mappedFile) {
+        this.channel = mappedFile;
+        this.mappedFile = mappedFile;
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Opens a file for reading through a sliding memory-mapped window.
+     */
+    public static CalendarFileReader open(Path path) throws IOException {
+        return new CalendarFileReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextEvent == null) {
+            try {
+                nextEvent = readNextEvent();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return nextEvent != null;
+    }
+
+    @Override
+    public CalendarEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        CalendarEvent event = nextEvent;
+        nextEvent = null;
+        return event;
+    }
+
+    /**
+     * @return the remaining events as a sequential stream which closes this reader when it is closed
+     */
+    public Stream<CalendarEvent> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * @return the events skipped so far, at most {@link #MAX_REPORTED_SKIPS}; see {@link #getSkippedEventCount()}
+     */
+    public List<SkippedEvent> getSkippedEvents() {
+        return Collections.unmodifiableList(skippedEvents);
+    }
+
+    public long getSkippedEventCount() {
+        return skippedEventCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // parsing
+
+    private CalendarEvent readNextEvent() throws IOException {
+        while (readLogicalLine()) {
+            if (lineLength == 0) {
+                continue;
+            }
+
+            int colon = valueSeparator();
+            if (colon < 0) {
+                continue;
+            }
+            int nameEnd = nameEnd(colon);
+
+            if (matches(BEGIN, 0, nameEnd)) {
+                if (inEvent) {
+                    nestedComponents++;
+                } else if (matches(VEVENT, colon + 1, lineLength)) {
+                    startEvent();
+                }
+                continue;
+            }
+
+            if (matches(END, 0, nameEnd)) {
+                // CalendarFileWriter does not break the line between consecutive VEVENT blocks
+                if (startsWith(END_VEVENT) && lineLength > END_VEVENT.length) {
+                    pendingOffset = END_VEVENT.length;
+                    lineLength = END_VEVENT.length;
+                }
+                if (!inEvent) {
+                    continue;
+                }
+                if (nestedComponents > 0) {
+                    nestedComponents--;
+                } else if (matches(VEVENT, colon + 1, lineLength)) {
+                    inEvent = false;
+                    CalendarEvent event = buildEvent();
+                    if (event != null) {
+                        return event;
+                    }
+                }
+                continue;
+            }
+
+            if (inEvent && nestedComponents == 0) {
+                readProperty(nameEnd, colon);
+            } else if (!inEvent && matches(PRODID, 0, nameEnd)) {
+                writtenByThisProject = matches(WRITER_PRODUCT_ID, colon + 1, lineLength);
+            }
+        }
+
+        if (inEvent) {
+            throw new IllegalStateException("Unterminated VEVENT at end of input (line " + lineNumber + ")");
+        }
+        return null;
+    }
+
+    private void startEvent() {
+        inEvent = true;
+        nestedComponents = 0;
+        summary = null;
+        uuid = null;
+        sequence = 0;
+        status = CalendarEvent.Status.CONFIRMED;
+        transparent = false;
+        recurrenceRule = null;
+        startDate = null;
+        startIsDate = false;
+        endDate = null;
+        duration = null;
+        createdDate = null;
+        languageCategory = null;
+        categories.clear();
+        location = null;
+        skipReason = null;
+    }
+
+    private void readProperty(int nameEnd, int colon) {
+        int valueStart = colon + 1;
+        try {
+            if (matches(SUMMARY, 0, nameEnd)) {
+                summary = unescapedText(valueStart, lineLength);
+            } else if (matches(UID, 0, nameEnd)) {
+                String uid = text(valueStart, lineLength);
+                try {
+                    uuid = UUID.fromString(uid);
+                } catch (IllegalArgumentException e) {
+                    uuid = UUID.nameUUIDFromBytes(uid.getBytes(StandardCharsets.UTF_8));
+                }
+            } else if (matches(SEQUENCE, 0, nameEnd)) {
+                sequence = (int) digits(valueStart, lineLength);
+            } else if (matches(STATUS, 0, nameEnd)) {
+                status = CalendarEvent.Status.valueOf(text(valueStart, lineLength));
+            } else if (matches(TRANSP, 0, nameEnd)) {
+                transparent = matches(TRANSPARENT, valueStart, lineLength);
+            } else if (matches(RRULE, 0, nameEnd)) {
+                String rule = text(valueStart, lineLength);
+                try {
+                    recurrenceRule = RecurrenceRule.parse(rule);
+                } catch (IllegalArgumentException e) {
+                    skip("Unsupported RRULE " + rule + ": " + e.getMessage());
+                }
+            } else if (matches(DTSTART, 0, nameEnd)) {
+                startIsDate = lineLength - valueStart == 8;
+                startDate = dateTime(nameEnd, colon);
+            } else if (matches(DTEND, 0, nameEnd)) {
+                endDate = dateTime(nameEnd, colon);
+            } else if (matches(DURATION, 0, nameEnd)) {
+                duration = duration(text(valueStart, lineLength));
+                if (duration.isNegative()) {
+                    skip("Negative DURATION " + text(valueStart, lineLength));
+                }
+            } else if (matches(DTSTAMP, 0, nameEnd)) {
+                createdDate = dateTime(nameEnd, colon);
+            } else if (matches(CATEGORIES, 0, nameEnd)) {
+                readCategories(valueStart);
+            } else if (matches(LOCATION, 0, nameEnd)) {
+                location = unescapedText(valueStart, lineLength);
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalStateException("Invalid property value on line " + lineNumber + ": " + text(0, lineLength), e);
+        }
+    }
+
+    /**
+     * Parses an RFC 5545 dur-value. {@link Duration#parse} covers dur-date and dur-time but has no week designator,
+     * so a dur-week such as {@code P1W} is converted to days first.
+     */
+    private static Duration duration(String value) {
+        int designator = value.startsWith("+") || value.startsWith("-") ? 1 : 0;
+        if (value.endsWith("W") && value.startsWith("P", designator)) {
+            String weeks = value.substring(designator + 1, value.length() - 1);
+            if (weeks.isEmpty() || !weeks.chars().allMatch(Character::isDigit)) {
+                throw new IllegalArgumentException("Invalid duration: " + value);
+            }
+            Duration duration = Duration.ofDays(Math.multiplyExact(Long.parseLong(weeks), 7));
+            return value.startsWith("-") ? duration.negated() : duration;
+        }
+        return Duration.parse(value);
+    }
+
+    private void readCategories(int valueStart) {
+        int itemStart = valueStart;
+        for (int i = valueStart; i <= lineLength; i++) {
+            if (i < lineLength && line[i] == '\\') {
+                // escaped character, possibly a comma that belongs to the category
+                i++;
+                continue;
+            }
+            if (i == lineLength || line[i] == ',') {
+                if (i > itemStart) {
+                    categories.add(unescapedText(itemStart, i));
+                }
+                itemStart = i + 1;
+            }
+        }
+    }
+
+    private void skip(String reason) {
+        if (skipReason == null) {
+            skipReason = new SkippedEvent(lineNumber, reason);
+        }
+    }
+
+    /**
+     * @return the event, or null if it was skipped
+     */
+    private CalendarEvent buildEvent() {
+        if (startDate == null) {
+            throw new IllegalStateException("VEVENT ending on line " + lineNumber + " has no DTSTART");
+        }
+        if (skipReason != null) {
+            skippedEventCount++;
+            if (skippedEvents.size() < MAX_REPORTED_SKIPS) {
+                skippedEvents.add(skipReason);
+            }
+            return null;
+        }
+
+        // the writer always lists the language category last
+        if (!categories.isEmpty() && isLanguageCategory(categories.get(categories.size() - 1))) {
+            languageCategory = CalendarEventFactory.toLocale(categories.remove(categories.size() - 1));
+        }
+
+        if (endDate == null) {
+            if (duration != null) {
+                endDate = startDate.plus(duration);
+            } else {
+                // RFC 5545: a DATE start without an end lasts one day, a DATE-TIME start lasts no time at all
+                endDate = startIsDate ? startDate.plusDays(1) : startDate;
+            }
+        }
+
+        return new CalendarEvent(summary,
+                uuid == null ? UUID.randomUUID() : uuid,
+                sequence,
+                status,
+                transparent,
+                recurrenceRule,
+                startDate,
+                endDate,
+                createdDate == null ? ZonedDateTime.now(ZoneOffset.UTC) : createdDate,
+                languageCategory,
+                categories.isEmpty() ? null : categories.toArray(new String[0]),
+                location);
+    }
+
+    private boolean isLanguageCategory(String category) {
+        return CalendarEventFactory.isLanguageTag(category) && (writtenByThisProject || category.indexOf('-') > 0);
+    }
+
+    // value decoding
+
+    private String text(int start, int end) {
+        return new String(line, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a TEXT value, reversing the escaping of backslashes, semicolons, commas and line breaks.
+     */
+    private String unescapedText(int start, int end) {
+        int escape = start;
+        while (escape < end && line[escape] != '\\') {
+            escape++;
+        }
+        if (escape == end) {
+            return text(start, end);
+        }
+
+        // unescape in place; the value only gets shorter and the line is not used again after decoding
+        int write = escape;
+        for (int read = escape; read < end; read++) {
+            byte b = line[read];
+            if (b == '\\' && read + 1 < end) {
+                byte escaped = line[++read];
+                b = escaped == 'n' || escaped == 'N' ? (byte) '\n' : escaped;
+            }
+            line[write++] = b;
+        }
+        return text(start, write);
+    }
+
+    private long digits(int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Expected digits");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a DATE ({@code yyyyMMdd}) or DATE-TIME ({@code yyyyMMdd'T'HHmmss[Z]}) value, honouring a TZID parameter.
+     */
+    private ZonedDateTime dateTime(int nameEnd, int colon) {
+        int start = colon + 1;
+        int length = lineLength - start;
+        if (length != 8 && length != 15 && length != 16) {
+            throw new IllegalArgumentException("Invalid date value");
+        }
+
+        LocalDate date = LocalDate.of((int) digits(start, start + 4), (int) digits(start + 4, start + 6), (int) digits(start + 6, start + 8));
+        LocalTime time = LocalTime.MIDNIGHT;
+        if (length > 8) {
+            if (line[start + 8] != 'T') {
+                throw new IllegalArgumentException("Invalid date-time value");
+            }
+            time = LocalTime.of((int) digits(start + 9, start + 11), (int) digits(start + 11, start + 13), (int) digits(start + 13, start + 15));
+        }
+
+        ZoneId zone = ZoneOffset.UTC;
+        if (length != 16) {
+            String timeZone = parameter(TZID_PARAMETER, nameEnd, colon);
+            if (timeZone != null) {
+                zone = ZoneId.of(timeZone);
+            }
+        }
+        return ZonedDateTime.of(date, time, zone);
+    }
+
+    private String parameter(byte[] prefix, int nameEnd, int colon) {
+        int i = nameEnd;
+        while (i < colon) {
+            // skip the ';' that starts each parameter
+            i++;
+            int parameterEnd = i;
+            boolean quoted = false;
+            while (parameterEnd < colon && (quoted || line[parameterEnd] != ';')) {
+                if (line[parameterEnd] == '"') {
+                    quoted = !quoted;
+                }
+                parameterEnd++;
+            }
+            if (parameterEnd - i > prefix.length && matches(prefix, i, i + prefix.length)) {
+                int valueStart = i + prefix.length;
+                int valueEnd = parameterEnd;
+                if (line[valueStart] == '"' && line[valueEnd - 1] == '"') {
+                    valueStart++;
+                    valueEnd--;
+                }
+                return text(valueStart, valueEnd);
+            }
+            i = parameterEnd;
+        }
+        return null;
+    }
+
+    // line handling
+
+    /**
+     * @return the index of the ':' separating the property name and parameters from the value, or -1
+     */
+    private int valueSeparator() {
+        boolean quoted = false;
+        for (int i = 0; i < lineLength; i++) {
+            byte b = line[i];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == ':' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int nameEnd(int colon) {
+        for (int i = 0; i < colon; i++) {
+            if (line[i] == ';') {
+                return i;
+            }
+        }
+        return colon;
+    }
+
+    private boolean matches(byte[] expected, int start, int end) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            byte b = line[start + i];
+            // property names are case-insensitive
+            if (b != expected[i] && (b < 'a' || b > 'z' || b - 32 != expected[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWith(byte[] expected) {
+        return lineLength >= expected.length && matches(expected, 0, expected.length);
+    }
+
+    /**
+     * Reads the next logical line into {@link #line}, joining folded continuation lines.
+     *
+     * @return false once the input is exhausted
+     */
+    private boolean readLogicalLine() throws IOException {
+        if (pendingOffset > 0) {
+            // the bytes after END:VEVENT are still in the buffer past lineLength; move them to the front
+            int end = pendingEnd;
+            System.arraycopy(line, pendingOffset, line, 0, end - pendingOffset);
+            lineLength = end - pendingOffset;
+            pendingEnd = lineLength;
+            pendingOffset = -1;
+            return true;
+        }
+
+        lineLength = 0;
+        boolean readAny = false;
+        while (true) {
+            int b = nextByte();
+            if (b < 0) {
+                pendingEnd = lineLength;
+                return readAny;
+            }
+            readAny = true;
+            if (b == '\n') {
+                lineNumber++;
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                int following = peekByte();
+                if (following == ' ' || following == '\t') {
+                    // folded line: drop the line break and the single leading whitespace character
+                    nextByte();
+                    continue;
+                }
+                pendingEnd = lineLength;
+                return true;
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = (byte) b;
+        }
+    }
+
+    private int nextByte() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private int peekByte() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+
+        if (mappedFile != null) {
+            long remaining = mappedFile.size() - mappedPosition;
+            if (remaining <= 0) {
+                endOfInput = true;
+                return false;
+            }
+            long windowSize = Math.min(remaining, MAP_WINDOW_SIZE);
+            buffer = mappedFile.map(FileChannel.MapMode.READ_ONLY, mappedPosition, windowSize);
+            mappedPosition += windowSize;
+            return true;
+        }
+
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
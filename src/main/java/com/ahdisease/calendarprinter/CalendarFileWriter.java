@@ -1,24 +1,36 @@
 package com.ahdisease.calendarprinter;
 
+import com.ahdisease.calendarprinter.metrics.CalendarMetrics;
 import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.template.CalendarTemplate;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.InvalidPathException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 public class CalendarFileWriter {
     //constants
     private final String DEFAULT_WRITE_DIRECTORY = "ics_calendar_files\\";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String INDEX_FILE_SUFFIX = ".idx";
+    private static final String MANIFEST_FILE_SUFFIX = ".manifest";
 
     //instance variables
     private final File workingFile;
-    private final FileWriter writer;
-    private final List<CalendarEvent> events = new ArrayList<>();
+    private final EventStore events;
+    private CalendarTemplate template = CalendarTemplate.defaultTemplate();
 
     public CalendarFileWriter(String fileName) throws IllegalArgumentException {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("Invalid file name");
+        }
 
         File directory = new File(DEFAULT_WRITE_DIRECTORY);
         //confirm directory exists
@@ -26,93 +38,442 @@ public class CalendarFileWriter {
             directory.mkdir();
         }
 
-        //create file object with file and directory
+        //create file object with file and directory; the file itself is only replaced once an export completes
         workingFile = new File(directory, fileName);
-
-        //try to generate FileWriter
-        try {
-            writer = new FileWriter(workingFile);
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Invalid file name");
-        }
+        events = new CalendarEventStore();
     }
 
 
     public CalendarFileWriter(String fileName, String writeDirectory) throws IllegalArgumentException {
+        this(fileName, writeDirectory, new CalendarEventStore());
+    }
+
+    /**
+     * Writer over a store shared with other threads, e.g. a {@link ConcurrentCalendarEventStore} that producers keep
+     * adding to. Each export iterates the store once, so it writes a consistent snapshot of the events.
+     */
+    public CalendarFileWriter(String fileName, String writeDirectory, EventStore events) throws IllegalArgumentException {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("Invalid file name");
+        }
+        if (events == null) {
+            throw new IllegalArgumentException("Event store cannot be null");
+        }
+
         File directory = new File(writeDirectory);
         if (!directory.isDirectory() && !directory.isFile()) {
             directory.mkdirs();
         }
 
         //create file object with file and directory
-        File file = new File(directory + fileName);
-        if (!file.canWrite()) {
-            throw new InvalidPathException(file.getPath(), "No write access");
+        if (!directory.canWrite()) {
+            throw new InvalidPathException(directory.getPath(), "No write access");
         }
         workingFile = new File(directory, fileName);
+        this.events = events;
+    }
 
+    public void addCalendarEvent(CalendarEvent newEvent) throws IllegalArgumentException {
+        if (!CalendarMetrics.sampleIngest()) {
+            events.add(newEvent);
+            return;
+        }
+        long start = System.nanoTime();
         try {
-            writer = new FileWriter(file);
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Invalid file name");
+            events.add(newEvent);
+        } finally {
+            CalendarMetrics.INGEST.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    public void addCalendarEvent(CalendarEvent newEvent) throws IllegalArgumentException {
-        if (newEvent == null) {
-            throw new IllegalArgumentException("Calendar event cannot be empty");
+    public void addCalendarEvents(Collection<CalendarEvent> newEvents) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        try {
+            events.addAll(newEvents);
+        } finally {
+            CalendarMetrics.INGEST.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+    }
 
+    public void addCalendarEvents(Stream<CalendarEvent> newEvents) throws IllegalArgumentException {
+        long start = System.nanoTime();
+        try {
+            events.addAll(newEvents);
+        } finally {
+            CalendarMetrics.INGEST.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Writes the calendar to a temporary file and then atomically replaces the target, so readers see either the
+     * previous or the new calendar, never a partial one.
+     */
+    public File writeEventsToFile() throws IOException {
         if (getNumberOfCalendarEvents() == 0) {
-            events.add(newEvent);
-            return;
+            throw new IllegalStateException("No calendar events have been added to writer");
         }
 
-        events.stream()
-                .map(storedEvent -> storedEvent.getUuid())
-                .forEach(uuid -> {
-                    if (uuid.equals(newEvent.getUuid())) {
-                        throw new IllegalArgumentException("Calendar event already added");
-                    }
-                });
+        Path temporaryFile = createTemporaryFile();
+        long start = System.nanoTime();
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporaryFile), WRITE_BUFFER_SIZE)) {
+            // events are streamed through the buffered stream one at a time, so the full calendar is never held in memory
+            writeTo(output);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        CalendarMetrics.recordWrite(CalendarMetrics.WRITE_FULL, start, Files.size(temporaryFile));
+        publish(temporaryFile, workingFile.toPath());
+        // the previous index no longer describes the file
+        Files.deleteIfExists(indexPath());
 
-        events.add(newEvent);
+        return workingFile;
     }
 
-    public File writeEventsToFile() throws IOException {
+    /**
+     * Writes the calendar file with VEVENT blocks encoded in parallel by the given serializer. The file content is
+     * identical to {@link #writeEventsToFile()}.
+     */
+    public File writeEventsToFile(ParallelEventSerializer serializer) throws IOException {
+        if (getNumberOfCalendarEvents() == 0) {
+            throw new IllegalStateException("No calendar events have been added to writer");
+        }
+
+        Path temporaryFile = createTemporaryFile();
+        long start = System.nanoTime();
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporaryFile), WRITE_BUFFER_SIZE)) {
+            writeTo(output, serializer);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        CalendarMetrics.recordWrite(CalendarMetrics.WRITE_FULL, start, Files.size(temporaryFile));
+        publish(temporaryFile, workingFile.toPath());
+        Files.deleteIfExists(indexPath());
+
+        return workingFile;
+    }
+
+    /**
+     * Incremental export: rewrites the calendar file, writing only events that are new or changed since the previous
+     * incremental export. An event is unchanged when its UID, SEQUENCE and content fingerprint all match the index, so
+     * edits that do not bump SEQUENCE are written too. The VEVENT blocks of unchanged events are copied from the
+     * previous file with {@link FileChannel#transferTo}, adjacent blocks in a single call.
+     * <p>
+     * The content fingerprint is hashed from the event's encoding, so every event whose encoding is not cached is still
+     * encoded in memory to compare it: all of them on the first export after a restart, and the modified ones after
+     * that. What an unchanged event saves is the write, not the encoding.
+     * <p>
+     * Each export writes a sidecar index ({@code <file>.idx}) with the UID, SEQUENCE, content fingerprint, offset and
+     * length of every block.
+     * Without a usable index, or if the file no longer has the size the index recorded, every event is encoded. The
+     * new file and index are written to temporary files and moved into place atomically.
+     */
+    public File writeChangedEventsToFile() throws IOException {
         if (getNumberOfCalendarEvents() == 0) {
             throw new IllegalStateException("No calendar events have been added to writer");
         }
 
-        String iCalendarString = toString();
+        Path target = workingFile.toPath();
+        ExportIndex previous = ExportIndex.read(indexPath());
+        if (previous != null && (!Files.isRegularFile(target) || Files.size(target) != previous.getFileSize()
+                || previous.getTemplateFingerprint() != template.getFingerprint())) {
+            previous = null;
+        }
+
+        Map<UUID, ExportIndex.Entry> entries = new LinkedHashMap<>();
+        Path temporaryFile = createTemporaryFile();
+        long start = System.nanoTime();
+        long fileSize;
+        try (FileChannel output = FileChannel.open(temporaryFile, StandardOpenOption.WRITE);
+             FileChannel input = previous == null ? null : FileChannel.open(target, StandardOpenOption.READ)) {
+            OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(output), WRITE_BUFFER_SIZE);
+            template.writeHeader(buffered);
+            long offset = template.getHeaderLength();
+            // range of the previous file still to be copied
+            long copyStart = 0;
+            long copyLength = 0;
+
+            for (CalendarEvent event : events) {
+                ExportIndex.Entry unchanged = previous == null ? null : previous.get(event.getUuid());
+                long fingerprint = event.getContentFingerprint();
+                if (unchanged != null && unchanged.sequence() == event.getSequence() && unchanged.contentFingerprint() == fingerprint) {
+                    if (copyLength > 0 && copyStart + copyLength != unchanged.offset()) {
+                        copyRange(input, copyStart, copyLength, output, buffered);
+                        copyLength = 0;
+                    }
+                    if (copyLength == 0) {
+                        copyStart = unchanged.offset();
+                    }
+                    copyLength += unchanged.length();
+                    entries.put(event.getUuid(), new ExportIndex.Entry(event.getUuid(), event.getSequence(), fingerprint, offset, unchanged.length()));
+                    offset += unchanged.length();
+                } else {
+                    if (copyLength > 0) {
+                        copyRange(input, copyStart, copyLength, output, buffered);
+                        copyLength = 0;
+                    }
+                    int length = template.writeEvent(event, buffered);
+                    entries.put(event.getUuid(), new ExportIndex.Entry(event.getUuid(), event.getSequence(), fingerprint, offset, length));
+                    offset += length;
+                }
+            }
+            if (copyLength > 0) {
+                copyRange(input, copyStart, copyLength, output, buffered);
+            }
 
-        writer.write(iCalendarString);
-        writer.flush();
-        writer.close();
+            template.writeFooter(buffered);
+            buffered.flush();
+            fileSize = offset + template.getFooterLength();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        CalendarMetrics.recordWrite(CalendarMetrics.WRITE_INCREMENTAL, start, fileSize);
 
+        // the old index is removed first, so a crash between the two moves leaves no index that contradicts the file
+        Files.deleteIfExists(indexPath());
+        publish(temporaryFile, target);
+        Path temporaryIndex = createTemporaryFile();
+        new ExportIndex(entries, fileSize, template.getFingerprint()).write(temporaryIndex);
+        publish(temporaryIndex, indexPath());
 
         return workingFile;
     }
 
+    /**
+     * Sharded export: splits the calendar by the DTSTART of each event into one VCALENDAR file per month or year,
+     * named {@code <name>-<period>.ics} (or {@code .ics.gz} when compressed) next to this writer's file. Shards are
+     * written concurrently by at most {@code maxOpenFiles} threads, so no more files than that are open at once.
+     *
+     * @return the manifest listing every shard, see {@link #writeShardedEventsToFiles(ShardPeriod, boolean, Executor, Semaphore)}
+     */
+    public File writeShardedEventsToFiles(ShardPeriod period, boolean compress, int maxOpenFiles) throws IOException {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("At least one file must be allowed open");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxOpenFiles, Runtime.getRuntime().availableProcessors()));
+        try {
+            return writeShardedEventsToFiles(period, compress, executor, new Semaphore(maxOpenFiles));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sharded export on a caller-supplied executor. Every shard holds a permit of {@code openFiles} while its file is
+     * open, so one semaphore can bound the open files of several concurrent exports. Each shard is written to a
+     * temporary file and moved into place once complete, gzip-compressed while streaming if {@code compress} is set.
+     * <p>
+     * The manifest ({@code <name>.manifest}) is written last and lists one shard per line in period order as
+     * {@code <period> TAB <file name> TAB <event count> TAB <file size>}.
+     *
+     * @return the manifest file
+     */
+    public File writeShardedEventsToFiles(ShardPeriod period, boolean compress, Executor executor, Semaphore openFiles) throws IOException {
+        if (period == null || executor == null || openFiles == null) {
+            throw new IllegalArgumentException("Shard period, executor and semaphore cannot be null");
+        }
+        if (getNumberOfCalendarEvents() == 0) {
+            throw new IllegalStateException("No calendar events have been added to writer");
+        }
+
+        // events keep their calendar order within a shard
+        SortedMap<String, List<CalendarEvent>> shards = new TreeMap<>();
+        for (CalendarEvent event : events) {
+            shards.computeIfAbsent(period.key(event.getStartDate()), key -> new ArrayList<>()).add(event);
+        }
+
+        String baseName = baseName();
+        Map<String, CompletableFuture<Path>> writes = new LinkedHashMap<>();
+        for (Map.Entry<String, List<CalendarEvent>> shard : shards.entrySet()) {
+            Path shardFile = workingFile.toPath().resolveSibling(baseName + "-" + shard.getKey() + (compress ? ".ics.gz" : ".ics"));
+            writes.put(shard.getKey(), CompletableFuture.supplyAsync(() -> {
+                try {
+                    openFiles.acquire();
+                    try {
+                        writeShard(shard.getValue(), shardFile, compress);
+                    } finally {
+                        openFiles.release();
+                    }
+                    return shardFile;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting to open " + shardFile);
+                }
+            }, executor));
+        }
+
+        StringBuilder manifest = new StringBuilder();
+        for (Map.Entry<String, CompletableFuture<Path>> write : writes.entrySet()) {
+            Path shardFile;
+            try {
+                shardFile = write.getValue().join();
+            } catch (CompletionException | CancellationException e) {
+                writes.values().forEach(pending -> pending.cancel(true));
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw new IOException("Shard " + write.getKey() + " could not be written", e);
+            }
+            manifest.append(write.getKey()).append('\t')
+                    .append(shardFile.getFileName()).append('\t')
+                    .append(shards.get(write.getKey()).size()).append('\t')
+                    .append(Files.size(shardFile)).append('\n');
+        }
+
+        Path manifestFile = workingFile.toPath().resolveSibling(baseName + MANIFEST_FILE_SUFFIX);
+        Path temporaryManifest = createTemporaryFile();
+        Files.writeString(temporaryManifest, manifest, StandardCharsets.UTF_8);
+        publish(temporaryManifest, manifestFile);
+        return manifestFile.toFile();
+    }
+
+    public void writeEventsTo(Writer out) throws IOException {
+        if (getNumberOfCalendarEvents() == 0) {
+            throw new IllegalStateException("No calendar events have been added to writer");
+        }
+
+        writeTo(out);
+        out.flush();
+    }
+
+    public void writeEventsTo(OutputStream out) throws IOException {
+        if (getNumberOfCalendarEvents() == 0) {
+            throw new IllegalStateException("No calendar events have been added to writer");
+        }
+
+        writeTo(out);
+        out.flush();
+    }
+
+    public void writeEventsTo(WritableByteChannel channel) throws IOException {
+        // the channel is left open; closing it is the caller's responsibility
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE);
+        writeEventsTo(out);
+    }
+
+    /**
+     * Streams the UTF-8 encoded VCALENDAR into the given output. Each event contributes its cached encoding, so
+     * only events modified since the last export are formatted again.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        template.writeCalendar(events, out);
+    }
+
+    /**
+     * Streams a UTF-8 encoded VCALENDAR holding the given events, e.g. a filtered subset, without creating a writer
+     * or a file.
+     */
+    public static void writeCalendar(Iterable<CalendarEvent> events, OutputStream out) throws IOException {
+        CalendarTemplate.defaultTemplate().writeCalendar(events, out);
+    }
+
+    public void writeTo(OutputStream out, ParallelEventSerializer serializer) throws IOException {
+        template.writeHeader(out);
+        serializer.writeEvents(events.toList(), out, template);
+        template.writeFooter(out);
+    }
+
+    /**
+     * Streams the full VCALENDAR text into the given output, one event at a time.
+     * The characters written are identical to {@link #toString()}.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        template.writeCalendar(events, out);
+    }
+
     // Overrides
 
 
     @Override
     public String toString() {
-        //TODO research how to include other calendar apps and generate this section based on user selection
         StringBuilder iCalendarFormat = new StringBuilder();
-        iCalendarFormat.append("BEGIN:VCALENDAR\n");
-        iCalendarFormat.append("VERSION:2.0\n");
-        iCalendarFormat.append("PRODID:-//ZContent.net//Zap Calendar 1.0//EN\n");
-        iCalendarFormat.append("CALSCALE:GREGORIAN\n");
-        iCalendarFormat.append("METHOD:PUBLISH\n");
+        try {
+            writeTo(iCalendarFormat);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return iCalendarFormat.toString();
+    }
 
-        for (CalendarEvent event : events) {
-            iCalendarFormat.append(event);
+    private void writeShard(List<CalendarEvent> shardEvents, Path shardFile, boolean compress) throws IOException {
+        Path temporaryFile = createTemporaryFile();
+        long start = System.nanoTime();
+        try (OutputStream file = Files.newOutputStream(temporaryFile);
+             OutputStream output = new BufferedOutputStream(compress ? new GZIPOutputStream(file, WRITE_BUFFER_SIZE) : file, WRITE_BUFFER_SIZE)) {
+            template.writeCalendar(shardEvents, output);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
         }
+        CalendarMetrics.recordWrite(CalendarMetrics.WRITE_SHARD, start, Files.size(temporaryFile));
+        publish(temporaryFile, shardFile);
+    }
 
-        iCalendarFormat.append("\nEND:VCALENDAR");
-        return iCalendarFormat.toString();
+    /**
+     * @return the file name without its {@code .ics} extension
+     */
+    private String baseName() {
+        String name = workingFile.getName();
+        return name.endsWith(".ics") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    private Path indexPath() {
+        return workingFile.toPath().resolveSibling(workingFile.getName() + INDEX_FILE_SUFFIX);
+    }
+
+    private Path createTemporaryFile() throws IOException {
+        return Files.createTempFile(workingFile.getAbsoluteFile().toPath().getParent(), workingFile.getName(), ".tmp");
+    }
+
+    /**
+     * Moves a completed temporary file over the target, atomically where the file system supports it.
+     */
+    static void publish(Path temporaryFile, Path target) throws IOException {
+        try {
+            Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes of the previous file into the output, after flushing the bytes buffered ahead of
+     * them.
+     */
+    private static void copyRange(FileChannel input, long position, long length, FileChannel output, OutputStream buffered) throws IOException {
+        buffered.flush();
+        long copied = 0;
+        while (copied < length) {
+            long transferred = input.transferTo(position + copied, length - copied, output);
+            if (transferred <= 0) {
+                throw new IOException("Previous calendar file ended before the indexed event");
+            }
+            copied += transferred;
+        }
+    }
+
+    /**
+     * Sets the header and event layout used by every export of this writer, e.g. a tenant's own PRODID. An
+     * incremental export after a template change encodes every event again.
+     */
+    public void setTemplate(CalendarTemplate template) throws IllegalArgumentException {
+        if (template == null) {
+            throw new IllegalArgumentException("Template cannot be null");
+        }
+        this.template = template;
+    }
+
+    public CalendarTemplate getTemplate() {
+        return template;
+    }
+
+    public Iterable<CalendarEvent> getCalendarEvents() {
+        return events;
     }
 
     public int getNumberOfCalendarEvents() {
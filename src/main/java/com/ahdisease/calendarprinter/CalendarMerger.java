@@ -0,0 +1,151 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Streaming k-way merge of several calendars, each already sorted by DTSTART, into one DTSTART-ordered sequence.
+ * <p>
+ * Events are read one at a time from each source, so memory grows with the number of sources rather than with the
+ * number of events. Events that start at the same second are collected into a group before any of them is returned.
+ * When several events in a group share a UID, only one is kept: the one with the highest SEQUENCE, then the latest
+ * DTSTAMP, then the one from the earliest source. The remaining events of a group keep their source order.
+ * <p>
+ * Only events that start at the same second are compared. This is a known limitation: a revision that moved an event
+ * to another start time is not matched to the earlier revision, and both are returned. Catching those would mean
+ * remembering every UID seen, which is the unbounded memory this class avoids; a global dedupe belongs in a separate,
+ * explicitly requested step that spills its UIDs to disk. Memory is bounded by the number of sources plus the largest
+ * group of events sharing a start time, and each source is read exactly once, so sources that cannot be read twice,
+ * such as a {@link CalendarFileReader}, can be merged.
+ */
+public class CalendarMerger implements Iterator<CalendarEvent> {
+    //instance variables
+    private final List<Iterator<CalendarEvent>> sources;
+    // next event of each source that is not exhausted, earliest first
+    private final PriorityQueue<Head> heads;
+    private final ArrayDeque<CalendarEvent> group = new ArrayDeque<>();
+    private long duplicatesDropped;
+
+    public CalendarMerger(List<? extends Iterator<CalendarEvent>> sources) throws IllegalArgumentException {
+        if (sources == null) {
+            throw new IllegalArgumentException("Calendar sources cannot be null");
+        }
+        this.sources = new ArrayList<>(sources);
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()));
+        for (int i = 0; i < this.sources.size(); i++) {
+            if (this.sources.get(i) == null) {
+                throw new IllegalArgumentException("Calendar sources cannot be null");
+            }
+            advance(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Merges the given calendar files and streams the result to {@code out} as one VCALENDAR. Every file is open
+     * for the whole merge.
+     *
+     * @return the number of duplicate revisions that were dropped
+     */
+    public static long writeMerged(List<Path> files, OutputStream out) throws IOException {
+        List<CalendarFileReader> readers = new ArrayList<>(files.size());
+        try {
+            for (Path file : files) {
+                readers.add(CalendarFileReader.open(file));
+            }
+            CalendarMerger merger = new CalendarMerger(readers);
+            CalendarFileWriter.writeCalendar(() -> merger, out);
+            return merger.getDuplicatesDropped();
+        } finally {
+            IOException closeFailure = null;
+            for (CalendarFileReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    closeFailure = e;
+                }
+            }
+            if (closeFailure != null) {
+                throw closeFailure;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (group.isEmpty() && !heads.isEmpty()) {
+            collectGroup();
+        }
+        return !group.isEmpty();
+    }
+
+    @Override
+    public CalendarEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return group.poll();
+    }
+
+    /**
+     * @return the number of events dropped so far because a preferred revision of the same UID was kept
+     */
+    public long getDuplicatesDropped() {
+        return duplicatesDropped;
+    }
+
+    // helper methods
+
+    /**
+     * Takes every event starting at the earliest pending second, replacing each from its source, and keeps the
+     * preferred revision of each UID.
+     */
+    private void collectGroup() {
+        long startSecond = heads.peek().startSecond;
+        Map<UUID, CalendarEvent> kept = new LinkedHashMap<>();
+        while (!heads.isEmpty() && heads.peek().startSecond == startSecond) {
+            Head head = heads.poll();
+            CalendarEvent previous = kept.putIfAbsent(head.event.getUuid(), head.event);
+            if (previous != null) {
+                duplicatesDropped++;
+                if (isPreferred(head.event, previous)) {
+                    kept.put(head.event.getUuid(), head.event);
+                }
+            }
+            advance(head.source, startSecond);
+        }
+        group.addAll(kept.values());
+    }
+
+    private void advance(int source, long currentSecond) {
+        Iterator<CalendarEvent> events = sources.get(source);
+        if (!events.hasNext()) {
+            return;
+        }
+        CalendarEvent event = events.next();
+        long startSecond = event.getStartDate().toEpochSecond();
+        if (startSecond < currentSecond) {
+            throw new IllegalStateException("Calendar source " + source + " is not sorted by DTSTART");
+        }
+        heads.add(new Head(startSecond, source, event));
+    }
+
+    private static boolean isPreferred(CalendarEvent candidate, CalendarEvent current) {
+        if (candidate.getSequence() != current.getSequence()) {
+            return candidate.getSequence() > current.getSequence();
+        }
+        return candidate.getCreatedDate().isAfter(current.getCreatedDate());
+    }
+
+    private record Head(long startSecond, int source, CalendarEvent event) implements Comparable<Head> {
+        @Override
+        public int compareTo(Head other) {
+            int byStart = Long.compare(startSecond, other.startSecond);
+            // equal start times come out in source order, so the earliest source wins a full tie
+            return byStart != 0 ? byStart : Integer.compare(source, other.source);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line entry point that writes calendars without starting Spring. Only the model, template and writer classes
+ * are loaded, so no application context, web server or datasource is initialized, and no database has to be
+ * reachable. Use {@link CalendarPrinterApplication} for the HTTP feed instead.
+ * <pre>
+ * event  -o &lt;file.ics&gt; --start &lt;date&gt; --end &lt;date&gt; [--summary &lt;text&gt;] [--location &lt;text&gt;]
+ *        [--status TENTATIVE|CONFIRMED|CANCELLED] [--transparent] [--language &lt;tag&gt;] [--category &lt;name&gt;]...
+ * import csv|jsonl &lt;input&gt; &lt;file.ics&gt;
+ * merge  &lt;file.ics&gt; &lt;input.ics&gt;...
+ * </pre>
+ * Dates are ISO-8601 with an offset or zone, as in {@link BulkEventImporter}. With {@code --timing} before the command,
+ * the time from JVM launch to {@code main}, the time spent in the command and the total are printed to standard error.
+ * <p>
+ * The {@code cli} Maven profile packages this class into {@code target/cli} together with a class-data
+ * sharing archive; see the README for the launch command.
+ */
+public final class CalendarPrinterCli {
+
+    //constants
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String USAGE = """
+            usage: calendar-printer [--timing] <command> [arguments]
+              event  -o <file.ics> --start <date> --end <date> [--summary <text>] [--location <text>]
+                     [--status TENTATIVE|CONFIRMED|CANCELLED] [--transparent] [--language <tag>] [--category <name>]...
+              import csv|jsonl <input> <file.ics>
+              merge  <file.ics> <input.ics>...""";
+
+    private CalendarPrinterCli() {
+    }
+
+    public static void main(String[] args) {
+        long mainNanos = System.nanoTime();
+        long mainMillis = System.currentTimeMillis();
+        boolean timing = args.length > 0 && args[0].equals("--timing");
+        String[] commandArgs = timing ? Arrays.copyOfRange(args, 1, args.length) : args;
+
+        int status = run(commandArgs, System.out, System.err);
+
+        if (timing) {
+            System.err.println(formatTiming(mainMillis, System.nanoTime() - mainNanos));
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Runs one command, printing results to {@code out} and problems to {@code err}.
+     *
+     * @return the process exit status: {@link #EXIT_OK}, {@link #EXIT_FAILED} or {@link #EXIT_USAGE}
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length == 0) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+        try {
+            switch (args[0]) {
+                case "event" -> event(commandArgs, out);
+                case "import" -> importEvents(commandArgs, out, err);
+                case "merge" -> merge(commandArgs, out);
+                case "help", "--help", "-h" -> out.println(USAGE);
+                default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+            return EXIT_OK;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            err.println("error: " + e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (IOException | RuntimeException e) {
+            err.println("error: " + e);
+            return EXIT_FAILED;
+        }
+    }
+
+    // helper methods
+
+    private static void event(String[] args, PrintStream out) throws IOException {
+        String output = null;
+        String summary = null;
+        String location = null;
+        String language = null;
+        ZonedDateTime start = null;
+        ZonedDateTime end = null;
+        CalendarEvent.Status status = CalendarEvent.Status.CONFIRMED;
+        boolean transparent = false;
+        List<String> categories = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o", "--output" -> output = value(args, ++i);
+                case "--summary" -> summary = value(args, ++i);
+                case "--location" -> location = value(args, ++i);
+                case "--language" -> language = value(args, ++i);
+                case "--start" -> start = ZonedDateTime.parse(value(args, ++i));
+                case "--end" -> end = ZonedDateTime.parse(value(args, ++i));
+                case "--status" -> status = CalendarEvent.Status.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                case "--transparent" -> transparent = true;
+                case "--category" -> categories.add(value(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (output == null || start == null || end == null) {
+            throw new IllegalArgumentException("event requires -o, --start and --end");
+        }
+        if (language != null && !CalendarEventFactory.isLanguageTag(language)) {
+            throw new IllegalArgumentException("Invalid language tag: " + language);
+        }
+
+        CalendarEvent event = new CalendarEventFactory().create(summary, start, end, status, transparent, language,
+                categories.isEmpty() ? null : categories.toArray(String[]::new), location);
+        File target = new File(output).getAbsoluteFile();
+        CalendarFileWriter writer = new CalendarFileWriter(target.getName(), target.getParent());
+        writer.addCalendarEvent(event);
+        out.println(writer.writeEventsToFile().getPath());
+    }
+
+    private static void importEvents(String[] args, PrintStream out, PrintStream err) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("import requires a format, an input file and an output file");
+        }
+        BulkEventImporter.Format format = switch (args[0]) {
+            case "csv" -> BulkEventImporter.Format.CSV;
+            case "jsonl" -> BulkEventImporter.Format.JSON_LINES;
+            default -> throw new IllegalArgumentException("Unknown import format: " + args[0]);
+        };
+
+        BulkEventImporter.ImportReport report;
+        try (BulkEventImporter importer = new BulkEventImporter()) {
+            report = importer.importFile(Path.of(args[1]), format, Path.of(args[2]));
+        }
+        for (BulkEventImporter.RowError error : report.errors()) {
+            err.println(args[1] + ":" + error.lineNumber() + ": " + error.message());
+        }
+        out.println(report.eventsImported() + " events imported, " + report.rowsRejected() + " rows rejected");
+    }
+
+    private static void merge(String[] args, PrintStream out) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("merge requires an output file and at least one input file");
+        }
+        Path target = Path.of(args[0]).toAbsolutePath();
+        List<Path> inputs = Arrays.stream(args, 1, args.length).map(Path::of).toList();
+
+        Files.createDirectories(target.getParent());
+        Path temporaryFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        long duplicatesDropped;
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporaryFile), WRITE_BUFFER_SIZE)) {
+            duplicatesDropped = CalendarMerger.writeMerged(inputs, output);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        CalendarFileWriter.publish(temporaryFile, target);
+        out.println(inputs.size() + " calendars merged, " + duplicatesDropped + " duplicate events dropped");
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * The JVM start time is read only after the command finished, so loading the management classes is not counted.
+     * Time spent in the launcher before the JVM is created is not included.
+     */
+    private static String formatTiming(long mainMillis, long commandNanos) {
+        long startupMillis = mainMillis - ManagementFactory.getRuntimeMXBean().getStartTime();
+        long commandMillis = commandNanos / 1_000_000;
+        return "startup " + startupMillis + " ms, command " + commandMillis + " ms, total " + (startupMillis + commandMillis) + " ms";
+    }
+}
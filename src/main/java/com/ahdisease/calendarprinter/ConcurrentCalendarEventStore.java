@@ -0,0 +1,258 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.metrics.CalendarMetrics;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Event store for many producer threads adding to one calendar.
+ * <p>
+ * The UID duplicate check is a single {@link ConcurrentHashMap#putIfAbsent}. Events are then appended to one of
+ * several stripes, chosen by the adding thread, so producers rarely share a lock. Each append takes a number from one
+ * global counter while holding its stripe lock. That number records the order in which events were added.
+ * <p>
+ * {@link #snapshot()} holds every stripe lock only long enough to read each stripe's length. The events below those
+ * lengths are never moved, so they are merged back into insertion order after the locks are released, while
+ * producers keep adding. Because numbers are taken under a stripe lock, a snapshot is always a prefix of the
+ * insertion order. Iteration, {@link #toList()} and {@link #stream()} all work on a snapshot, so a write sees one
+ * consistent calendar.
+ */
+public class ConcurrentCalendarEventStore implements EventStore {
+    //constants
+    private static final int CHUNK_SIZE = 1024;
+
+    //instance variables
+    private final Map<UUID, CalendarEvent> eventsByUid = new ConcurrentHashMap<>();
+    private final Stripe[] stripes;
+    private final AtomicLong insertionOrder = new AtomicLong();
+
+    public ConcurrentCalendarEventStore() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public ConcurrentCalendarEventStore(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be a positive integer.");
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void add(CalendarEvent newEvent) throws IllegalArgumentException {
+        if (newEvent == null) {
+            throw new IllegalArgumentException("Calendar event cannot be empty");
+        }
+        if (eventsByUid.putIfAbsent(newEvent.getUuid(), newEvent) != null) {
+            CalendarMetrics.DUPLICATE_EVENTS.increment();
+            throw new IllegalArgumentException("Calendar event already added");
+        }
+        stripe().append(List.of(newEvent), insertionOrder);
+        CalendarMetrics.INGESTED_EVENTS.increment();
+    }
+
+    /**
+     * The UIDs of the batch are claimed one at a time; if one is already taken, the claimed ones are released again
+     * and nothing is appended. The accepted batch is appended to one stripe under a single lock, so it stays
+     * contiguous in the insertion order.
+     */
+    @Override
+    public void addAll(Collection<CalendarEvent> newEvents) throws IllegalArgumentException {
+        if (newEvents == null) {
+            throw new IllegalArgumentException("Calendar events cannot be empty");
+        }
+        for (CalendarEvent newEvent : newEvents) {
+            if (newEvent == null) {
+                throw new IllegalArgumentException("Calendar event cannot be empty");
+            }
+        }
+
+        List<CalendarEvent> claimed = new ArrayList<>(newEvents.size());
+        for (CalendarEvent newEvent : newEvents) {
+            if (eventsByUid.putIfAbsent(newEvent.getUuid(), newEvent) != null) {
+                for (CalendarEvent event : claimed) {
+                    eventsByUid.remove(event.getUuid(), event);
+                }
+                CalendarMetrics.DUPLICATE_EVENTS.increment();
+                throw new IllegalArgumentException("Calendar event already added");
+            }
+            claimed.add(newEvent);
+        }
+        stripe().append(claimed, insertionOrder);
+        CalendarMetrics.INGESTED_EVENTS.increment(claimed.size());
+    }
+
+    @Override
+    public void addAll(Stream<CalendarEvent> newEvents) throws IllegalArgumentException {
+        if (newEvents == null) {
+            throw new IllegalArgumentException("Calendar events cannot be empty");
+        }
+
+        // the batch has to be materialized so it can be rejected as a whole
+        addAll(newEvents.collect(Collectors.toList()));
+    }
+
+    @Override
+    public boolean contains(UUID uid) {
+        return eventsByUid.containsKey(uid);
+    }
+
+    @Override
+    public CalendarEvent get(UUID uid) {
+        return eventsByUid.get(uid);
+    }
+
+    /**
+     * @return the number of accepted events; events of a batch being added may be counted before they are appended
+     */
+    @Override
+    public int size() {
+        return eventsByUid.size();
+    }
+
+    /**
+     * @return the events added so far, in insertion order, while producers keep adding
+     */
+    public List<CalendarEvent> snapshot() {
+        Stripe.View[] views = new Stripe.View[stripes.length];
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                views[i] = stripes[i].view();
+            }
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+        return merge(views);
+    }
+
+    @Override
+    public List<CalendarEvent> toList() {
+        return snapshot();
+    }
+
+    @Override
+    public Stream<CalendarEvent> stream() {
+        return snapshot().stream();
+    }
+
+    /**
+     * Insertion numbers are taken before an event is appended, so a snapshot taken after reading the version
+     * contains every event the version counts.
+     */
+    @Override
+    public long version() {
+        return insertionOrder.get() + CalendarEvent.getTotalModifications();
+    }
+
+    // overrides
+    @Override
+    public Iterator<CalendarEvent> iterator() {
+        return snapshot().iterator();
+    }
+
+    // helper methods
+
+    private Stripe stripe() {
+        // Thread.getId is stable for the life of a thread, so a producer keeps appending to the same stripe
+        return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    }
+
+    /**
+     * Merges the stripes, each already sorted by insertion order, with a min-heap over their next entries.
+     */
+    private static List<CalendarEvent> merge(Stripe.View[] views) {
+        int total = 0;
+        for (Stripe.View view : views) {
+            total += view.size();
+        }
+        List<CalendarEvent> events = new ArrayList<>(total);
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, views.length),
+                Comparator.comparingLong(head -> views[head[0]].order(head[1])));
+        for (int i = 0; i < views.length; i++) {
+            if (views[i].size() > 0) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            Stripe.View view = views[head[0]];
+            events.add(view.event(head[1]));
+            // consecutive entries of one stripe are usually consecutive overall, e.g. a batch
+            int position = head[1] + 1;
+            while (position < view.size() && (heads.isEmpty() || view.order(position) < views[heads.peek()[0]].order(heads.peek()[1]))) {
+                events.add(view.event(position));
+                position++;
+            }
+            if (position < view.size()) {
+                head[1] = position;
+                heads.add(head);
+            }
+        }
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Append-only list of events and their insertion numbers, stored in fixed-size chunks that are never copied, so
+     * entries below a recorded size can be read without the lock.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private CalendarEvent[][] events = new CalendarEvent[4][];
+        private long[][] orders = new long[4][];
+        private int size;
+
+        record View(CalendarEvent[][] events, long[][] orders, int size) {
+            CalendarEvent event(int index) {
+                return events[index / CHUNK_SIZE][index % CHUNK_SIZE];
+            }
+
+            long order(int index) {
+                return orders[index / CHUNK_SIZE][index % CHUNK_SIZE];
+            }
+        }
+
+        void append(List<CalendarEvent> newEvents, AtomicLong insertionOrder) {
+            lock.lock();
+            try {
+                long order = insertionOrder.getAndAdd(newEvents.size());
+                for (CalendarEvent event : newEvents) {
+                    int chunk = size / CHUNK_SIZE;
+                    if (chunk == events.length) {
+                        // only the chunk directories are copied; chunks already handed to a view stay in place
+                        events = Arrays.copyOf(events, chunk * 2);
+                        orders = Arrays.copyOf(orders, chunk * 2);
+                    }
+                    if (events[chunk] == null) {
+                        events[chunk] = new CalendarEvent[CHUNK_SIZE];
+                        orders[chunk] = new long[CHUNK_SIZE];
+                    }
+                    events[chunk][size % CHUNK_SIZE] = event;
+                    orders[chunk][size % CHUNK_SIZE] = order++;
+                    size++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Must be called while holding the lock.
+         */
+        View view() {
+            return new View(events, orders, size);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Collection of calendar events keyed on UID, in the order they were added. Adding an event whose UID is already
+ * stored fails with "Calendar event already added".
+ *
+ * @see CalendarEventStore
+ * @see ConcurrentCalendarEventStore
+ */
+public interface EventStore extends Iterable<CalendarEvent> {
+
+    void add(CalendarEvent newEvent) throws IllegalArgumentException;
+
+    /**
+     * Adds every event in the batch, preserving its order. A rejected batch leaves the store unchanged.
+     */
+    void addAll(Collection<CalendarEvent> newEvents) throws IllegalArgumentException;
+
+    void addAll(Stream<CalendarEvent> newEvents) throws IllegalArgumentException;
+
+    boolean contains(UUID uid);
+
+    CalendarEvent get(UUID uid);
+
+    int size();
+
+    /**
+     * @return a snapshot of the stored events in insertion order
+     */
+    List<CalendarEvent> toList();
+
+    Stream<CalendarEvent> stream();
+
+    /**
+     * @return a number that grows whenever an event is added to this store or any event is modified, see
+     * {@link CalendarEvent#getTotalModifications()}. A snapshot taken after reading the version is at least as new
+     * as that version, so anything derived from it can be cached under the version.
+     */
+    long version();
+}
@@ -0,0 +1,94 @@
+package com.ahdisease.calendarprinter;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sidecar index of a written calendar file: the UID, SEQUENCE, content fingerprint, byte offset and length of every
+ * VEVENT block, plus the size of the file it describes and the fingerprint of the template it was written with. Used by
+ * {@link CalendarFileWriter#writeChangedEventsToFile()} to copy the blocks of unchanged events from the previous export
+ * instead of encoding them again.
+ */
+class ExportIndex {
+    //constants
+    private static final int MAGIC = 0x49435849; // "ICXI"
+    private static final int VERSION = 3;
+
+    //instance variables
+    private final Map<UUID, Entry> entries;
+    private final long fileSize;
+    private final long templateFingerprint;
+
+    /**
+     * {@code contentFingerprint} is {@link com.ahdisease.calendarprinter.model.CalendarEvent#getContentFingerprint()}
+     * at the time the block was written.
+     */
+    record Entry(UUID uid, int sequence, long contentFingerprint, long offset, int length) {
+    }
+
+    ExportIndex(Map<UUID, Entry> entries, long fileSize, long templateFingerprint) {
+        this.entries = entries;
+        this.fileSize = fileSize;
+        this.templateFingerprint = templateFingerprint;
+    }
+
+    /**
+     * @return the index stored at {@code path}, or null if there is none or it cannot be read
+     */
+    static ExportIndex read(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long fileSize = in.readLong();
+            long templateFingerprint = in.readLong();
+            int count = in.readInt();
+            Map<UUID, Entry> entries = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+            for (int i = 0; i < count; i++) {
+                UUID uid = new UUID(in.readLong(), in.readLong());
+                entries.put(uid, new Entry(uid, in.readInt(), in.readLong(), in.readLong(), in.readInt()));
+            }
+            return new ExportIndex(entries, fileSize, templateFingerprint);
+        } catch (IOException e) {
+            // a damaged index only costs a full export
+            return null;
+        }
+    }
+
+    void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileSize);
+            out.writeLong(templateFingerprint);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                out.writeLong(entry.uid().getMostSignificantBits());
+                out.writeLong(entry.uid().getLeastSignificantBits());
+                out.writeInt(entry.sequence());
+                out.writeLong(entry.contentFingerprint());
+                out.writeLong(entry.offset());
+                out.writeInt(entry.length());
+            }
+        }
+    }
+
+    Entry get(UUID uid) {
+        return entries.get(uid);
+    }
+
+    long getFileSize() {
+        return fileSize;
+    }
+
+    long getTemplateFingerprint() {
+        return templateFingerprint;
+    }
+}
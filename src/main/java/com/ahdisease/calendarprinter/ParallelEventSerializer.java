@@ -0,0 +1,155 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.template.CalendarTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Encodes VEVENT blocks on a fork-join pool and writes them in their original order, so the output is identical to
+ * the sequential writer. Events are processed in windows of a few chunks per worker: while one window is written
+ * the next one is being encoded, and only one or two windows of encoded bytes are held at any time.
+ */
+public class ParallelEventSerializer implements AutoCloseable {
+    //constants
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 10_000;
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    //instance variables
+    private final ForkJoinPool pool;
+    private final int sequentialThreshold;
+    private final int chunkSize;
+
+    public ParallelEventSerializer(int parallelism) {
+        this(parallelism, DEFAULT_SEQUENTIAL_THRESHOLD, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelEventSerializer(int parallelism, int sequentialThreshold, int chunkSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be a positive integer.");
+        }
+        if (sequentialThreshold < 0) {
+            throw new IllegalArgumentException("Sequential threshold cannot be negative.");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be a positive integer.");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.sequentialThreshold = sequentialThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes the VEVENT blocks of {@code events} in list order. Lists smaller than the sequential threshold are
+     * written on the calling thread.
+     */
+    public void writeEvents(List<CalendarEvent> events, OutputStream out) throws IOException {
+        writeEvents(events, out, CalendarTemplate.defaultTemplate());
+    }
+
+    /**
+     * Writes the VEVENT blocks of {@code events} in the event layout of {@code template}.
+     */
+    public void writeEvents(List<CalendarEvent> events, OutputStream out, CalendarTemplate template) throws IOException {
+        if (events.size() < sequentialThreshold || pool.getParallelism() == 1) {
+            for (CalendarEvent event : events) {
+                template.writeEvent(event, out);
+            }
+            return;
+        }
+
+        int windowSize = chunkSize * CHUNKS_PER_WORKER * pool.getParallelism();
+        EncodeTask current = new EncodeTask(events, template, 0, Math.min(windowSize, events.size()));
+        ForkJoinTask<Void> pending = pool.submit(current);
+
+        try {
+            for (int windowStart = 0; windowStart < events.size(); windowStart += windowSize) {
+                pending.join();
+                EncodeTask finished = current;
+
+                // start encoding the next window before writing this one
+                int nextStart = windowStart + windowSize;
+                if (nextStart < events.size()) {
+                    current = new EncodeTask(events, template, nextStart, Math.min(nextStart + windowSize, events.size()));
+                    pending = pool.submit(current);
+                }
+
+                for (byte[] chunk : finished.chunks) {
+                    out.write(chunk);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // the window being encoded ahead will never be written
+            pending.cancel(true);
+            throw e;
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Encodes one window of events into an array of chunks, splitting the window in half until each task covers at
+     * most one chunk.
+     */
+    private class EncodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<CalendarEvent> events;
+        private final CalendarTemplate template;
+        private final int windowStart;
+        private final int low;
+        private final int high;
+        private final byte[][] chunks;
+
+        EncodeTask(List<CalendarEvent> events, CalendarTemplate template, int low, int high) {
+            this(events, template, low, low, high, new byte[(high - low + chunkSize - 1) / chunkSize][]);
+        }
+
+        private EncodeTask(List<CalendarEvent> events, CalendarTemplate template, int windowStart, int low, int high, byte[][] chunks) {
+            this.events = events;
+            this.template = template;
+            this.windowStart = windowStart;
+            this.low = low;
+            this.high = high;
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low <= chunkSize) {
+                ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+                try {
+                    for (int i = low; i < high; i++) {
+                        template.writeEvent(events.get(i), chunk);
+                    }
+                } catch (IOException e) {
+                    // ByteArrayOutputStream does not throw IOException
+                    throw new UncheckedIOException(e);
+                }
+                chunks[(low - windowStart) / chunkSize] = chunk.toByteArray();
+                return;
+            }
+
+            // split on a chunk boundary so every leaf fills exactly one slot
+            int chunkCount = (high - low + chunkSize - 1) / chunkSize;
+            int middle = low + (chunkCount / 2) * chunkSize;
+            invokeAll(new EncodeTask(events, template, windowStart, low, middle, chunks),
+                    new EncodeTask(events, template, windowStart, middle, high, chunks));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ahdisease.calendarprinter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Period by which {@link CalendarFileWriter#writeShardedEventsToFiles} splits a calendar. Events are assigned by
+ * the local date of their DTSTART.
+ */
+public enum ShardPeriod {
+    MONTH,
+    YEAR;
+
+    /**
+     * @return the shard key of a start date, e.g. {@code 2023-10} by month or {@code 2023} by year
+     */
+    public String key(ZonedDateTime startDate) {
+        int year = startDate.getYear();
+        if (this == YEAR) {
+            return String.format("%04d", year);
+        }
+        return String.format("%04d-%02d", year, startDate.getMonthValue());
+    }
+}
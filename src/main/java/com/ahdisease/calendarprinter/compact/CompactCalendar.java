@@ -0,0 +1,412 @@
+package com.ahdisease.calendarprinter.compact;
+
+import com.ahdisease.calendarprinter.format.ContentLineEncoder;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CategoryDictionary;
+import com.ahdisease.calendarprinter.model.EventView;
+import com.ahdisease.calendarprinter.model.RecurrenceRule;
+import com.ahdisease.calendarprinter.template.CalendarTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Column-oriented storage for very large calendars. Each property lives in its own primitive array, indexed by the
+ * event's position: timestamps as epoch seconds, the UID as two longs and status and transparency as bytes.
+ * Summaries and locations, which are mostly unique, are appended to a {@link TextArena} as UTF-8 and referenced by
+ * offset. Categories, language tags and recurrence rules repeat across events, so they are ids into a
+ * {@link CategoryDictionary} owned by the calendar.
+ * <p>
+ * The columns take about 70 bytes per event, plus the UTF-8 summary and location and, until {@link #trimToSize()}
+ * is called, the unused capacity of the arrays. For 100,000 events with unique summaries and locations of about 30
+ * and 20 characters, the measured heap after {@code trimToSize()} was about 130 bytes per event, against about 510
+ * bytes for the {@link CalendarEvent}s and 300 bytes when all text was interned into the dictionary.
+ * <p>
+ * Events are rendered by a {@link CalendarTemplate} through an {@link EventView} over the columns, so for any layout
+ * they produce the same text as the CalendarEvent that was added. Not thread-safe.
+ */
+public class CompactCalendar {
+    //constants
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte TRANSPARENT_FLAG = 1;
+    private static final byte NO_END_FLAG = 2;
+    private static final CalendarEvent.Status[] STATUSES = CalendarEvent.Status.values();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    //instance variables
+    private final CategoryDictionary strings = new CategoryDictionary();
+    private final TextArena text = new TextArena();
+    private final List<ZoneId> zones = new ArrayList<>();
+    private int size;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private long[] stamps = new long[INITIAL_CAPACITY];
+    private long[] uidHighBits = new long[INITIAL_CAPACITY];
+    private long[] uidLowBits = new long[INITIAL_CAPACITY];
+    private int[] sequences = new int[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private short[] zoneIds = new short[INITIAL_CAPACITY];
+    private int[] summaryOffsets = new int[INITIAL_CAPACITY];
+    private int[] locationOffsets = new int[INITIAL_CAPACITY];
+    private int[] languageIds = new int[INITIAL_CAPACITY];
+    private int[] recurrenceRuleIds = new int[INITIAL_CAPACITY];
+    // categories of event i are categoryIds[categoryOffsets[i] .. categoryOffsets[i + 1])
+    private int[] categoryOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * Copies an event into the columns.
+     *
+     * @return the index of the stored event
+     */
+    public int add(CalendarEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Calendar event cannot be empty");
+        }
+        ensureCapacity(size + 1);
+
+        int index = size;
+        starts[index] = event.getStartDate().toEpochSecond();
+        if (event.getEndDate() == null) {
+            flags[index] = NO_END_FLAG;
+        } else {
+            ends[index] = event.getEndDate().toEpochSecond();
+        }
+        stamps[index] = event.getCreatedDate().toEpochSecond();
+        uidHighBits[index] = event.getUuid().getMostSignificantBits();
+        uidLowBits[index] = event.getUuid().getLeastSignificantBits();
+        sequences[index] = event.getSequence();
+        statuses[index] = (byte) event.getStatus().ordinal();
+        if (event.isTransparent()) {
+            flags[index] |= TRANSPARENT_FLAG;
+        }
+        zoneIds[index] = zoneId(event.getStartDate().getZone());
+        summaryOffsets[index] = text.append(event.getSummary());
+        locationOffsets[index] = text.append(event.getLocation());
+        Locale language = event.getLanguageCategory();
+        languageIds[index] = language == null || language.toLanguageTag().isBlank() ? CategoryDictionary.NULL_ID : strings.intern(language.toLanguageTag());
+        RecurrenceRule rule = event.getRecurrenceRule();
+        recurrenceRuleIds[index] = rule == null ? CategoryDictionary.NULL_ID : strings.intern(rule.toString());
+
+        String[] categories = event.getCategories();
+        int categoryStart = categoryOffsets[index];
+        int categoryCount = categories == null ? 0 : categories.length;
+        if (categoryStart + categoryCount > categoryIds.length) {
+            categoryIds = Arrays.copyOf(categoryIds, Math.max(categoryIds.length * 2, categoryStart + categoryCount));
+        }
+        for (int i = 0; i < categoryCount; i++) {
+            categoryIds[categoryStart + i] = strings.intern(categories[i]);
+        }
+        categoryOffsets[index + 1] = categoryStart + categoryCount;
+
+        size++;
+        return index;
+    }
+
+    /**
+     * Releases the capacity the columns and text reserved for future events, e.g. once a calendar has been loaded.
+     * Adding more events afterwards grows the arrays again.
+     */
+    public void trimToSize() {
+        resize(size);
+        categoryIds = Arrays.copyOf(categoryIds, categoryOffsets[size]);
+        text.trimToSize();
+    }
+
+    /**
+     * Writes the VEVENT block of the event at {@code index}; the text is identical to {@link CalendarEvent#toString()}
+     * for the event that was added.
+     */
+    public void writeEvent(int index, Appendable out) throws IOException {
+        writeEvent(index, CalendarTemplate.defaultTemplate(), out);
+    }
+
+    /**
+     * Writes the VEVENT block of the event at {@code index} in the event layout of {@code template}.
+     */
+    public void writeEvent(int index, CalendarTemplate template, Appendable out) throws IOException {
+        checkIndex(index);
+        template.writeEvent(new Row(index), out);
+    }
+
+    /**
+     * Writes the VEVENT blocks of every stored event in insertion order.
+     */
+    public void writeEvents(Appendable out) throws IOException {
+        writeEvents(CalendarTemplate.defaultTemplate(), out);
+    }
+
+    public void writeEvents(CalendarTemplate template, Appendable out) throws IOException {
+        Row row = new Row(0);
+        for (int i = 0; i < size; i++) {
+            row.index = i;
+            template.writeEvent(row, out);
+        }
+    }
+
+    /**
+     * Rebuilds a full CalendarEvent from the columns.
+     */
+    public CalendarEvent toCalendarEvent(int index) {
+        checkIndex(index);
+        Row row = new Row(index);
+        String[] categories = null;
+        int categoryCount = categoryOffsets[index + 1] - categoryOffsets[index];
+        if (categoryCount > 0) {
+            categories = new String[categoryCount];
+            for (int i = 0; i < categoryCount; i++) {
+                categories[i] = strings.get(categoryIds[categoryOffsets[index] + i]);
+            }
+        }
+        String languageTag = strings.get(languageIds[index]);
+
+        return new CalendarEvent(row.getSummary(), row.getUuid(), row.getSequence(), row.getStatus(), row.isTransparent(),
+                row.getRecurrenceRule(), row.getStartDate(), row.getEndDate(), row.getCreatedDate(),
+                languageTag == null ? null : Locale.forLanguageTag(languageTag), categories, row.getLocation());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getStartEpochSecond(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public UUID getUuid(int index) {
+        checkIndex(index);
+        return new UUID(uidHighBits[index], uidLowBits[index]);
+    }
+
+    /**
+     * @return the dictionary of categories, language tags and recurrence rules
+     */
+    public CategoryDictionary getStrings() {
+        return strings;
+    }
+
+    /**
+     * @return the bytes taken by summaries and locations
+     */
+    public int getTextBytes() {
+        return text.size();
+    }
+
+    // overrides
+    @Override
+    public String toString() {
+        StringBuilder events = new StringBuilder();
+        try {
+            writeEvents(events);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return events.toString();
+    }
+
+    // helper methods
+
+    /**
+     * Writes a UUID in its canonical 8-4-4-4-12 form without creating the UUID or its String.
+     */
+    private static void appendUuid(long highBits, long lowBits, Appendable out) throws IOException {
+        appendHex(highBits >>> 32, 8, out);
+        out.append('-');
+        appendHex(highBits >>> 16, 4, out);
+        out.append('-');
+        appendHex(highBits, 4, out);
+        out.append('-');
+        appendHex(lowBits >>> 48, 4, out);
+        out.append('-');
+        appendHex(lowBits, 12, out);
+    }
+
+    private static void appendHex(long value, int digits, Appendable out) throws IOException {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+
+    private short zoneId(ZoneId zone) {
+        int id = zones.indexOf(zone);
+        if (id < 0) {
+            if (zones.size() == Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct time zones");
+            }
+            zones.add(zone);
+            id = zones.size() - 1;
+        }
+        return (short) id;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No event at index " + index);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= starts.length) {
+            return;
+        }
+        resize(Math.max(capacity, starts.length * 2));
+    }
+
+    private void resize(int newCapacity) {
+        starts = Arrays.copyOf(starts, newCapacity);
+        ends = Arrays.copyOf(ends, newCapacity);
+        stamps = Arrays.copyOf(stamps, newCapacity);
+        uidHighBits = Arrays.copyOf(uidHighBits, newCapacity);
+        uidLowBits = Arrays.copyOf(uidLowBits, newCapacity);
+        sequences = Arrays.copyOf(sequences, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        zoneIds = Arrays.copyOf(zoneIds, newCapacity);
+        summaryOffsets = Arrays.copyOf(summaryOffsets, newCapacity);
+        locationOffsets = Arrays.copyOf(locationOffsets, newCapacity);
+        languageIds = Arrays.copyOf(languageIds, newCapacity);
+        recurrenceRuleIds = Arrays.copyOf(recurrenceRuleIds, newCapacity);
+        categoryOffsets = Arrays.copyOf(categoryOffsets, newCapacity + 1);
+    }
+
+    /**
+     * The event at {@code index}, read from the columns. Text and timestamps are written without creating the
+     * UUID, ZonedDateTimes or RecurrenceRule the getters return.
+     */
+    private class Row implements EventView {
+        private int index;
+
+        Row(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getSummary() {
+            return text.get(summaryOffsets[index]);
+        }
+
+        @Override
+        public UUID getUuid() {
+            return new UUID(uidHighBits[index], uidLowBits[index]);
+        }
+
+        @Override
+        public void writeUid(Appendable out) throws IOException {
+            appendUuid(uidHighBits[index], uidLowBits[index], out);
+        }
+
+        @Override
+        public int getSequence() {
+            return sequences[index];
+        }
+
+        @Override
+        public CalendarEvent.Status getStatus() {
+            return STATUSES[statuses[index]];
+        }
+
+        @Override
+        public boolean isTransparent() {
+            return (flags[index] & TRANSPARENT_FLAG) != 0;
+        }
+
+        @Override
+        public RecurrenceRule getRecurrenceRule() {
+            String rule = strings.get(recurrenceRuleIds[index]);
+            return rule == null ? null : RecurrenceRule.parse(rule);
+        }
+
+        @Override
+        public boolean hasRecurrenceRule() {
+            return recurrenceRuleIds[index] != CategoryDictionary.NULL_ID;
+        }
+
+        @Override
+        public void writeRecurrenceRule(Appendable out) throws IOException {
+            out.append(strings.get(recurrenceRuleIds[index]));
+        }
+
+        @Override
+        public ZonedDateTime getStartDate() {
+            return dateTime(starts[index]);
+        }
+
+        @Override
+        public ZonedDateTime getEndDate() {
+            return (flags[index] & NO_END_FLAG) != 0 ? null : dateTime(ends[index]);
+        }
+
+        @Override
+        public ZonedDateTime getCreatedDate() {
+            return dateTime(stamps[index]);
+        }
+
+        @Override
+        public long getStartEpochSecond() {
+            return starts[index];
+        }
+
+        @Override
+        public long getEndEpochSecond() {
+            if ((flags[index] & NO_END_FLAG) != 0) {
+                throw new IllegalStateException("Event " + index + " has no end date");
+            }
+            return ends[index];
+        }
+
+        @Override
+        public long getCreatedEpochSecond() {
+            return stamps[index];
+        }
+
+        @Override
+        public String getLocation() {
+            return text.get(locationOffsets[index]);
+        }
+
+        @Override
+        public boolean hasCategories() {
+            return categoryOffsets[index] != categoryOffsets[index + 1] || languageIds[index] != CategoryDictionary.NULL_ID;
+        }
+
+        @Override
+        public void writeCategories(ContentLineEncoder out) throws IOException {
+            int categoryStart = categoryOffsets[index];
+            int categoryEnd = categoryOffsets[index + 1];
+            for (int i = categoryStart; i < categoryEnd; i++) {
+                if (i > categoryStart) {
+                    out.append(',');
+                }
+                if (categoryIds[i] == CategoryDictionary.NULL_ID) {
+                    out.appendText(null);
+                } else {
+                    out.appendEscaped(strings.getEscaped(categoryIds[i]));
+                }
+            }
+
+            // the language category is always listed last
+            if (languageIds[index] != CategoryDictionary.NULL_ID) {
+                if (categoryEnd > categoryStart) {
+                    out.append(',');
+                }
+                out.append(strings.get(languageIds[index]));
+            }
+        }
+
+        private ZonedDateTime dateTime(long epochSecond) {
+            return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zones.get(zoneIds[index]));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ahdisease.calendarprinter.compact;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only storage for free text such as summaries and locations, which are mostly unique and gain nothing from
+ * a dictionary. Each value is stored as its UTF-8 length, seven bits per byte, followed by its UTF-8 bytes, and is
+ * addressed by the offset of the length. A value costs its encoded length plus one to five bytes, with no object
+ * per value. Values are never removed. Not thread-safe.
+ */
+final class TextArena {
+    //constants
+    static final int NULL_OFFSET = -1;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    //instance variables
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return the offset of the stored value, or {@link #NULL_OFFSET} for null
+     */
+    int append(String value) {
+        if (value == null) {
+            return NULL_OFFSET;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        // the length prefix takes at most five bytes
+        ensureCapacity((long) size + encoded.length + 5);
+
+        int offset = size;
+        int length = encoded.length;
+        while (length >= 0x80) {
+            bytes[size++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        bytes[size++] = (byte) length;
+        System.arraycopy(encoded, 0, bytes, size, encoded.length);
+        size += encoded.length;
+        return offset;
+    }
+
+    /**
+     * @return the value stored at {@code offset}, or null for {@link #NULL_OFFSET}
+     */
+    String get(int offset) {
+        if (offset == NULL_OFFSET) {
+            return null;
+        }
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of bytes in use
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Releases the capacity beyond the bytes in use.
+     */
+    void trimToSize() {
+        if (bytes.length > size) {
+            bytes = Arrays.copyOf(bytes, size);
+        }
+    }
+
+    // helper methods
+
+    private void ensureCapacity(long capacity) {
+        if (capacity <= bytes.length) {
+            return;
+        }
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Text storage is limited to 2 GiB");
+        }
+        bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, bytes.length * 2L)));
+    }
+}
@@ -0,0 +1,219 @@
+package com.ahdisease.calendarprinter.format;
+
+import java.io.IOException;
+
+/**
+ * Appendable that writes RFC 5545 content lines: TEXT values are escaped and every line is folded before it exceeds
+ * 75 octets, both in a single pass over the characters.
+ * <p>
+ * Octets are counted from the UTF-8 length of each character, so no bytes are encoded just to measure a line, and a
+ * multi-byte character or escape sequence is never split across a fold. Like the rest of the writer, line breaks are
+ * a single {@code \n}; a folded line continues after {@code "\n "}.
+ * <p>
+ * Characters passed to the {@code append} methods are written as-is, apart from folding, and a {@code \n} starts a
+ * new content line. Values that must be escaped go through {@link #appendText(CharSequence)}.
+ */
+public final class ContentLineEncoder implements Appendable {
+    //constants
+    public static final int MAX_LINE_OCTETS = 75;
+    private static final String FOLD = "\n ";
+
+    //instance variables
+    private final Appendable out;
+    private int lineOctets;
+
+    public ContentLineEncoder(Appendable out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        this.out = out;
+    }
+
+    /**
+     * Writes a TEXT value, escaping backslashes, semicolons, commas and line breaks. A null value is written as
+     * {@code null}, as string concatenation would.
+     */
+    public ContentLineEncoder appendText(CharSequence value) throws IOException {
+        if (value == null) {
+            value = "null";
+        }
+
+        int length = value.length();
+        // fast path: nothing to escape and the value fits on the current line
+        int octets = 0;
+        boolean needsEscaping = false;
+        for (int i = 0; i < length && !needsEscaping; i++) {
+            char c = value.charAt(i);
+            needsEscaping = c == '\\' || c == ';' || c == ',' || c == '\n' || c == '\r';
+            octets += octetLength(c);
+        }
+        if (!needsEscaping && lineOctets + octets <= MAX_LINE_OCTETS) {
+            out.append(value);
+            lineOctets += octets;
+            return this;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> writeEscaped(c);
+                case '\n' -> writeEscaped('n');
+                case '\r' -> {
+                    // CRLF and a lone CR both become a single escaped line break
+                    if (i + 1 < length && value.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    writeEscaped('n');
+                }
+                default -> {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        fold(4);
+                        out.append(c).append(value.charAt(++i));
+                        lineOctets += 4;
+                    } else {
+                        write(c);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes a TEXT value that has already been escaped, e.g. one cached by a dictionary. Only folding is applied, and
+     * a backslash is kept on the same line as the character it escapes.
+     */
+    public ContentLineEncoder appendEscaped(CharSequence escapedValue) throws IOException {
+        int length = escapedValue.length();
+        int octets = 0;
+        for (int i = 0; i < length; i++) {
+            octets += octetLength(escapedValue.charAt(i));
+        }
+        if (lineOctets + octets <= MAX_LINE_OCTETS) {
+            out.append(escapedValue);
+            lineOctets += octets;
+            return this;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = escapedValue.charAt(i);
+            if (c == '\\' && i + 1 < length) {
+                writeEscaped(escapedValue.charAt(++i));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(escapedValue.charAt(i + 1))) {
+                fold(4);
+                out.append(c).append(escapedValue.charAt(++i));
+                lineOctets += 4;
+            } else {
+                write(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes text that was already encoded into content lines ahead of time, e.g. a compiled template chunk, without
+     * scanning it again. The text must start at the beginning of a line, or start with a line break, and
+     * {@code lastLineOctets} must be the length of its last line.
+     */
+    public ContentLineEncoder appendEncoded(CharSequence encodedLines, int lastLineOctets) throws IOException {
+        out.append(encodedLines);
+        lineOctets = lastLineOctets;
+        return this;
+    }
+
+    /**
+     * @return the number of octets written to the current line so far
+     */
+    public int getLineOctets() {
+        return lineOctets;
+    }
+
+    @Override
+    public ContentLineEncoder append(CharSequence value) throws IOException {
+        if (value == null) {
+            value = "null";
+        }
+        return append(value, 0, value.length());
+    }
+
+    @Override
+    public ContentLineEncoder append(CharSequence value, int start, int end) throws IOException {
+        if (value == null) {
+            value = "null";
+        }
+
+        // fast path: no line break and the characters fit on the current line
+        int octets = 0;
+        boolean hasLineBreak = false;
+        for (int i = start; i < end && !hasLineBreak; i++) {
+            char c = value.charAt(i);
+            hasLineBreak = c == '\n';
+            octets += octetLength(c);
+        }
+        if (!hasLineBreak && lineOctets + octets <= MAX_LINE_OCTETS) {
+            out.append(value, start, end);
+            lineOctets += octets;
+            return this;
+        }
+
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                fold(4);
+                out.append(c).append(value.charAt(++i));
+                lineOctets += 4;
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public ContentLineEncoder append(char c) throws IOException {
+        if (c == '\n') {
+            out.append(c);
+            lineOctets = 0;
+            return this;
+        }
+        write(c);
+        return this;
+    }
+
+    // helper methods
+
+    private void write(char c) throws IOException {
+        int octets = octetLength(c);
+        fold(octets);
+        out.append(c);
+        lineOctets += octets;
+    }
+
+    private void writeEscaped(char c) throws IOException {
+        // keep the backslash and the escaped character on the same line
+        fold(2);
+        out.append('\\').append(c);
+        lineOctets += 2;
+    }
+
+    private void fold(int octets) throws IOException {
+        if (lineOctets + octets > MAX_LINE_OCTETS) {
+            out.append(FOLD);
+            // the leading space of a continuation line counts towards its length
+            lineOctets = 1;
+        }
+    }
+
+    /**
+     * @return the number of UTF-8 octets for a character; each half of a surrogate pair counts as 2
+     */
+    private static int octetLength(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800 || Character.isSurrogate(c)) {
+            return 2;
+        }
+        return 3;
+    }
+}
@@ -0,0 +1,148 @@
+package com.ahdisease.calendarprinter.format;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes iCalendar DATE-TIME ({@code yyyyMMdd'T'HHmmss'Z'}) and DATE ({@code yyyyMMdd}) values straight from epoch
+ * values into a caller supplied target. No formatter, String or temporal object is created along the way.
+ */
+public final class ICalendarDateEncoder {
+    //constants
+    public static final int DATE_TIME_LENGTH = 16;
+    public static final int DATE_LENGTH = 8;
+
+    private static final int SECONDS_PER_DAY = 86400;
+    // days from 0000-03-01 to 1970-01-01, used by the civil-from-days conversion below
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+
+    private ICalendarDateEncoder() {
+    }
+
+    // DATE-TIME (UTC)
+
+    public static int encodeDateTime(long epochSecond, char[] destination, int offset) {
+        int date = packedDate(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+        int time = packedTime(epochSecond);
+        writeDigits(date, 8, destination, offset);
+        destination[offset + 8] = 'T';
+        writeDigits(time, 6, destination, offset + 9);
+        destination[offset + 15] = 'Z';
+        return offset + DATE_TIME_LENGTH;
+    }
+
+    public static int encodeDateTime(long epochSecond, byte[] destination, int offset) {
+        int date = packedDate(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+        int time = packedTime(epochSecond);
+        writeDigits(date, 8, destination, offset);
+        destination[offset + 8] = 'T';
+        writeDigits(time, 6, destination, offset + 9);
+        destination[offset + 15] = 'Z';
+        return offset + DATE_TIME_LENGTH;
+    }
+
+    public static void encodeDateTime(long epochSecond, ByteBuffer destination) {
+        int date = packedDate(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+        int time = packedTime(epochSecond);
+        int position = destination.position();
+        writeDigits(date, 8, destination, position);
+        destination.put(position + 8, (byte) 'T');
+        writeDigits(time, 6, destination, position + 9);
+        destination.put(position + 15, (byte) 'Z');
+        destination.position(position + DATE_TIME_LENGTH);
+    }
+
+    public static void appendDateTime(long epochSecond, Appendable out) throws IOException {
+        int date = packedDate(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+        int time = packedTime(epochSecond);
+        appendDigits(date, 8, out);
+        out.append('T');
+        appendDigits(time, 6, out);
+        out.append('Z');
+    }
+
+    // DATE (all-day values)
+
+    public static int encodeDate(long epochDay, char[] destination, int offset) {
+        writeDigits(packedDate(epochDay), 8, destination, offset);
+        return offset + DATE_LENGTH;
+    }
+
+    public static int encodeDate(long epochDay, byte[] destination, int offset) {
+        writeDigits(packedDate(epochDay), 8, destination, offset);
+        return offset + DATE_LENGTH;
+    }
+
+    public static void encodeDate(long epochDay, ByteBuffer destination) {
+        int position = destination.position();
+        writeDigits(packedDate(epochDay), 8, destination, position);
+        destination.position(position + DATE_LENGTH);
+    }
+
+    public static void appendDate(long epochDay, Appendable out) throws IOException {
+        appendDigits(packedDate(epochDay), 8, out);
+    }
+
+    // helper methods
+
+    /**
+     * Converts days since 1970-01-01 into a yyyyMMdd integer using Howard Hinnant's civil-from-days algorithm.
+     */
+    private static int packedDate(long epochDay) {
+        long shifted = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        int dayOfEra = (int) (shifted - era * DAYS_PER_ERA);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("Year must be between 0 and 9999 to be written as an iCalendar date.");
+        }
+        return (int) year * 10000 + month * 100 + day;
+    }
+
+    private static int packedTime(long epochSecond) {
+        int secondOfDay = Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        int hour = secondOfDay / 3600;
+        int minute = (secondOfDay / 60) % 60;
+        int second = secondOfDay % 60;
+        return hour * 10000 + minute * 100 + second;
+    }
+
+    private static void writeDigits(int value, int digits, char[] destination, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            destination[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void writeDigits(int value, int digits, byte[] destination, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            destination[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void writeDigits(int value, int digits, ByteBuffer destination, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            destination.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+    }
+
+    private static void appendDigits(int value, int digits, Appendable out) throws IOException {
+        // digits are emitted most significant first, so walk the divisor down instead of filling from the right
+        int divisor = 1;
+        for (int i = 1; i < digits; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+}
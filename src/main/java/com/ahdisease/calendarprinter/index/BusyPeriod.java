@@ -0,0 +1,9 @@
+package com.ahdisease.calendarprinter.index;
+
+import java.time.Instant;
+
+/**
+ * A period of time, from {@code start} (inclusive) to {@code end} (exclusive), during which a calendar is busy.
+ */
+public record BusyPeriod(Instant start, Instant end) {
+}
@@ -0,0 +1,153 @@
+package com.ahdisease.calendarprinter.index;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CategoryDictionary;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitmap index from CATEGORIES values to events, for filters such as "all events tagged X and Y".
+ * <p>
+ * Events are numbered in iteration order and every category id in the shared {@link CategoryDictionary} gets a
+ * BitSet of the events carrying it, so a filter is a bitmap intersection or union rather than a scan of every
+ * event's categories. Language tags are indexed alongside the other categories, as they are written to the same
+ * property. Categories the full shared dictionary could not take are indexed by value instead. The index is a
+ * snapshot: events modified after it is built are not re-indexed.
+ */
+public class CategoryIndex {
+    //instance variables
+    private final CalendarEvent[] events;
+    // indexed by category id; null for ids no indexed event carries
+    private final List<BitSet> eventsByCategory = new ArrayList<>();
+    // categories that are not in the shared dictionary, by value
+    private final Map<String, BitSet> eventsByUninternedCategory = new HashMap<>();
+
+    public CategoryIndex(Iterable<CalendarEvent> events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Events cannot be null.");
+        }
+
+        List<CalendarEvent> indexedEvents = new ArrayList<>();
+        for (CalendarEvent event : events) {
+            int position = indexedEvents.size();
+            indexedEvents.add(event);
+
+            int[] categoryIds = event.getCategoryIds();
+            if (categoryIds != null) {
+                String[] categories = null;
+                for (int i = 0; i < categoryIds.length; i++) {
+                    if (categoryIds[i] == CategoryDictionary.NOT_INTERNED) {
+                        categories = categories == null ? event.getCategories() : categories;
+                        markUninterned(categories[i], position);
+                    } else {
+                        mark(categoryIds[i], position);
+                    }
+                }
+            }
+            if (event.getLanguageId() == CategoryDictionary.NOT_INTERNED) {
+                markUninterned(event.getLanguageCategory().toLanguageTag(), position);
+            } else {
+                mark(event.getLanguageId(), position);
+            }
+        }
+        this.events = indexedEvents.toArray(new CalendarEvent[0]);
+    }
+
+    /**
+     * @return the events tagged with every one of the given categories, in iteration order
+     */
+    public List<CalendarEvent> withAllCategories(String... categories) {
+        if (categories == null || categories.length == 0) {
+            throw new IllegalArgumentException("At least one category is required.");
+        }
+
+        BitSet matches = null;
+        for (String category : categories) {
+            BitSet tagged = eventsWith(category);
+            if (tagged == null) {
+                return List.of();
+            }
+            if (matches == null) {
+                matches = (BitSet) tagged.clone();
+            } else {
+                matches.and(tagged);
+            }
+        }
+        return toEvents(matches);
+    }
+
+    /**
+     * @return the events tagged with at least one of the given categories, in iteration order
+     */
+    public List<CalendarEvent> withAnyCategory(String... categories) {
+        if (categories == null || categories.length == 0) {
+            throw new IllegalArgumentException("At least one category is required.");
+        }
+
+        BitSet matches = new BitSet(events.length);
+        for (String category : categories) {
+            BitSet tagged = eventsWith(category);
+            if (tagged != null) {
+                matches.or(tagged);
+            }
+        }
+        return toEvents(matches);
+    }
+
+    /**
+     * @return the number of events tagged with the category
+     */
+    public int count(String category) {
+        BitSet tagged = eventsWith(category);
+        return tagged == null ? 0 : tagged.cardinality();
+    }
+
+    public int size() {
+        return events.length;
+    }
+
+    // helper methods
+
+    private void mark(int categoryId, int position) {
+        if (categoryId == CategoryDictionary.NULL_ID) {
+            return;
+        }
+        while (eventsByCategory.size() <= categoryId) {
+            eventsByCategory.add(null);
+        }
+        BitSet tagged = eventsByCategory.get(categoryId);
+        if (tagged == null) {
+            tagged = new BitSet();
+            eventsByCategory.set(categoryId, tagged);
+        }
+        tagged.set(position);
+    }
+
+    private void markUninterned(String category, int position) {
+        eventsByUninternedCategory.computeIfAbsent(category, value -> new BitSet()).set(position);
+    }
+
+    private BitSet eventsWith(String category) {
+        // lookup only, so querying an unknown category does not grow the shared dictionary
+        int categoryId = CategoryDictionary.shared().idOf(category);
+        if (categoryId == CategoryDictionary.NULL_ID) {
+            return eventsByUninternedCategory.get(category);
+        }
+        if (categoryId >= eventsByCategory.size()) {
+            return null;
+        }
+        return eventsByCategory.get(categoryId);
+    }
+
+    private List<CalendarEvent> toEvents(BitSet matches) {
+        List<CalendarEvent> matchingEvents = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            matchingEvents.add(events[i]);
+        }
+        return matchingEvents;
+    }
+}
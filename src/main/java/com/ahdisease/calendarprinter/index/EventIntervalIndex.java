@@ -0,0 +1,180 @@
+package com.ahdisease.calendarprinter.index;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Static interval tree over the DTSTART/DTEND range of a set of events.
+ * <p>
+ * Events are sorted by start and the sorted array is treated as an implicit balanced search tree, where every node
+ * also stores the latest end in its subtree. Overlap and stabbing queries therefore cost O(log n + k) for k matches.
+ * Recurring events cannot be placed in the tree since their series may be unbounded; they are kept aside and their
+ * occurrences are expanded within the query window only.
+ * <p>
+ * Instants are compared at second resolution, matching the iCalendar output. An event without DTEND, or with DTEND
+ * before DTSTART, is treated as lasting zero seconds and matches windows that contain its start.
+ */
+public class EventIntervalIndex {
+
+    /**
+     * Receives one matching occurrence of an event, as epoch seconds.
+     */
+    @FunctionalInterface
+    public interface OccurrenceConsumer {
+        void accept(CalendarEvent event, long startEpochSecond, long endEpochSecond);
+    }
+
+    //instance variables
+    private final CalendarEvent[] events;
+    private final long[] starts;
+    private final long[] ends;
+    // latest end within the implicit subtree rooted at each index
+    private final long[] maxEnds;
+    private final List<CalendarEvent> recurringEvents = new ArrayList<>();
+
+    public EventIntervalIndex(Iterable<CalendarEvent> events) {
+        this(events, event -> true);
+    }
+
+    public EventIntervalIndex(Iterable<CalendarEvent> events, Predicate<CalendarEvent> filter) {
+        if (events == null || filter == null) {
+            throw new IllegalArgumentException("Events and filter cannot be null.");
+        }
+
+        List<CalendarEvent> singleEvents = new ArrayList<>();
+        for (CalendarEvent event : events) {
+            if (!filter.test(event)) {
+                continue;
+            }
+            if (event.getRecurrenceRule() != null) {
+                recurringEvents.add(event);
+            } else {
+                singleEvents.add(event);
+            }
+        }
+
+        this.events = singleEvents.toArray(new CalendarEvent[0]);
+        Arrays.sort(this.events, Comparator.comparingLong(event -> event.getStartDate().toEpochSecond()));
+        this.starts = new long[this.events.length];
+        this.ends = new long[this.events.length];
+        this.maxEnds = new long[this.events.length];
+        for (int i = 0; i < this.events.length; i++) {
+            starts[i] = this.events[i].getStartDate().toEpochSecond();
+            ends[i] = endEpochSecond(this.events[i], starts[i]);
+        }
+        buildMaxEnds(0, this.events.length - 1);
+    }
+
+    /**
+     * @return an index over the events that consume time: OPAQUE events that have not been cancelled
+     */
+    public static EventIntervalIndex ofBusyEvents(Iterable<CalendarEvent> events) {
+        return new EventIntervalIndex(events, event -> !event.isTransparent() && event.getStatus() != CalendarEvent.Status.CANCELLED);
+    }
+
+    /**
+     * @return every event with at least one occurrence overlapping {@code [from, to)}, in DTSTART order for
+     * single events followed by matching recurring events
+     */
+    public List<CalendarEvent> overlapping(ZonedDateTime from, ZonedDateTime to) {
+        List<CalendarEvent> matches = new ArrayList<>();
+        long fromSecond = from.toEpochSecond();
+        long toSecond = to.toEpochSecond();
+        collectSingleEvents(0, events.length - 1, fromSecond, toSecond, (event, start, end) -> matches.add(event));
+        for (CalendarEvent event : recurringEvents) {
+            if (firstOccurrence(event, from, to) != null) {
+                matches.add(event);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return every event taking place at {@code instant}
+     */
+    public List<CalendarEvent> containing(ZonedDateTime instant) {
+        return overlapping(instant, instant.plusSeconds(1));
+    }
+
+    /**
+     * Passes every occurrence overlapping {@code [from, to)} to the consumer, expanding recurring events within the
+     * window.
+     */
+    public void forEachOccurrence(ZonedDateTime from, ZonedDateTime to, OccurrenceConsumer consumer) {
+        long fromSecond = from.toEpochSecond();
+        long toSecond = to.toEpochSecond();
+        collectSingleEvents(0, events.length - 1, fromSecond, toSecond, consumer);
+
+        for (CalendarEvent event : recurringEvents) {
+            long start = event.getStartDate().toEpochSecond();
+            long duration = endEpochSecond(event, start) - start;
+            Iterator<ZonedDateTime> occurrences = event.occurrences(from.minusSeconds(Math.max(0, duration - 1)), to);
+            while (occurrences.hasNext()) {
+                long occurrenceStart = occurrences.next().toEpochSecond();
+                consumer.accept(event, occurrenceStart, occurrenceStart + duration);
+            }
+        }
+    }
+
+    public int size() {
+        return events.length + recurringEvents.size();
+    }
+
+    // helper methods
+
+    private long buildMaxEnds(int low, int high) {
+        if (low > high) {
+            return Long.MIN_VALUE;
+        }
+        int middle = (low + high) >>> 1;
+        long maxEnd = Math.max(ends[middle], Math.max(buildMaxEnds(low, middle - 1), buildMaxEnds(middle + 1, high)));
+        maxEnds[middle] = maxEnd;
+        return maxEnd;
+    }
+
+    private void collectSingleEvents(int low, int high, long from, long to, OccurrenceConsumer consumer) {
+        if (low > high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        // every interval in this subtree ends before the window starts
+        if (maxEnds[middle] < from) {
+            return;
+        }
+
+        collectSingleEvents(low, middle - 1, from, to, consumer);
+        if (overlaps(starts[middle], ends[middle], from, to)) {
+            consumer.accept(events[middle], starts[middle], ends[middle]);
+        }
+        // the right subtree only holds later starts, so it can be skipped once this start is past the window
+        if (starts[middle] < to) {
+            collectSingleEvents(middle + 1, high, from, to, consumer);
+        }
+    }
+
+    private static boolean overlaps(long start, long end, long from, long to) {
+        if (start >= to) {
+            return false;
+        }
+        return end > from || (end == start && start >= from);
+    }
+
+    private static long endEpochSecond(CalendarEvent event, long start) {
+        ZonedDateTime endDate = event.getEndDate();
+        return endDate == null ? start : Math.max(start, endDate.toEpochSecond());
+    }
+
+    private static ZonedDateTime firstOccurrence(CalendarEvent event, ZonedDateTime from, ZonedDateTime to) {
+        long start = event.getStartDate().toEpochSecond();
+        long duration = endEpochSecond(event, start) - start;
+        Iterator<ZonedDateTime> occurrences = event.occurrences(from.minusSeconds(Math.max(0, duration - 1)), to);
+        return occurrences.hasNext() ? occurrences.next() : null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ahdisease.calendarprinter.index;
+
+import com.ahdisease.calendarprinter.format.ContentLineEncoder;
+import com.ahdisease.calendarprinter.format.ICalendarDateEncoder;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Builds VFREEBUSY components from the busy time of a calendar. Only OPAQUE events that have not been cancelled
+ * count as busy; overlapping and adjacent busy periods are merged.
+ */
+public class FreeBusyGenerator {
+    //instance variables
+    private final EventIntervalIndex busyIndex;
+
+    public FreeBusyGenerator(Iterable<CalendarEvent> events) {
+        this.busyIndex = EventIntervalIndex.ofBusyEvents(events);
+    }
+
+    public FreeBusyGenerator(EventIntervalIndex busyIndex) {
+        if (busyIndex == null) {
+            throw new IllegalArgumentException("Index cannot be null.");
+        }
+        this.busyIndex = busyIndex;
+    }
+
+    /**
+     * @return the merged busy periods within {@code [from, to)}, clipped to the window and in chronological order
+     */
+    public List<BusyPeriod> busyPeriods(ZonedDateTime from, ZonedDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Window start must be before window end.");
+        }
+
+        long fromSecond = from.toEpochSecond();
+        long toSecond = to.toEpochSecond();
+        List<long[]> periods = new ArrayList<>();
+        busyIndex.forEachOccurrence(from, to, (event, start, end) -> {
+            if (end > start) {
+                periods.add(new long[]{Math.max(start, fromSecond), Math.min(end, toSecond)});
+            }
+        });
+        periods.sort((first, second) -> Long.compare(first[0], second[0]));
+
+        List<BusyPeriod> merged = new ArrayList<>();
+        long currentStart = 0;
+        long currentEnd = Long.MIN_VALUE;
+        for (long[] period : periods) {
+            if (period[0] > currentEnd) {
+                if (currentEnd != Long.MIN_VALUE) {
+                    merged.add(new BusyPeriod(Instant.ofEpochSecond(currentStart), Instant.ofEpochSecond(currentEnd)));
+                }
+                currentStart = period[0];
+                currentEnd = period[1];
+            } else {
+                currentEnd = Math.max(currentEnd, period[1]);
+            }
+        }
+        if (currentEnd != Long.MIN_VALUE) {
+            merged.add(new BusyPeriod(Instant.ofEpochSecond(currentStart), Instant.ofEpochSecond(currentEnd)));
+        }
+        return merged;
+    }
+
+    /**
+     * Writes a VFREEBUSY component for the window, with one FREEBUSY line per merged busy period.
+     */
+    public void writeFreeBusy(ZonedDateTime from, ZonedDateTime to, Appendable output) throws IOException {
+        List<BusyPeriod> periods = busyPeriods(from, to);
+        ContentLineEncoder out = new ContentLineEncoder(output);
+
+        out.append("BEGIN:VFREEBUSY");
+        out.append("\nUID:").append(UUID.randomUUID().toString());
+        out.append("\nDTSTAMP:");
+        ICalendarDateEncoder.appendDateTime(Instant.now().getEpochSecond(), out);
+        out.append("\nDTSTART:");
+        ICalendarDateEncoder.appendDateTime(from.toEpochSecond(), out);
+        out.append("\nDTEND:");
+        ICalendarDateEncoder.appendDateTime(to.toEpochSecond(), out);
+        for (BusyPeriod period : periods) {
+            out.append("\nFREEBUSY:");
+            ICalendarDateEncoder.appendDateTime(period.start().getEpochSecond(), out);
+            out.append('/');
+            ICalendarDateEncoder.appendDateTime(period.end().getEpochSecond(), out);
+        }
+        out.append("\nEND:VFREEBUSY");
+    }
+
+    public String toFreeBusyString(ZonedDateTime from, ZonedDateTime to) {
+        StringBuilder freeBusy = new StringBuilder();
+        try {
+            writeFreeBusy(from, to, freeBusy);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return freeBusy.toString();
+    }
+}
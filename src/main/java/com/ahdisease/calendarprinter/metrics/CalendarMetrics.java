@@ -0,0 +1,107 @@
+package com.ahdisease.calendarprinter.metrics;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import io.micrometer.core.instrument.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for each stage of an export, registered on {@link Metrics#globalRegistry}. Spring Boot adds its registry to
+ * the global one, so they are served under {@code /actuator/metrics} by the application; outside of Spring they cost
+ * next to nothing until a registry is added.
+ * <ul>
+ *     <li>{@code calendar.ingest}: time to add events to a writer. Every batch is timed, but only one in
+ *     {@link #INGEST_SAMPLE_RATE} single adds, so the shared histogram stays off the per-event path.
+ *     {@code calendar.ingest.events} and {@code calendar.ingest.duplicates} count accepted and rejected events, so
+ *     their rate is events per second.</li>
+ *     <li>{@code calendar.event.serialize}: time to format a VEVENT block; {@code calendar.event.size} is the
+ *     encoded size of each block in bytes and {@code calendar.event.categories} the number of CATEGORIES values in
+ *     it. The CATEGORIES property is not timed on its own, which would cost two clock reads per event; its share of
+ *     the serialize time follows the category counts.</li>
+ *     <li>{@code calendar.event.encoding.cache}: encodings reused or formatted again, tagged {@code result}.</li>
+ *     <li>{@code calendar.export.write}: time to write and flush a file, tagged {@code export};
+ *     {@code calendar.export.bytes} counts the bytes written.</li>
+ * </ul>
+ * Timers and the size distribution publish percentile histograms, so percentiles can be aggregated across instances.
+ */
+public final class CalendarMetrics {
+    //constants
+    public static final int INGEST_SAMPLE_RATE = 64;
+    public static final Timer INGEST = Timer.builder("calendar.ingest")
+            .description("Time to add a batch, or a sampled single event, to a calendar writer")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+    public static final Counter INGESTED_EVENTS = Counter.builder("calendar.ingest.events")
+            .description("Events accepted by an event store")
+            .baseUnit("events")
+            .register(Metrics.globalRegistry);
+    public static final Counter DUPLICATE_EVENTS = Counter.builder("calendar.ingest.duplicates")
+            .description("Events rejected because their UID was already stored")
+            .baseUnit("events")
+            .register(Metrics.globalRegistry);
+
+    public static final Timer SERIALIZE = Timer.builder("calendar.event.serialize")
+            .description("Time to format and encode a VEVENT block")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+    public static final DistributionSummary EVENT_SIZE = DistributionSummary.builder("calendar.event.size")
+            .description("Encoded size of a VEVENT block")
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+    // count, total and max only; no histogram, so recording it is a few additions
+    public static final DistributionSummary EVENT_CATEGORIES = DistributionSummary.builder("calendar.event.categories")
+            .description("CATEGORIES values of an encoded VEVENT block")
+            .baseUnit("categories")
+            .register(Metrics.globalRegistry);
+
+    public static final Timer WRITE_FULL = writeTimer("full");
+    public static final Timer WRITE_INCREMENTAL = writeTimer("incremental");
+    public static final Timer WRITE_SHARD = writeTimer("shard");
+    public static final Timer WRITE_SCHEDULED = writeTimer("scheduled");
+    public static final Timer WRITE_IMPORT = writeTimer("import");
+    public static final Counter BYTES_WRITTEN = Counter.builder("calendar.export.bytes")
+            .description("Bytes written to calendar files")
+            .baseUnit("bytes")
+            .register(Metrics.globalRegistry);
+
+    static {
+        FunctionCounter.builder("calendar.event.encoding.cache", CalendarEvent.class, event -> CalendarEvent.getEncodingCacheHits())
+                .description("Event encodings reused or formatted again")
+                .tag("result", "hit")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("calendar.event.encoding.cache", CalendarEvent.class, event -> CalendarEvent.getEncodingCacheMisses())
+                .description("Event encodings reused or formatted again")
+                .tag("result", "miss")
+                .register(Metrics.globalRegistry);
+    }
+
+    private CalendarMetrics() {
+    }
+
+    /**
+     * Records a file written by {@code timer}'s export since {@code startNanos}, a {@link System#nanoTime()} value.
+     */
+    public static void recordWrite(Timer timer, long startNanos, long bytesWritten) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        BYTES_WRITTEN.increment(bytesWritten);
+    }
+
+    /**
+     * @return true for the single adds that {@link #INGEST} should time, one in {@link #INGEST_SAMPLE_RATE} on average
+     */
+    public static boolean sampleIngest() {
+        return ThreadLocalRandom.current().nextInt(INGEST_SAMPLE_RATE) == 0;
+    }
+
+    // helper methods
+
+    private static Timer writeTimer(String export) {
+        return Timer.builder("calendar.export.write")
+                .description("Time to write and flush a calendar file")
+                .tag("export", export)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+}
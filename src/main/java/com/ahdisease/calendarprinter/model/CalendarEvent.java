@@ -1,12 +1,21 @@
 package com.ahdisease.calendarprinter.model;
 
-import java.time.ZoneId;
+import com.ahdisease.calendarprinter.format.ContentLineEncoder;
+import com.ahdisease.calendarprinter.metrics.CalendarMetrics;
+import com.ahdisease.calendarprinter.template.CalendarTemplate;
+import com.ahdisease.calendarprinter.uid.UidGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-public class CalendarEvent {
+public class CalendarEvent implements EventView {
 
 
 
@@ -29,12 +38,17 @@ public class CalendarEvent {
          n
              */
     //enums
-    private enum Status {TENTATIVE, CONFIRMED, CANCELLED}
+    public enum Status {TENTATIVE, CONFIRMED, CANCELLED}
 
     //constants
-    private final String DATE_PATTERN_FORMAT = "yyyyMMdd'T'HHmmssz";
     public static final String LANGUAGE_PATTERN_FORMAT = "^[a-z]{2,3}(?:-[A-Z]{2,3}(?:-[a-zA-Z]{4})?)?$";
 
+    //encoding cache statistics, shared by all events
+    private static final LongAdder ENCODING_CACHE_HITS = new LongAdder();
+    private static final LongAdder ENCODING_CACHE_MISSES = new LongAdder();
+    // modifications of any event, so holders of many events can tell that one of them changed
+    private static final AtomicLong TOTAL_MODIFICATIONS = new AtomicLong();
+
 
 
     //instance variables
@@ -50,6 +64,8 @@ public class CalendarEvent {
     //      TRANSPARENT - does not consume time on a calendar (e.g. a Holiday or an event from another calendar shared for reference only)
     //      OPAQUE - consumes time on a calendar, allowing the event to be detected by free-busy time searches (e.g. a confirmed meeting)
     private boolean transparent;
+    // RRULE property describes how the event repeats; null for single events
+    private RecurrenceRule recurrenceRule;
     // DTSTART property indicates the UTC time at which the event begins (inclusive)
     private ZonedDateTime startDate;
     // DTEND property indicates the UTC time at which the event ends (exclusive)
@@ -59,22 +75,40 @@ public class CalendarEvent {
     // CATEGORIES property is a comma separated list of identifiers attached to the event
     //  Only one language category can be included
     private Locale languageCategory;
-    private String[] categories;
+    //  Categories and the language tag are stored as ids in the shared CategoryDictionary
+    private int languageId = CategoryDictionary.NULL_ID;
+    private int[] categoryIds;
+    //  values the shared dictionary had no room for, at the position of their NOT_INTERNED id; usually null
+    private String[] uninternedCategories;
     // LOCATION property is a string used to indicate specifics of where the event occurs.
     //  An alternate representation of the location can be passed by use of the ALTREP property
     //  This alternate representation is a URI
     private String location;
 
+    // UTF-8 encoding of the default VEVENT block and its fingerprint, built on first use and cleared whenever the event is modified
+    private volatile Encoding encoding;
+    // the same for the last custom template the event was written with, keyed by the template's fingerprint
+    private volatile Encoding templateEncoding;
+    // incremented by every mutator; an encoding is only used while it matches
+    private volatile int modificationCount;
 
 
-    //TODO instead of making lots of complex constructors, I should build one all-access constructor and a factory class or set of static methods
-    // so it's clear what kind of event is being created (e.g. Holiday, Optional Meeting, et cetra) but there's only one
-    // constructor to test
+    // events of a specific kind (e.g. Holiday, Optional Meeting, et cetera) are created through CalendarEventFactory
     public CalendarEvent(String summary, ZonedDateTime startDate, ZonedDateTime endDate, boolean tentativeEvent, boolean transparent, String languageCategory, String[] categories, String location) {
+        this(summary, startDate, endDate, tentativeEvent, transparent, languageCategory, categories, location, UidGenerator.random());
+    }
+
+    /**
+     * Creates an event whose UID comes from the given generator instead of {@link UUID#randomUUID()}.
+     */
+    public CalendarEvent(String summary, ZonedDateTime startDate, ZonedDateTime endDate, boolean tentativeEvent, boolean transparent, String languageCategory, String[] categories, String location, UidGenerator uidGenerator) {
         if (startDate == null) {
             throw new IllegalArgumentException("Start date cannot be null.");
         }
-        uuid = UUID.randomUUID();
+        if (uidGenerator == null) {
+            throw new IllegalArgumentException("UID generator cannot be null.");
+        }
+        uuid = uidGenerator.generate(summary, startDate);
         this.summary = summary;
         this.startDate = startDate;
         this.endDate = endDate;
@@ -85,94 +119,276 @@ public class CalendarEvent {
             this.status = Status.CONFIRMED;
         }
         this.transparent = transparent;
-        if (languageCategory != null && languageCategory.matches(LANGUAGE_PATTERN_FORMAT)) {
-            // language tag format from
-            this.languageCategory = Locale.forLanguageTag(languageCategory);
-        }
-        this.categories = categories;
+        // null unless the tag matches LANGUAGE_PATTERN_FORMAT
+        this.languageCategory = CalendarEventFactory.toLocale(languageCategory);
+        setCategories(this.languageCategory, categories);
         this.location = location;
     }
 
-    private String DateToUTCString(ZonedDateTime date) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_PATTERN_FORMAT)
-                .withZone(ZoneId.of("Z"));
-        return formatter.format(date);
+    /**
+     * All-access constructor that sets every property directly, including the ones normally generated (UID, SEQUENCE
+     * and DTSTAMP). Used when restoring events that were previously written, e.g. by {@code CalendarFileReader}.
+     */
+    public CalendarEvent(String summary, UUID uuid, int sequence, Status status, boolean transparent, RecurrenceRule recurrenceRule,
+                         ZonedDateTime startDate, ZonedDateTime endDate, ZonedDateTime createdDate,
+                         Locale languageCategory, String[] categories, String location) {
+        if (startDate == null) {
+            throw new IllegalArgumentException("Start date cannot be null.");
+        }
+        if (uuid == null || status == null || createdDate == null) {
+            throw new IllegalArgumentException("UID, status and created date cannot be null.");
+        }
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Sequence cannot be negative.");
+        }
+        this.summary = summary;
+        this.uuid = uuid;
+        this.sequence = sequence;
+        this.status = status;
+        this.transparent = transparent;
+        this.recurrenceRule = recurrenceRule;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.createdDate = createdDate;
+        this.languageCategory = languageCategory;
+        setCategories(languageCategory, categories);
+        this.location = location;
     }
 
     public void confirmEvent() {
+        if (status != Status.CONFIRMED) {
+            // a STATUS change is a significant revision (RFC 5546), so the SEQUENCE is bumped
+            sequence++;
+        }
         status = Status.CONFIRMED;
         transparent = false;
+        invalidateEncoding();
     }
 
     public void cancelEvent() {
+        if (status != Status.CANCELLED) {
+            sequence++;
+        }
         status = Status.CANCELLED;
         transparent = true;
+        invalidateEncoding();
     }
 
-    // overrides
-    @Override
-    public String toString() {
-        //TODO should this be built from a template file?
-        // If so, this functionality should be moved to CalendarFileWriter
-        StringBuilder eventText = new StringBuilder("BEGIN:VEVENT");
+    public void setRecurrenceRule(RecurrenceRule recurrenceRule) {
+        if (Objects.equals(this.recurrenceRule, recurrenceRule)) {
+            return;
+        }
+        // changing the recurrence is a significant revision (RFC 5546)
+        this.recurrenceRule = recurrenceRule;
+        sequence++;
+        invalidateEncoding();
+    }
 
-        eventText.append("\nSUMMARY:" + summary);
-        eventText.append("\nUID:" + uuid);
-        eventText.append("\nSEQUENCE:" + sequence);
-        eventText.append("\nSTATUS:" + status.name());
-        eventText.append("\nTRANSP:" + (transparent ? "TRANSPARENT" : "OPAQUE"));
-        eventText.append("\nDTSTART:" + DateToUTCString(startDate));
-        eventText.append("\nDTEND:" + DateToUTCString(endDate));
-        eventText.append("\nDTSTAMP:" + DateToUTCString(createdDate));
-        eventText.append(allCategoriesToString());
-        eventText.append("\nLOCATION:" + location);
+    /**
+     * Lazily lists the start times of this event that fall within {@code [from, to)}, expanding the RRULE if one is
+     * set. See {@link RecurrenceRule#occurrences(ZonedDateTime, ZonedDateTime, ZonedDateTime)}.
+     */
+    public Iterator<ZonedDateTime> occurrences(ZonedDateTime from, ZonedDateTime to) {
+        if (recurrenceRule != null) {
+            return recurrenceRule.occurrences(startDate, from, to);
+        }
+        if (startDate.isBefore(from) || !startDate.isBefore(to)) {
+            return Collections.emptyIterator();
+        }
+        return List.of(startDate).iterator();
+    }
 
+    /**
+     * Writes the UTF-8 encoded VEVENT block. Unchanged events reuse the bytes encoded on a previous call, so
+     * repeated exports only pay for formatting events that were modified in between.
+     *
+     * @return the number of bytes written
+     */
+    public int writeTo(OutputStream out) throws IOException {
+        byte[] encoded = getEncoding().bytes();
+        out.write(encoded);
+        return encoded.length;
+    }
 
+    /**
+     * Writes the UTF-8 encoded VEVENT block laid out by {@code template}. The bytes of the last custom template are
+     * cached next to those of the default layout, so exporting repeatedly with one template also only formats
+     * events that were modified in between.
+     *
+     * @return the number of bytes written
+     */
+    public int writeTo(CalendarTemplate template, OutputStream out) throws IOException {
+        if (template.hasDefaultEventLayout()) {
+            return writeTo(out);
+        }
+        Encoding current = templateEncoding;
+        if (isCurrent(current) && current.template() == template.getFingerprint()) {
+            ENCODING_CACHE_HITS.increment();
+        } else {
+            ENCODING_CACHE_MISSES.increment();
+            int modification = modificationCount;
+            byte[] encoded = template.encodeEvent(this);
+            current = new Encoding(encoded, fingerprint(encoded), modification, template.getFingerprint());
+            templateEncoding = current;
+        }
+        out.write(current.bytes());
+        return current.bytes().length;
+    }
 
-        eventText.append("\nEND:VEVENT");
-        return eventText.toString();
-}
+    /**
+     * @return the number of bytes {@link #writeTo(OutputStream)} writes for this event
+     */
+    public int getEncodedLength() {
+        return getEncoding().bytes().length;
+    }
 
-    private String allCategoriesToString() {
-        // return blank if no associated categories
-        if ((languageCategory==null || languageCategory.toLanguageTag().isBlank()) && (categories == null || categories.length == 0 )) {
-            return "";
+    /**
+     * @return a 64-bit hash of the bytes {@link #writeTo(OutputStream)} writes. Unlike SEQUENCE, it changes with every
+     * property written, including changes that are not significant revisions, such as TRANSP. Cached with the
+     * encoding, so it is only computed when the event is encoded.
+     */
+    public long getContentFingerprint() {
+        Encoding current = encoding;
+        // read directly so fingerprint lookups do not count as encoding cache hits
+        return (isCurrent(current) ? current : getEncoding()).fingerprint();
+    }
+
+    public static long getEncodingCacheHits() {
+        return ENCODING_CACHE_HITS.sum();
+    }
+
+    public static long getEncodingCacheMisses() {
+        return ENCODING_CACHE_MISSES.sum();
+    }
+
+    /**
+     * @return the number of modifications made to any event so far; it grows after each change is complete
+     */
+    public static long getTotalModifications() {
+        return TOTAL_MODIFICATIONS.get();
+    }
+
+    private Encoding getEncoding() {
+        Encoding current = encoding;
+        if (isCurrent(current)) {
+            ENCODING_CACHE_HITS.increment();
+            return current;
         }
 
-        StringBuilder returnString = new StringBuilder("\nCATEGORIES:");
+        ENCODING_CACHE_MISSES.increment();
+        // read before formatting, so an encoding that races with a mutator is stored with a stale count
+        int modification = modificationCount;
+        long start = System.nanoTime();
+        byte[] encoded = toString().getBytes(StandardCharsets.UTF_8);
+        CalendarMetrics.SERIALIZE.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        CalendarMetrics.EVENT_SIZE.record(encoded.length);
+        CalendarMetrics.EVENT_CATEGORIES.record((categoryIds == null ? 0 : categoryIds.length)
+                + (languageId == CategoryDictionary.NULL_ID ? 0 : 1));
+        current = new Encoding(encoded, fingerprint(encoded), modification, CalendarTemplate.defaultTemplate().getFingerprint());
+        encoding = current;
+        return current;
+    }
+
+    private boolean isCurrent(Encoding current) {
+        return current != null && current.modification() == modificationCount;
+    }
 
-        // Because we know at least one of the two tested instance variables contains a value, an
-        // invalid categories array means we only need to return the language.
-        if (categories == null || categories.length == 0){
-            returnString.append(languageCategory.toLanguageTag());
-            return returnString.toString();
+    private static long fingerprint(byte[] bytes) {
+        // 64-bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
         }
+        return hash;
+    }
+
+    // every mutator must call this after changing a field so the next write re-encodes the event
+    private void invalidateEncoding() {
+        modificationCount++;
+        TOTAL_MODIFICATIONS.incrementAndGet();
+        encoding = null;
+        templateEncoding = null;
+    }
+
+    /**
+     * Streams the VEVENT block for this event into the given output without building an intermediate String.
+     * The characters written are identical to {@link #toString()}; the layout is that of
+     * {@link CalendarTemplate#defaultTemplate()}.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        CalendarTemplate.defaultTemplate().writeEvent(this, out);
+    }
+
+    // overrides
+    @Override
+    public String toString() {
+        StringBuilder eventText = new StringBuilder();
+        try {
+            writeTo(eventText);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return eventText.toString();
+    }
+
+    /**
+     * @return true if the event has a CATEGORIES property, i.e. categories or a language tag
+     */
+    public boolean hasCategories() {
+        return languageId != CategoryDictionary.NULL_ID || (categoryIds != null && categoryIds.length > 0);
+    }
 
-        // If categories is only one value, no need for the stream below
-        if (categories.length == 1 && (languageCategory == null || languageCategory.toLanguageTag().isBlank())) {
-            returnString.append(categories[0]);
+    /**
+     * Writes the value of the CATEGORIES property: the escaped categories followed by the language tag. Writes
+     * nothing if {@link #hasCategories()} is false.
+     */
+    public void writeCategories(ContentLineEncoder out) throws IOException {
+        boolean hasLanguage = languageId != CategoryDictionary.NULL_ID;
+        boolean hasCategories = categoryIds != null && categoryIds.length > 0;
+
+        CategoryDictionary dictionary = CategoryDictionary.shared();
+        for (int i = 0; i < (hasCategories ? categoryIds.length : 0); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            // commas inside a category are escaped so they are not read as separators
+            if (categoryIds[i] == CategoryDictionary.NULL_ID) {
+                out.appendText(null);
+            } else if (categoryIds[i] == CategoryDictionary.NOT_INTERNED) {
+                out.appendText(uninternedCategories[i]);
+            } else {
+                out.appendEscaped(dictionary.getEscaped(categoryIds[i]));
+            }
         }
 
-        // add all categories to one list
-        List<String> allCategories = Arrays.stream(categories).collect(Collectors.toList());
+        // the language category is always listed last
+        if (hasLanguage) {
+            if (hasCategories) {
+                out.append(',');
+            }
+            out.append(languageId == CategoryDictionary.NOT_INTERNED ? languageCategory.toLanguageTag() : dictionary.get(languageId));
+        }
+    }
 
+    private void setCategories(Locale languageCategory, String[] categories) {
+        CategoryDictionary dictionary = CategoryDictionary.shared();
         if (languageCategory != null && !languageCategory.toLanguageTag().isBlank()) {
-            allCategories.add(languageCategory.toLanguageTag());
+            languageId = dictionary.intern(languageCategory.toLanguageTag());
         }
-
-        // map categories to add commas between and add to StringBuilder
-        allCategories.stream()
-            .map((category) -> {
-                if (category.equals(allCategories.get(0))) {
-                    return category;
+        if (categories != null) {
+            categoryIds = new int[categories.length];
+            for (int i = 0; i < categories.length; i++) {
+                categoryIds[i] = dictionary.intern(categories[i]);
+                if (categoryIds[i] == CategoryDictionary.NOT_INTERNED) {
+                    if (uninternedCategories == null) {
+                        uninternedCategories = new String[categories.length];
+                    }
+                    uninternedCategories[i] = categories[i];
                 }
-                return "," + category;
-            })
-            .forEach(categoryString -> {
-                returnString.append(categoryString);
-            });
-
-        return returnString.toString();
+            }
+        }
     }
 
     //getters
@@ -189,7 +405,67 @@ public class CalendarEvent {
         return sequence;
     }
 
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isTransparent() {
+        return transparent;
+    }
+
     public ZonedDateTime getStartDate() {
         return startDate;
     }
+
+    public ZonedDateTime getEndDate() {
+        return endDate;
+    }
+
+    public ZonedDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public Locale getLanguageCategory() {
+        return languageCategory;
+    }
+
+    public String[] getCategories() {
+        if (categoryIds == null) {
+            return null;
+        }
+        String[] categories = new String[categoryIds.length];
+        for (int i = 0; i < categoryIds.length; i++) {
+            categories[i] = categoryIds[i] == CategoryDictionary.NOT_INTERNED
+                    ? uninternedCategories[i]
+                    : CategoryDictionary.shared().get(categoryIds[i]);
+        }
+        return categories;
+    }
+
+    /**
+     * @return the ids of this event's categories in the shared {@link CategoryDictionary}, or null if it has none.
+     * A category the full dictionary could not take has the id {@link CategoryDictionary#NOT_INTERNED}.
+     */
+    public int[] getCategoryIds() {
+        return categoryIds == null ? null : categoryIds.clone();
+    }
+
+    /**
+     * @return the id of the language tag in the shared {@link CategoryDictionary}, {@link CategoryDictionary#NULL_ID}
+     * or {@link CategoryDictionary#NOT_INTERNED}
+     */
+    public int getLanguageId() {
+        return languageId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public RecurrenceRule getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    private record Encoding(byte[] bytes, long fingerprint, int modification, long template) {
+    }
 }
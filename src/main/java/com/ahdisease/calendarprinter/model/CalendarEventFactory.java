@@ -0,0 +1,196 @@
+package com.ahdisease.calendarprinter.model;
+
+import com.ahdisease.calendarprinter.uid.UidGenerator;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates CalendarEvents by kind (holiday, meeting, tentative meeting, optional meeting) for bulk construction.
+ * <p>
+ * Language tags are checked by a hand-written matcher for {@link CalendarEvent#LANGUAGE_PATTERN_FORMAT} and their
+ * Locales are cached, so no regex or Locale is built per event. A factory returned by {@link #batch()} reads its
+ * clock once and gives every event it creates the same DTSTAMP. Factories are immutable and thread-safe.
+ */
+public class CalendarEventFactory {
+    //constants
+    public static final String HOLIDAY_CATEGORY = "HOLIDAY";
+    public static final String MEETING_CATEGORY = "MEETING";
+    // Locales for at most this many distinct tags are cached; further tags are still accepted, just not cached
+    private static final int MAX_CACHED_LOCALES = 1024;
+    private static final Map<String, Locale> LOCALES = new ConcurrentHashMap<>();
+
+    //instance variables
+    private final Clock clock;
+    private final UidGenerator uidGenerator;
+    // DTSTAMP shared by every event of a batch; null to read the clock per event
+    private final ZonedDateTime batchStamp;
+
+    public CalendarEventFactory() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public CalendarEventFactory(Clock clock) {
+        this(clock, UidGenerator.random(), null);
+    }
+
+    private CalendarEventFactory(Clock clock, UidGenerator uidGenerator, ZonedDateTime batchStamp) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null.");
+        }
+        if (uidGenerator == null) {
+            throw new IllegalArgumentException("UID generator cannot be null.");
+        }
+        this.clock = clock;
+        this.uidGenerator = uidGenerator;
+        this.batchStamp = batchStamp;
+    }
+
+    /**
+     * @return a factory that stamps every event it creates with a single reading of this factory's clock
+     */
+    public CalendarEventFactory batch() {
+        return new CalendarEventFactory(clock, uidGenerator, ZonedDateTime.now(clock));
+    }
+
+    /**
+     * @return a factory that creates UIDs with the given generator instead of {@link java.util.UUID#randomUUID()}
+     */
+    public CalendarEventFactory withUidGenerator(UidGenerator uidGenerator) {
+        return new CalendarEventFactory(clock, uidGenerator, batchStamp);
+    }
+
+    /**
+     * Creates an event with every commonly set property. An invalid language tag is ignored, as in
+     * {@link CalendarEvent#CalendarEvent(String, ZonedDateTime, ZonedDateTime, boolean, boolean, String, String[], String)}.
+     */
+    public CalendarEvent create(String summary, ZonedDateTime startDate, ZonedDateTime endDate, CalendarEvent.Status status,
+                                boolean transparent, String languageTag, String[] categories, String location) {
+        if (startDate == null) {
+            throw new IllegalArgumentException("Start date cannot be null.");
+        }
+        return new CalendarEvent(summary, uidGenerator.generate(summary, startDate), 0, status, transparent, null, startDate, endDate,
+                createdDate(), toLocale(languageTag), categories, location);
+    }
+
+    /**
+     * A confirmed, all-day event that does not consume time, e.g. a public holiday.
+     */
+    public CalendarEvent holiday(String summary, ZonedDateTime date, String languageTag) {
+        if (date == null) {
+            throw new IllegalArgumentException("Start date cannot be null.");
+        }
+        ZonedDateTime startOfDay = date.toLocalDate().atStartOfDay(date.getZone());
+        return create(summary, startOfDay, startOfDay.plusDays(1), CalendarEvent.Status.CONFIRMED, true, languageTag,
+                new String[] {HOLIDAY_CATEGORY}, null);
+    }
+
+    /**
+     * A confirmed meeting that consumes time.
+     */
+    public CalendarEvent meeting(String summary, ZonedDateTime startDate, ZonedDateTime endDate, String location) {
+        return create(summary, startDate, endDate, CalendarEvent.Status.CONFIRMED, false, null,
+                new String[] {MEETING_CATEGORY}, location);
+    }
+
+    /**
+     * A meeting that has not been confirmed yet; it still consumes time so the slot stays reserved.
+     */
+    public CalendarEvent tentativeMeeting(String summary, ZonedDateTime startDate, ZonedDateTime endDate, String location) {
+        return create(summary, startDate, endDate, CalendarEvent.Status.TENTATIVE, false, null,
+                new String[] {MEETING_CATEGORY}, location);
+    }
+
+    /**
+     * A tentative meeting that attendees may skip, so it does not consume time.
+     */
+    public CalendarEvent optionalMeeting(String summary, ZonedDateTime startDate, ZonedDateTime endDate, String location) {
+        return create(summary, startDate, endDate, CalendarEvent.Status.TENTATIVE, true, null,
+                new String[] {MEETING_CATEGORY}, location);
+    }
+
+    /**
+     * @return the Locale for a tag matching {@link CalendarEvent#LANGUAGE_PATTERN_FORMAT}, or null if the tag is null
+     * or does not match
+     */
+    public static Locale toLocale(String languageTag) {
+        if (languageTag == null) {
+            return null;
+        }
+        Locale locale = LOCALES.get(languageTag);
+        if (locale != null) {
+            return locale;
+        }
+        if (!isLanguageTag(languageTag)) {
+            return null;
+        }
+        locale = Locale.forLanguageTag(languageTag);
+        if (LOCALES.size() < MAX_CACHED_LOCALES) {
+            LOCALES.putIfAbsent(languageTag, locale);
+        }
+        return locale;
+    }
+
+    /**
+     * Hand-written equivalent of {@link CalendarEvent#LANGUAGE_PATTERN_FORMAT}: a 2-3 letter lowercase language,
+     * optionally followed by a 2-3 letter uppercase region, optionally followed by a 4 letter script.
+     */
+    public static boolean isLanguageTag(String value) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        int position = letters(value, 0, 'a', 'z');
+        if (position < 2 || position > 3) {
+            return false;
+        }
+        if (position == length) {
+            return true;
+        }
+
+        if (value.charAt(position) != '-') {
+            return false;
+        }
+        int regionEnd = letters(value, position + 1, 'A', 'Z');
+        int regionLength = regionEnd - position - 1;
+        if (regionLength < 2 || regionLength > 3) {
+            return false;
+        }
+        if (regionEnd == length) {
+            return true;
+        }
+
+        if (value.charAt(regionEnd) != '-') {
+            return false;
+        }
+        int scriptEnd = regionEnd + 1;
+        while (scriptEnd < length && isAsciiLetter(value.charAt(scriptEnd))) {
+            scriptEnd++;
+        }
+        return scriptEnd == length && scriptEnd - regionEnd - 1 == 4;
+    }
+
+    // helper methods
+
+    private ZonedDateTime createdDate() {
+        return batchStamp != null ? batchStamp : ZonedDateTime.now(clock);
+    }
+
+    /**
+     * @return the index after the run of characters between {@code low} and {@code high} starting at {@code start}
+     */
+    private static int letters(String value, int start, char low, char high) {
+        int position = start;
+        while (position < value.length() && value.charAt(position) >= low && value.charAt(position) <= high) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,173 @@
+package com.ahdisease.calendarprinter.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared dictionary of CATEGORIES values and language tags. Each distinct value is interned once and given a small
+ * id, so events store ids instead of their own copies of the same few dozen strings, and the escaped TEXT form of
+ * each value is computed once instead of on every write.
+ * <p>
+ * Values are never removed, so the shared dictionary is meant for the small, repeated vocabulary of categories rather
+ * than free text. Because imports and third-party feeds can bring any number of distinct categories, it holds at most
+ * {@link #SHARED_CAPACITY} values; once full, {@link #intern} returns {@link #NOT_INTERNED} for new values and events
+ * keep those values themselves. A {@link com.ahdisease.calendarprinter.compact.CompactCalendar} keeps its own,
+ * unbounded instance. Values that need no escaping are stored once. Thread-safe: lookups are lock-free and only new
+ * values take a lock.
+ */
+public final class CategoryDictionary {
+    //constants
+    public static final int NULL_ID = -1;
+    // returned by intern when a bounded dictionary is full
+    public static final int NOT_INTERNED = -2;
+    public static final int SHARED_CAPACITY = 65_536;
+    private static final CategoryDictionary SHARED = new CategoryDictionary(SHARED_CAPACITY);
+
+    //instance variables
+    private final int capacity;
+    private final Map<String, Integer> idsByValue = new ConcurrentHashMap<>();
+    // replaced as a whole when it grows, so readers always see a consistent array
+    private volatile String[] values = new String[64];
+    private volatile String[] escapedValues = new String[64];
+    private volatile int size;
+
+    public CategoryDictionary() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a dictionary that holds at most {@code capacity} values.
+     */
+    public CategoryDictionary(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be a positive integer.");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the dictionary used by every CalendarEvent
+     */
+    public static CategoryDictionary shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the id of {@code value}, adding it to the dictionary if it is new; {@link #NULL_ID} for null, or
+     * {@link #NOT_INTERNED} if the value is new and the dictionary is full
+     */
+    public int intern(String value) {
+        if (value == null) {
+            return NULL_ID;
+        }
+        Integer id = idsByValue.get(value);
+        if (id != null) {
+            return id;
+        }
+        return add(value);
+    }
+
+    /**
+     * @return the id of {@code value}, or {@link #NULL_ID} if it has never been interned
+     */
+    public int idOf(String value) {
+        if (value == null) {
+            return NULL_ID;
+        }
+        Integer id = idsByValue.get(value);
+        return id == null ? NULL_ID : id;
+    }
+
+    public String get(int id) {
+        if (id == NULL_ID) {
+            return null;
+        }
+        checkId(id);
+        return values[id];
+    }
+
+    /**
+     * @return the value with backslashes, semicolons, commas and line breaks escaped as an RFC 5545 TEXT value
+     */
+    public String getEscaped(int id) {
+        if (id == NULL_ID) {
+            return null;
+        }
+        checkId(id);
+        return escapedValues[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // helper methods
+
+    private synchronized int add(String value) {
+        // another thread may have added the value while this one waited for the lock
+        Integer existing = idsByValue.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = size;
+        if (id == capacity) {
+            return NOT_INTERNED;
+        }
+        String[] newValues = values;
+        String[] newEscapedValues = escapedValues;
+        if (id == newValues.length) {
+            int newLength = (int) Math.min(capacity, id * 2L);
+            newValues = Arrays.copyOf(newValues, newLength);
+            newEscapedValues = Arrays.copyOf(newEscapedValues, newLength);
+        }
+        newValues[id] = value;
+        newEscapedValues[id] = escape(value);
+        values = newValues;
+        escapedValues = newEscapedValues;
+        size = id + 1;
+        // published last so a reader that finds the id can also read its value
+        idsByValue.put(value, id);
+        return id;
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown category id: " + id);
+        }
+    }
+
+    private static String escape(String value) {
+        if (!needsEscaping(value)) {
+            // most values are plain text, so their escaped form is the value itself
+            return value;
+        }
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> {
+                    if (i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    escaped.append("\\n");
+                }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean needsEscaping(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == ';' || c == ',' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ahdisease.calendarprinter.model;
+
+import com.ahdisease.calendarprinter.format.ContentLineEncoder;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only view of the properties a {@link com.ahdisease.calendarprinter.template.CalendarTemplate} writes for one
+ * VEVENT. {@link CalendarEvent} implements it directly; other storage, such as the columns of a
+ * {@link com.ahdisease.calendarprinter.compact.CompactCalendar}, can override the default methods to write values
+ * without creating the objects behind the getters.
+ */
+public interface EventView {
+
+    String getSummary();
+
+    UUID getUuid();
+
+    int getSequence();
+
+    CalendarEvent.Status getStatus();
+
+    boolean isTransparent();
+
+    RecurrenceRule getRecurrenceRule();
+
+    ZonedDateTime getStartDate();
+
+    ZonedDateTime getEndDate();
+
+    ZonedDateTime getCreatedDate();
+
+    String getLocation();
+
+    /**
+     * @return true if the event has a CATEGORIES property, i.e. categories or a language tag
+     */
+    boolean hasCategories();
+
+    /**
+     * Writes the value of the CATEGORIES property: the escaped categories followed by the language tag.
+     */
+    void writeCategories(ContentLineEncoder out) throws IOException;
+
+    default void writeUid(Appendable out) throws IOException {
+        out.append(getUuid().toString());
+    }
+
+    default boolean hasRecurrenceRule() {
+        return getRecurrenceRule() != null;
+    }
+
+    default void writeRecurrenceRule(Appendable out) throws IOException {
+        getRecurrenceRule().writeTo(out);
+    }
+
+    default long getStartEpochSecond() {
+        return getStartDate().toEpochSecond();
+    }
+
+    default long getEndEpochSecond() {
+        return getEndDate().toEpochSecond();
+    }
+
+    default long getCreatedEpochSecond() {
+        return getCreatedDate().toEpochSecond();
+    }
+}
@@ -0,0 +1,168 @@
+package com.ahdisease.calendarprinter.model;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks a recurrence rule one period (day, week, month or year) at a time and tests each day of the period against
+ * the rule, so occurrences come out in order without collecting candidate dates first.
+ */
+class RecurrenceIterator implements Iterator<ZonedDateTime> {
+    //instance variables
+    private final RecurrenceRule rule;
+    private final ZonedDateTime startDate;
+    private final ZonedDateTime from;
+    private final ZonedDateTime to;
+    private final ZoneId zone;
+    private final LocalTime timeOfDay;
+    private final LocalDate firstDay;
+    private final LocalDate lastWindowDay;
+
+    // state of the walk
+    private long periodIndex;
+    private LocalDate day;
+    private LocalDate periodEnd;
+    private int occurrencesCounted;
+    private boolean finished;
+    private ZonedDateTime nextOccurrence;
+
+    RecurrenceIterator(RecurrenceRule rule, ZonedDateTime startDate, ZonedDateTime from, ZonedDateTime to) {
+        this.rule = rule;
+        this.startDate = startDate;
+        this.from = from;
+        this.to = to;
+        this.zone = startDate.getZone();
+        this.timeOfDay = startDate.toLocalTime();
+        this.firstDay = startDate.toLocalDate();
+        this.lastWindowDay = to.withZoneSameInstant(zone).toLocalDate();
+
+        if (rule.getCount() == 0) {
+            // without COUNT nothing before the window affects the result, so start one period before it
+            LocalDate windowStart = from.withZoneSameInstant(zone).toLocalDate();
+            periodIndex = Math.max(0, periodsBetween(firstDay, windowStart) / rule.getInterval() - 1);
+        }
+        startPeriod();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextOccurrence == null && !finished) {
+            nextOccurrence = advance();
+        }
+        return nextOccurrence != null;
+    }
+
+    @Override
+    public ZonedDateTime next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ZonedDateTime occurrence = nextOccurrence;
+        nextOccurrence = null;
+        return occurrence;
+    }
+
+    private ZonedDateTime advance() {
+        while (true) {
+            if (day.isAfter(periodEnd)) {
+                periodIndex++;
+                startPeriod();
+            }
+            if (day.isAfter(lastWindowDay)) {
+                // every later occurrence starts after the window
+                finished = true;
+                return null;
+            }
+
+            LocalDate candidate = day;
+            day = day.plusDays(1);
+            if (!matches(candidate)) {
+                continue;
+            }
+
+            ZonedDateTime occurrence = ZonedDateTime.of(candidate, timeOfDay, zone);
+            if (occurrence.isBefore(startDate)) {
+                continue;
+            }
+            if (rule.getUntil() != null && occurrence.isAfter(rule.getUntil())) {
+                finished = true;
+                return null;
+            }
+            if (rule.getCount() > 0 && ++occurrencesCounted > rule.getCount()) {
+                finished = true;
+                return null;
+            }
+            if (!occurrence.isBefore(to)) {
+                finished = true;
+                return null;
+            }
+            if (occurrence.isBefore(from)) {
+                continue;
+            }
+            return occurrence;
+        }
+    }
+
+    private void startPeriod() {
+        long offset = periodIndex * rule.getInterval();
+        switch (rule.getFrequency()) {
+            case DAILY -> {
+                day = firstDay.plusDays(offset);
+                periodEnd = day;
+            }
+            case WEEKLY -> {
+                day = firstDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).plusWeeks(offset);
+                periodEnd = day.plusDays(6);
+            }
+            case MONTHLY -> {
+                day = firstDay.withDayOfMonth(1).plusMonths(offset);
+                periodEnd = day.with(TemporalAdjusters.lastDayOfMonth());
+            }
+            case YEARLY -> {
+                day = firstDay.withDayOfYear(1).plusYears(offset);
+                periodEnd = day.with(TemporalAdjusters.lastDayOfYear());
+            }
+        }
+    }
+
+    private long periodsBetween(LocalDate start, LocalDate end) {
+        return switch (rule.getFrequency()) {
+            case DAILY -> ChronoUnit.DAYS.between(start, end);
+            case WEEKLY -> ChronoUnit.WEEKS.between(start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                    end.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+            case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(end));
+            case YEARLY -> end.getYear() - start.getYear();
+        };
+    }
+
+    private boolean matches(LocalDate candidate) {
+        RecurrenceRule.Frequency frequency = rule.getFrequency();
+
+        // BYMONTH limits every frequency; yearly rules without BY* parts repeat on the start month
+        if (rule.hasByMonth()) {
+            if (!rule.matchesByMonth(candidate.getMonthValue())) {
+                return false;
+            }
+        } else if (frequency == RecurrenceRule.Frequency.YEARLY && !rule.hasByDay() && !rule.hasByMonthDay()
+                && candidate.getMonth() != firstDay.getMonth()) {
+            return false;
+        }
+
+        if (rule.hasByMonthDay() && !rule.matchesByMonthDay(candidate.getDayOfMonth(), candidate.lengthOfMonth())) {
+            return false;
+        }
+        if (rule.hasByDay()) {
+            return rule.matchesByDay(candidate.getDayOfWeek());
+        }
+
+        // without BYDAY/BYMONTHDAY the rule repeats on the same weekday or day of month as the first occurrence
+        return switch (frequency) {
+            case DAILY -> true;
+            case WEEKLY -> candidate.getDayOfWeek() == firstDay.getDayOfWeek();
+            case MONTHLY, YEARLY -> rule.hasByMonthDay() || candidate.getDayOfMonth() == firstDay.getDayOfMonth();
+        };
+    }
+}
@@ -0,0 +1,317 @@
+package com.ahdisease.calendarprinter.model;
+
+import com.ahdisease.calendarprinter.format.ICalendarDateEncoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An RRULE value supporting the FREQ, INTERVAL, BYDAY, BYMONTH, BYMONTHDAY, COUNT and UNTIL rule parts.
+ * BYDAY only accepts plain weekday codes (e.g. MO), not ordinal forms such as 1MO or -1FR.
+ */
+public class RecurrenceRule {
+    //enums
+    public enum Frequency {DAILY, WEEKLY, MONTHLY, YEARLY}
+
+    //constants
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    //instance variables
+    private final Frequency frequency;
+    private final int interval;
+    // bit (DayOfWeek.ordinal()) is set for every BYDAY value
+    private final int byDayMask;
+    // bit (month number) is set for every BYMONTH value
+    private final int byMonthMask;
+    // bit (day) is set for every positive BYMONTHDAY value, bit (-day) for every negative one
+    private final long byMonthDayMask;
+    private final long byNegativeMonthDayMask;
+    // COUNT of 0 means the rule is not limited by a number of occurrences
+    private final int count;
+    private final ZonedDateTime until;
+
+    public RecurrenceRule(Frequency frequency, int interval, Set<DayOfWeek> byDay, Set<Integer> byMonth, Set<Integer> byMonthDay, int count, ZonedDateTime until) {
+        if (frequency == null) {
+            throw new IllegalArgumentException("Frequency cannot be null.");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be a positive integer.");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative.");
+        }
+        if (count > 0 && until != null) {
+            throw new IllegalArgumentException("COUNT and UNTIL cannot both be set.");
+        }
+
+        int dayMask = 0;
+        if (byDay != null) {
+            for (DayOfWeek day : byDay) {
+                dayMask |= 1 << day.ordinal();
+            }
+        }
+
+        int monthMask = 0;
+        if (byMonth != null) {
+            for (int month : byMonth) {
+                if (month < 1 || month > 12) {
+                    throw new IllegalArgumentException("BYMONTH values must be between 1 and 12.");
+                }
+                monthMask |= 1 << month;
+            }
+        }
+
+        long monthDayMask = 0;
+        long negativeMonthDayMask = 0;
+        if (byMonthDay != null) {
+            for (int monthDay : byMonthDay) {
+                if (monthDay == 0 || monthDay < -31 || monthDay > 31) {
+                    throw new IllegalArgumentException("BYMONTHDAY values must be between 1 and 31 or -31 and -1.");
+                }
+                if (monthDay > 0) {
+                    monthDayMask |= 1L << monthDay;
+                } else {
+                    negativeMonthDayMask |= 1L << -monthDay;
+                }
+            }
+        }
+
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDayMask = dayMask;
+        this.byMonthMask = monthMask;
+        this.byMonthDayMask = monthDayMask;
+        this.byNegativeMonthDayMask = negativeMonthDayMask;
+        this.count = count;
+        this.until = until;
+    }
+
+    /**
+     * Parses an RRULE value such as {@code FREQ=YEARLY;INTERVAL=1;BYMONTH=2;BYMONTHDAY=12}.
+     */
+    public static RecurrenceRule parse(String value) throws IllegalArgumentException {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Recurrence rule cannot be empty.");
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = new HashSet<>();
+        Set<Integer> byMonth = new HashSet<>();
+        Set<Integer> byMonthDay = new HashSet<>();
+        int count = 0;
+        ZonedDateTime until = null;
+
+        for (String part : value.split(";")) {
+            int separator = part.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Invalid recurrence rule part: " + part);
+            }
+            String name = part.substring(0, separator);
+            String partValue = part.substring(separator + 1);
+            try {
+                switch (name) {
+                    case "FREQ" -> frequency = Frequency.valueOf(partValue);
+                    case "INTERVAL" -> interval = Integer.parseInt(partValue);
+                    case "COUNT" -> count = Integer.parseInt(partValue);
+                    case "UNTIL" -> until = parseUntil(partValue);
+                    case "BYDAY" -> {
+                        for (String dayCode : partValue.split(",")) {
+                            byDay.add(dayOfWeekFromCode(dayCode));
+                        }
+                    }
+                    case "BYMONTH" -> {
+                        for (String month : partValue.split(",")) {
+                            byMonth.add(Integer.parseInt(month));
+                        }
+                    }
+                    case "BYMONTHDAY" -> {
+                        for (String monthDay : partValue.split(",")) {
+                            byMonthDay.add(Integer.parseInt(monthDay));
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported recurrence rule part: " + name);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid recurrence rule part: " + part);
+            }
+        }
+
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence rule must include FREQ.");
+        }
+        return new RecurrenceRule(frequency, interval, byDay, byMonth, byMonthDay, count, until);
+    }
+
+    /**
+     * Lazily expands the occurrences of this rule for an event starting at {@code startDate}, limited to occurrences
+     * beginning within {@code [from, to)}. Occurrences are produced one at a time; when the rule has no COUNT, the
+     * expansion jumps directly to the period containing {@code from}, so the cost depends on the size of the window
+     * rather than on how long the series has been running.
+     */
+    public Iterator<ZonedDateTime> occurrences(ZonedDateTime startDate, ZonedDateTime from, ZonedDateTime to) {
+        if (startDate == null || from == null || to == null) {
+            throw new IllegalArgumentException("Start date and window bounds cannot be null.");
+        }
+        return new RecurrenceIterator(this, startDate, from, to);
+    }
+
+    public void writeTo(Appendable out) throws IOException {
+        out.append("FREQ=").append(frequency.name());
+        out.append(";INTERVAL=").append(Integer.toString(interval));
+        if (byDayMask != 0) {
+            out.append(";BYDAY=");
+            boolean first = true;
+            for (int i = 0; i < DAY_CODES.length; i++) {
+                if ((byDayMask & (1 << i)) != 0) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    out.append(DAY_CODES[i]);
+                    first = false;
+                }
+            }
+        }
+        if (byMonthMask != 0) {
+            out.append(";BYMONTH=");
+            appendMaskValues(byMonthMask, 1, 12, false, true, out);
+        }
+        if (byMonthDayMask != 0 || byNegativeMonthDayMask != 0) {
+            out.append(";BYMONTHDAY=");
+            appendMaskValues(byMonthDayMask, 1, 31, false, true, out);
+            appendMaskValues(byNegativeMonthDayMask, 1, 31, true, byMonthDayMask == 0, out);
+        }
+        if (count > 0) {
+            out.append(";COUNT=").append(Integer.toString(count));
+        }
+        if (until != null) {
+            out.append(";UNTIL=");
+            ICalendarDateEncoder.appendDateTime(until.toEpochSecond(), out);
+        }
+    }
+
+    // package-private accessors used by RecurrenceIterator
+
+    boolean hasByDay() {
+        return byDayMask != 0;
+    }
+
+    boolean matchesByDay(DayOfWeek day) {
+        return (byDayMask & (1 << day.ordinal())) != 0;
+    }
+
+    boolean hasByMonth() {
+        return byMonthMask != 0;
+    }
+
+    boolean matchesByMonth(int month) {
+        return (byMonthMask & (1 << month)) != 0;
+    }
+
+    boolean hasByMonthDay() {
+        return byMonthDayMask != 0 || byNegativeMonthDayMask != 0;
+    }
+
+    boolean matchesByMonthDay(int dayOfMonth, int lengthOfMonth) {
+        return (byMonthDayMask & (1L << dayOfMonth)) != 0
+                || (byNegativeMonthDayMask & (1L << (lengthOfMonth - dayOfMonth + 1))) != 0;
+    }
+
+    // helper methods
+
+    private static ZonedDateTime parseUntil(String value) {
+        if (value.length() == ICalendarDateEncoder.DATE_LENGTH) {
+            // DATE form: the rule runs through the end of that day
+            value = value + "T235959Z";
+        }
+        return ZonedDateTime.parse(value, UNTIL_FORMAT);
+    }
+
+    private static DayOfWeek dayOfWeekFromCode(String dayCode) {
+        for (int i = 0; i < DAY_CODES.length; i++) {
+            if (DAY_CODES[i].equals(dayCode)) {
+                return DayOfWeek.of(i + 1);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported BYDAY value: " + dayCode);
+    }
+
+    private static void appendMaskValues(long mask, int min, int max, boolean negative, boolean first, Appendable out) throws IOException {
+        for (int value = min; value <= max; value++) {
+            if ((mask & (1L << value)) != 0) {
+                if (!first) {
+                    out.append(',');
+                }
+                if (negative) {
+                    out.append('-');
+                }
+                out.append(Integer.toString(value));
+                first = false;
+            }
+        }
+    }
+
+    //getters
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public ZonedDateTime getUntil() {
+        return until;
+    }
+
+    // overrides
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder();
+        try {
+            writeTo(rule);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return rule.toString();
+    }
+
+    /**
+     * Rules are equal when they encode to the same RRULE; UNTIL is compared as an instant since it is written in UTC.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RecurrenceRule other)) {
+            return false;
+        }
+        return frequency == other.frequency && interval == other.interval && byDayMask == other.byDayMask
+                && byMonthMask == other.byMonthMask && byMonthDayMask == other.byMonthDayMask
+                && byNegativeMonthDayMask == other.byNegativeMonthDayMask && count == other.count
+                && Objects.equals(until == null ? null : until.toInstant(), other.until == null ? null : other.until.toInstant());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frequency, interval, byDayMask, byMonthMask, byMonthDayMask, byNegativeMonthDayMask, count,
+                until == null ? null : until.toInstant());
+    }
+}
@@ -0,0 +1,306 @@
+package com.ahdisease.calendarprinter.persistence;
+
+import com.ahdisease.calendarprinter.CalendarFileWriter;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+import com.ahdisease.calendarprinter.model.RecurrenceRule;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stores CalendarEvents and their categories in the tables of {@code schema.sql}.
+ * <p>
+ * Saves are multi-row MERGE statements of up to {@link #ROWS_PER_STATEMENT} events, upserting on UID: a stored event
+ * is only replaced by a revision with a higher SEQUENCE, so replaying an older export never overwrites newer data.
+ * Exports walk the table in (DTSTART, UID) order with keyset pagination, holding one page of events at a time.
+ */
+@Repository
+public class CalendarEventRepository {
+    //constants
+    public static final int ROWS_PER_STATEMENT = 100;
+    public static final int DEFAULT_PAGE_SIZE = 1_000;
+    private static final String EVENT_COLUMNS = "uid, sequence, summary, status, transparent, recurrence_rule, " +
+            "start_epoch_second, end_epoch_second, created_epoch_second, zone_id, language_tag, location";
+    private static final String EVENT_ROW = "(CAST(? AS UUID), CAST(? AS INTEGER), CAST(? AS TEXT), CAST(? AS VARCHAR(16)), " +
+            "CAST(? AS BOOLEAN), CAST(? AS VARCHAR(512)), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+            "CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(16)), CAST(? AS TEXT))";
+    private static final String CATEGORY_ROW = "(CAST(? AS UUID), CAST(? AS INTEGER), CAST(? AS TEXT))";
+
+    //instance variables
+    private final JdbcTemplate jdbcTemplate;
+
+    public CalendarEventRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts new events and updates stored events that have a lower SEQUENCE; older or equal revisions are ignored.
+     */
+    @Transactional
+    public void saveAll(Collection<CalendarEvent> events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Calendar events cannot be empty");
+        }
+
+        // a MERGE may not touch the same row twice, so each batch keeps only the latest revision of a UID
+        Map<UUID, CalendarEvent> batch = new LinkedHashMap<>();
+        for (CalendarEvent event : events) {
+            if (event == null) {
+                throw new IllegalArgumentException("Calendar event cannot be empty");
+            }
+            batch.merge(event.getUuid(), event, (stored, revision) -> revision.getSequence() > stored.getSequence() ? revision : stored);
+            if (batch.size() == ROWS_PER_STATEMENT) {
+                saveBatch(new ArrayList<>(batch.values()));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            saveBatch(new ArrayList<>(batch.values()));
+        }
+    }
+
+    public Optional<CalendarEvent> findByUid(UUID uid) {
+        List<EventRow> rows = jdbcTemplate.query("SELECT " + EVENT_COLUMNS + " FROM calendar_event WHERE uid = ?",
+                (resultSet, row) -> EventRow.of(resultSet), uid);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> categories = jdbcTemplate.queryForList(
+                "SELECT category FROM calendar_event_category WHERE uid = ? ORDER BY position", String.class, uid);
+        return Optional.of(rows.get(0).toCalendarEvent(categories));
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM calendar_event", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Lazily streams every stored event in (DTSTART, UID) order, fetching one page of {@code pageSize} events at a
+     * time.
+     */
+    public Stream<CalendarEvent> streamAll(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        Iterable<CalendarEvent> events = () -> new PageIterator(pageSize);
+        return StreamSupport.stream(events.spliterator(), false);
+    }
+
+    /**
+     * Writes every stored event as a VCALENDAR, without holding more than one page of events in memory.
+     */
+    public void exportTo(OutputStream out) throws IOException {
+        CalendarFileWriter.writeCalendar(() -> new PageIterator(DEFAULT_PAGE_SIZE), out);
+    }
+
+    // helper methods
+
+    private void saveBatch(List<CalendarEvent> candidates) {
+        List<CalendarEvent> batch = newerRevisions(candidates);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        String values = String.join(", ", Collections.nCopies(batch.size(), EVENT_ROW));
+        List<Object> arguments = new ArrayList<>(batch.size() * 12);
+        for (CalendarEvent event : batch) {
+            RecurrenceRule rule = event.getRecurrenceRule();
+            Locale language = event.getLanguageCategory();
+            arguments.add(event.getUuid());
+            arguments.add(event.getSequence());
+            arguments.add(event.getSummary());
+            arguments.add(event.getStatus().name());
+            arguments.add(event.isTransparent());
+            arguments.add(rule == null ? null : rule.toString());
+            arguments.add(event.getStartDate().toEpochSecond());
+            arguments.add(event.getEndDate() == null ? null : event.getEndDate().toEpochSecond());
+            arguments.add(event.getCreatedDate().toEpochSecond());
+            arguments.add(event.getStartDate().getZone().getId());
+            arguments.add(language == null || language.toLanguageTag().isBlank() ? null : language.toLanguageTag());
+            arguments.add(event.getLocation());
+        }
+        jdbcTemplate.update("MERGE INTO calendar_event AS target " +
+                "USING (VALUES " + values + ") AS source (" + EVENT_COLUMNS + ") " +
+                "ON target.uid = source.uid " +
+                "WHEN MATCHED AND target.sequence < source.sequence THEN UPDATE SET " +
+                "sequence = source.sequence, summary = source.summary, status = source.status, " +
+                "transparent = source.transparent, recurrence_rule = source.recurrence_rule, " +
+                "start_epoch_second = source.start_epoch_second, end_epoch_second = source.end_epoch_second, " +
+                "created_epoch_second = source.created_epoch_second, zone_id = source.zone_id, " +
+                "language_tag = source.language_tag, location = source.location " +
+                "WHEN NOT MATCHED THEN INSERT (" + EVENT_COLUMNS + ") VALUES (source.uid, source.sequence, " +
+                "source.summary, source.status, source.transparent, source.recurrence_rule, source.start_epoch_second, " +
+                "source.end_epoch_second, source.created_epoch_second, source.zone_id, source.language_tag, source.location)",
+                arguments.toArray());
+
+        saveCategories(batch);
+    }
+
+    /**
+     * @return the events that are new or have a higher SEQUENCE than the stored revision. The stored rows are locked
+     * until the transaction ends, so the following MERGE updates exactly these events.
+     */
+    private List<CalendarEvent> newerRevisions(List<CalendarEvent> batch) {
+        Object[] uids = batch.stream().map(CalendarEvent::getUuid).toArray();
+        Map<UUID, Integer> storedSequences = new HashMap<>();
+        jdbcTemplate.query("SELECT uid, sequence FROM calendar_event WHERE uid IN (" +
+                String.join(", ", Collections.nCopies(uids.length, "?")) + ") FOR UPDATE", (ResultSet resultSet) -> {
+            storedSequences.put(resultSet.getObject("uid", UUID.class), resultSet.getInt("sequence"));
+        }, uids);
+
+        List<CalendarEvent> newer = new ArrayList<>(batch.size());
+        for (CalendarEvent event : batch) {
+            Integer storedSequence = storedSequences.get(event.getUuid());
+            if (storedSequence == null || storedSequence < event.getSequence()) {
+                newer.add(event);
+            }
+        }
+        return newer;
+    }
+
+    /**
+     * Replaces the categories of the events the preceding MERGE inserted or updated.
+     */
+    private void saveCategories(List<CalendarEvent> batch) {
+        Object[] uids = batch.stream().map(CalendarEvent::getUuid).toArray();
+        List<Object> categories = new ArrayList<>();
+        for (CalendarEvent event : batch) {
+            String[] eventCategories = event.getCategories();
+            for (int i = 0; eventCategories != null && i < eventCategories.length; i++) {
+                categories.add(event.getUuid());
+                categories.add(i);
+                categories.add(eventCategories[i]);
+            }
+        }
+
+        jdbcTemplate.update("DELETE FROM calendar_event_category WHERE uid IN (" +
+                String.join(", ", Collections.nCopies(uids.length, "?")) + ")", uids);
+
+        if (categories.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO calendar_event_category (uid, position, category) " +
+                "SELECT source.uid, source.position, source.category FROM (VALUES " +
+                String.join(", ", Collections.nCopies(categories.size() / 3, CATEGORY_ROW)) +
+                ") AS source (uid, position, category)",
+                categories.toArray());
+    }
+
+    private static ZonedDateTime toZonedDateTime(long epochSecond, ZoneId zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+    }
+
+    /**
+     * Walks the events in (DTSTART, UID) order one page at a time. Each page is read with a query starting after the
+     * last key of the previous page, so every page costs an index seek regardless of how far the export has got.
+     */
+    private class PageIterator implements Iterator<CalendarEvent> {
+        private final int pageSize;
+        private Iterator<CalendarEvent> page = Collections.emptyIterator();
+        private long lastStart;
+        private UUID lastUid;
+        private boolean lastPage;
+
+        PageIterator(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                page = nextPage().iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public CalendarEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private List<CalendarEvent> nextPage() {
+            String after = lastUid == null ? "" : "WHERE (start_epoch_second, uid) > (?, ?) ";
+            Object[] arguments = lastUid == null ? new Object[] {pageSize} : new Object[] {lastStart, lastUid, pageSize};
+            List<EventRow> rows = jdbcTemplate.query("SELECT " + EVENT_COLUMNS + " FROM calendar_event " + after +
+                    "ORDER BY start_epoch_second, uid LIMIT ?", (resultSet, row) -> EventRow.of(resultSet), arguments);
+            lastPage = rows.size() < pageSize;
+            if (rows.isEmpty()) {
+                return List.of();
+            }
+
+            EventRow first = rows.get(0);
+            EventRow last = rows.get(rows.size() - 1);
+            // categories of exactly this page: the events between its first and last key
+            Map<UUID, List<String>> categories = new HashMap<>();
+            jdbcTemplate.query("SELECT c.uid, c.category FROM calendar_event_category c " +
+                    "JOIN calendar_event e ON e.uid = c.uid " +
+                    "WHERE (e.start_epoch_second, e.uid) >= (?, ?) AND (e.start_epoch_second, e.uid) <= (?, ?) " +
+                    "ORDER BY c.uid, c.position", (ResultSet resultSet) -> {
+                categories.computeIfAbsent(resultSet.getObject("uid", UUID.class), uid -> new ArrayList<>())
+                        .add(resultSet.getString("category"));
+            }, first.start(), first.uid(), last.start(), last.uid());
+
+            lastStart = last.start();
+            lastUid = last.uid();
+
+            List<CalendarEvent> events = new ArrayList<>(rows.size());
+            for (EventRow row : rows) {
+                events.add(row.toCalendarEvent(categories.get(row.uid())));
+            }
+            return events;
+        }
+    }
+
+    /**
+     * The columns of one calendar_event row, held until the event's categories have been read.
+     */
+    private record EventRow(UUID uid, int sequence, String summary, String status, boolean transparent,
+                            String recurrenceRule, long start, Long end, long created, String zoneId,
+                            String languageTag, String location) {
+
+        static EventRow of(ResultSet resultSet) throws SQLException {
+            long end = resultSet.getLong("end_epoch_second");
+            boolean hasEnd = !resultSet.wasNull();
+            return new EventRow(resultSet.getObject("uid", UUID.class),
+                    resultSet.getInt("sequence"),
+                    resultSet.getString("summary"),
+                    resultSet.getString("status"),
+                    resultSet.getBoolean("transparent"),
+                    resultSet.getString("recurrence_rule"),
+                    resultSet.getLong("start_epoch_second"),
+                    hasEnd ? end : null,
+                    resultSet.getLong("created_epoch_second"),
+                    resultSet.getString("zone_id"),
+                    resultSet.getString("language_tag"),
+                    resultSet.getString("location"));
+        }
+
+        CalendarEvent toCalendarEvent(List<String> categories) {
+            ZoneId zone = ZoneId.of(zoneId);
+            return new CalendarEvent(summary, uid, sequence, CalendarEvent.Status.valueOf(status), transparent,
+                    recurrenceRule == null ? null : RecurrenceRule.parse(recurrenceRule),
+                    toZonedDateTime(start, zone),
+                    end == null ? null : toZonedDateTime(end, zone),
+                    toZonedDateTime(created, zone),
+                    CalendarEventFactory.toLocale(languageTag),
+                    categories == null || categories.isEmpty() ? null : categories.toArray(new String[0]),
+                    location);
+        }
+    }
+}
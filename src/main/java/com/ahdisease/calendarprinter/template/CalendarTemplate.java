@@ -0,0 +1,360 @@
+package com.ahdisease.calendarprinter.template;
+
+import com.ahdisease.calendarprinter.format.ContentLineEncoder;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.EventView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compiled layout of a VCALENDAR: the calendar properties written in the header and the property lines of each
+ * VEVENT block. Tenants that need their own PRODID, METHOD or event properties each build one template and reuse it.
+ * <p>
+ * An event layout has one property per line, and each value is either literal text or a whole {@code {field}}, e.g.
+ * {@code SUMMARY:{summary}}; see {@link EventField} for the names. The layout is parsed once, by
+ * {@link Builder#compile()}, into segments. Each segment is a literal chunk, already folded into content lines,
+ * followed by at most one field. The field writes its value straight from the event. Rendering an event walks the
+ * segments in order, so it does no parsing, lookups or concatenation.
+ * <p>
+ * The header and footer are encoded to bytes at compile time.
+ */
+public final class CalendarTemplate {
+    //constants
+    public static final String DEFAULT_VERSION = "2.0";
+    public static final String DEFAULT_PRODUCT_ID = "-//ZContent.net//Zap Calendar 1.0//EN";
+    public static final String DEFAULT_CALENDAR_SCALE = "GREGORIAN";
+    public static final String DEFAULT_METHOD = "PUBLISH";
+    public static final String DEFAULT_EVENT_LAYOUT = "BEGIN:VEVENT\n" +
+            "SUMMARY:{summary}\n" +
+            "UID:{uid}\n" +
+            "SEQUENCE:{sequence}\n" +
+            "STATUS:{status}\n" +
+            "TRANSP:{transp}\n" +
+            "RRULE:{rrule}\n" +
+            "DTSTART:{dtstart}\n" +
+            "DTEND:{dtend}\n" +
+            "DTSTAMP:{dtstamp}\n" +
+            "CATEGORIES:{categories}\n" +
+            "LOCATION:{location}\n" +
+            "END:VEVENT";
+    private static final String CALENDAR_FOOTER = "\nEND:VCALENDAR";
+    private static final CalendarTemplate DEFAULT = builder().compile();
+
+    //instance variables
+    private final String header;
+    private final byte[] headerBytes;
+    private final byte[] footerBytes;
+    private final Segment[] eventSegments;
+    private final boolean defaultEventLayout;
+    private final long fingerprint;
+
+    private CalendarTemplate(String header, String eventLayout, Segment[] eventSegments) {
+        this.header = header;
+        this.headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        this.footerBytes = encodeContentLines(CALENDAR_FOOTER).getBytes(StandardCharsets.UTF_8);
+        this.eventSegments = eventSegments;
+        this.defaultEventLayout = eventLayout.equals(DEFAULT_EVENT_LAYOUT);
+        this.fingerprint = fingerprint(header + eventLayout);
+    }
+
+    /**
+     * @return the layout this project has always written, with the header of the icalendar.org example
+     */
+    public static CalendarTemplate defaultTemplate() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes the VEVENT block of an event, escaped and folded.
+     */
+    public void writeEvent(EventView event, Appendable out) throws IOException {
+        ContentLineEncoder line = new ContentLineEncoder(out);
+        for (Segment segment : eventSegments) {
+            if (segment.field != null && segment.field.isOptional() && !segment.field.isPresent(event)) {
+                continue;
+            }
+            line.appendEncoded(segment.literal, segment.lastLineOctets);
+            if (segment.field != null) {
+                segment.field.emit(event, line);
+            }
+        }
+    }
+
+    /**
+     * Writes the UTF-8 encoded VEVENT block of an event, reusing the bytes the event cached for this layout.
+     *
+     * @return the number of bytes written
+     */
+    public int writeEvent(CalendarEvent event, OutputStream out) throws IOException {
+        return event.writeTo(this, out);
+    }
+
+    /**
+     * @return the UTF-8 encoded VEVENT block of an event, formatted on every call; see
+     * {@link CalendarEvent#writeTo(CalendarTemplate, OutputStream)} for the cached encoding
+     */
+    public byte[] encodeEvent(EventView event) {
+        StringBuilder encoded = new StringBuilder(256);
+        try {
+            writeEvent(event, encoded);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return encoded.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void writeHeader(OutputStream out) throws IOException {
+        out.write(headerBytes);
+    }
+
+    public void writeFooter(OutputStream out) throws IOException {
+        out.write(footerBytes);
+    }
+
+    /**
+     * Streams a UTF-8 encoded VCALENDAR holding the given events.
+     */
+    public void writeCalendar(Iterable<CalendarEvent> events, OutputStream out) throws IOException {
+        out.write(headerBytes);
+        for (CalendarEvent event : events) {
+            writeEvent(event, out);
+        }
+        out.write(footerBytes);
+    }
+
+    /**
+     * Streams the VCALENDAR text holding the given events; the characters are those {@link #writeCalendar(Iterable,
+     * OutputStream)} encodes.
+     */
+    public void writeCalendar(Iterable<CalendarEvent> events, Appendable out) throws IOException {
+        out.append(header);
+        for (CalendarEvent event : events) {
+            writeEvent(event, out);
+        }
+        new ContentLineEncoder(out).append(CALENDAR_FOOTER);
+    }
+
+    /**
+     * @return the number of header bytes written before the first event
+     */
+    public int getHeaderLength() {
+        return headerBytes.length;
+    }
+
+    public int getFooterLength() {
+        return footerBytes.length;
+    }
+
+    /**
+     * @return true if events are laid out as {@link #DEFAULT_EVENT_LAYOUT}, so their cached encoding can be used
+     */
+    public boolean hasDefaultEventLayout() {
+        return defaultEventLayout;
+    }
+
+    /**
+     * @return a 64-bit hash of the header and event layout; templates that write different bytes differ in it
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    // helper methods
+
+    private static long fingerprint(String text) {
+        // 64-bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String encodeContentLines(String lines) {
+        StringBuilder encoded = new StringBuilder();
+        try {
+            new ContentLineEncoder(encoded).append(lines);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * A literal chunk, folded at compile time, and the field written after it, or null for the closing chunk.
+     * {@code lastLineOctets} is the length of the chunk's last line, where the field continues.
+     */
+    private record Segment(String literal, int lastLineOctets, EventField field) {
+    }
+
+    /**
+     * Collects the calendar properties and the event layout. VERSION and PRODID are required by RFC 5545; CALSCALE
+     * and METHOD are left out when set to null. Further calendar properties, e.g. {@code X-WR-CALNAME}, follow them
+     * in the order they were added.
+     */
+    public static final class Builder {
+        //instance variables
+        private final Map<String, String> properties = new LinkedHashMap<>();
+        private String eventLayout = DEFAULT_EVENT_LAYOUT;
+
+        private Builder() {
+            properties.put("VERSION", DEFAULT_VERSION);
+            properties.put("PRODID", DEFAULT_PRODUCT_ID);
+            properties.put("CALSCALE", DEFAULT_CALENDAR_SCALE);
+            properties.put("METHOD", DEFAULT_METHOD);
+        }
+
+        public Builder version(String version) throws IllegalArgumentException {
+            if (version == null || version.isBlank()) {
+                throw new IllegalArgumentException("VERSION is required");
+            }
+            return property("VERSION", version);
+        }
+
+        public Builder productId(String productId) throws IllegalArgumentException {
+            if (productId == null || productId.isBlank()) {
+                throw new IllegalArgumentException("PRODID is required");
+            }
+            return property("PRODID", productId);
+        }
+
+        public Builder calendarScale(String calendarScale) throws IllegalArgumentException {
+            return property("CALSCALE", calendarScale);
+        }
+
+        public Builder method(String method) throws IllegalArgumentException {
+            return property("METHOD", method);
+        }
+
+        /**
+         * Sets a calendar property; a null value removes it. The value is written as given, without escaping.
+         */
+        public Builder property(String name, String value) throws IllegalArgumentException {
+            validatePropertyName(name);
+            if (value == null) {
+                if (name.equals("VERSION") || name.equals("PRODID")) {
+                    throw new IllegalArgumentException(name + " is required");
+                }
+                properties.remove(name);
+                return this;
+            }
+            if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Property value cannot contain a line break: " + name);
+            }
+            properties.put(name, value);
+            return this;
+        }
+
+        public Builder eventLayout(String eventLayout) throws IllegalArgumentException {
+            if (eventLayout == null || eventLayout.isBlank()) {
+                throw new IllegalArgumentException("Event layout cannot be empty");
+            }
+            this.eventLayout = eventLayout;
+            return this;
+        }
+
+        /**
+         * Parses the event layout and encodes the header.
+         *
+         * @throws IllegalArgumentException if a layout line is not a property, a field name is unknown or a field is
+         * not a whole property value
+         */
+        public CalendarTemplate compile() throws IllegalArgumentException {
+            StringBuilder header = new StringBuilder("BEGIN:VCALENDAR\n");
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                header.append(property.getKey()).append(':').append(property.getValue()).append('\n');
+            }
+            return new CalendarTemplate(encodeContentLines(header.toString()), eventLayout, compileEventLayout(eventLayout));
+        }
+
+        // helper methods
+
+        private static Segment[] compileEventLayout(String layout) {
+            String[] lines = layout.split("\r?\n");
+            if (!lines[0].equals("BEGIN:VEVENT") || !lines[lines.length - 1].equals("END:VEVENT")) {
+                throw new IllegalArgumentException("Event layout must start with BEGIN:VEVENT and end with END:VEVENT");
+            }
+
+            List<Segment> segments = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            for (int i = 0; i < lines.length; i++) {
+                String line = lines[i];
+                int colon = line.indexOf(':');
+                if (colon < 1) {
+                    throw new IllegalArgumentException("Layout line is not a property: " + line);
+                }
+                validatePropertyName(line.substring(0, colon));
+                String value = line.substring(colon + 1);
+                String lineStart = i == 0 ? "" : "\n";
+
+                if (value.length() > 2 && value.charAt(0) == '{' && value.charAt(value.length() - 1) == '}') {
+                    EventField field = fieldNamed(value.substring(1, value.length() - 1));
+                    if (field.isOptional()) {
+                        // the whole property line, name included, is skipped when the event has no value
+                        addLiteral(segments, literal);
+                        literal.setLength(0);
+                    }
+                    literal.append(lineStart).append(line, 0, colon + 1);
+                    segments.add(segment(literal, field));
+                    literal.setLength(0);
+                } else if (value.indexOf('{') >= 0 || value.indexOf('}') >= 0) {
+                    throw new IllegalArgumentException("A field must be the whole property value: " + line);
+                } else {
+                    literal.append(lineStart).append(line);
+                }
+            }
+            addLiteral(segments, literal);
+            return segments.toArray(new Segment[0]);
+        }
+
+        private static void addLiteral(List<Segment> segments, StringBuilder literal) {
+            if (literal.length() > 0) {
+                segments.add(segment(literal, null));
+            }
+        }
+
+        private static Segment segment(CharSequence literal, EventField field) {
+            StringBuilder encoded = new StringBuilder();
+            ContentLineEncoder encoder = new ContentLineEncoder(encoded);
+            try {
+                encoder.append(literal);
+            } catch (IOException e) {
+                // StringBuilder does not throw IOException
+                throw new UncheckedIOException(e);
+            }
+            return new Segment(encoded.toString(), encoder.getLineOctets(), field);
+        }
+
+        private static EventField fieldNamed(String name) {
+            for (EventField field : EventField.values()) {
+                if (field.name().toLowerCase(Locale.ROOT).equals(name)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown event field: {" + name + "}");
+        }
+
+        private static void validatePropertyName(String name) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Property name cannot be empty");
+            }
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-')) {
+                    throw new IllegalArgumentException("Invalid property name: " + name);
+                }
+            }
+        }
+    }
+}
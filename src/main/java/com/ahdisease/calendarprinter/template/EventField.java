@@ -0,0 +1,114 @@
+package com.ahdisease.calendarprinter.template;
+
+import com.ahdisease.calendarprinter.format.ContentLineEncoder;
+import com.ahdisease.calendarprinter.format.ICalendarDateEncoder;
+import com.ahdisease.calendarprinter.model.EventView;
+
+import java.io.IOException;
+
+/**
+ * Event values a layout can place, written as {@code {name}} in lower case. Each constant writes its value straight
+ * from the {@link EventView}. Optional fields omit their whole property line when the event has no value.
+ */
+enum EventField {
+    SUMMARY {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            out.appendText(event.getSummary());
+        }
+    },
+    UID {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            event.writeUid(out);
+        }
+    },
+    SEQUENCE {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            out.append(Integer.toString(event.getSequence()));
+        }
+    },
+    STATUS {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            out.append(event.getStatus().name());
+        }
+    },
+    TRANSP {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            out.append(event.isTransparent() ? "TRANSPARENT" : "OPAQUE");
+        }
+    },
+    RRULE(true) {
+        @Override
+        boolean isPresent(EventView event) {
+            return event.hasRecurrenceRule();
+        }
+
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            event.writeRecurrenceRule(out);
+        }
+    },
+    DTSTART {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            ICalendarDateEncoder.appendDateTime(event.getStartEpochSecond(), out);
+        }
+    },
+    DTEND {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            ICalendarDateEncoder.appendDateTime(event.getEndEpochSecond(), out);
+        }
+    },
+    DTSTAMP {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            ICalendarDateEncoder.appendDateTime(event.getCreatedEpochSecond(), out);
+        }
+    },
+    CATEGORIES(true) {
+        @Override
+        boolean isPresent(EventView event) {
+            return event.hasCategories();
+        }
+
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            event.writeCategories(out);
+        }
+    },
+    LOCATION {
+        @Override
+        void emit(EventView event, ContentLineEncoder out) throws IOException {
+            out.appendText(event.getLocation());
+        }
+    };
+
+    //instance variables
+    private final boolean optional;
+
+    EventField() {
+        this(false);
+    }
+
+    EventField(boolean optional) {
+        this.optional = optional;
+    }
+
+    boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * @return false if the property line should be left out for this event; always true unless optional
+     */
+    boolean isPresent(EventView event) {
+        return true;
+    }
+
+    abstract void emit(EventView event, ContentLineEncoder out) throws IOException;
+}
@@ -0,0 +1,58 @@
+package com.ahdisease.calendarprinter.uid;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * UUID version 5 (RFC 9562): the SHA-1 hash of a namespace UUID and a name. The name is the event's DTSTART in epoch
+ * seconds followed by its summary, so the same event exported again keeps its UID, while events with the same summary
+ * on different dates (e.g. a yearly holiday) do not collide.
+ */
+public final class NameBasedUidGenerator implements UidGenerator {
+    //constants
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    });
+
+    //instance variables
+    private final byte[] namespace;
+
+    public NameBasedUidGenerator(UUID namespace) {
+        if (namespace == null) {
+            throw new IllegalArgumentException("Namespace cannot be null.");
+        }
+        this.namespace = ByteBuffer.allocate(16)
+                .putLong(namespace.getMostSignificantBits())
+                .putLong(namespace.getLeastSignificantBits())
+                .array();
+    }
+
+    // overrides
+    @Override
+    public UUID generate(String summary, ZonedDateTime startDate) {
+        if (startDate == null) {
+            throw new IllegalArgumentException("Start date cannot be null.");
+        }
+        MessageDigest sha1 = SHA1.get();
+        sha1.update(namespace);
+        long start = startDate.toEpochSecond();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            sha1.update((byte) (start >>> shift));
+        }
+        sha1.update(String.valueOf(summary).getBytes(StandardCharsets.UTF_8));
+        ByteBuffer hash = ByteBuffer.wrap(sha1.digest());
+
+        long highBits = (hash.getLong() & ~0xF000L) | 0x5000L;
+        long lowBits = (hash.getLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(highBits, lowBits);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ahdisease.calendarprinter.uid;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+final class RandomUidGenerator implements UidGenerator {
+    //constants
+    static final RandomUidGenerator INSTANCE = new RandomUidGenerator();
+
+    private RandomUidGenerator() {
+    }
+
+    // overrides
+    @Override
+    public UUID generate(String summary, ZonedDateTime startDate) {
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,25 @@
+package com.ahdisease.calendarprinter.uid;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class ThreadLocalRandomUidGenerator implements UidGenerator {
+    //constants
+    static final ThreadLocalRandomUidGenerator INSTANCE = new ThreadLocalRandomUidGenerator();
+
+    private ThreadLocalRandomUidGenerator() {
+    }
+
+    // overrides
+    @Override
+    public UUID generate(String summary, ZonedDateTime startDate) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long highBits = random.nextLong();
+        long lowBits = random.nextLong();
+        // version 4 in bits 48-51, IETF variant in the top two bits of the low half
+        highBits = (highBits & ~0xF000L) | 0x4000L;
+        lowBits = (lowBits & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(highBits, lowBits);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ahdisease.calendarprinter.uid;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * UUID version 7 (RFC 9562): a 48 bit Unix millisecond timestamp followed by 74 random bits.
+ * <p>
+ * UIDs sort by creation time across milliseconds. Within one millisecond they are random rather than sequential,
+ * which avoids a counter shared between threads; index inserts still land in the same few pages.
+ */
+public final class TimeOrderedUidGenerator implements UidGenerator {
+    //instance variables
+    private final Clock clock;
+
+    public TimeOrderedUidGenerator() {
+        this(Clock.systemUTC());
+    }
+
+    public TimeOrderedUidGenerator(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null.");
+        }
+        this.clock = clock;
+    }
+
+    // overrides
+    @Override
+    public UUID generate(String summary, ZonedDateTime startDate) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long timestamp = clock.millis() & 0xFFFFFFFFFFFFL;
+        long highBits = (timestamp << 16) | 0x7000L | random.nextInt(1 << 12);
+        long lowBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(highBits, lowBits);
+    }
+}
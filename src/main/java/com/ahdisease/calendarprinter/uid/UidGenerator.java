@@ -0,0 +1,46 @@
+package com.ahdisease.calendarprinter.uid;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Strategy for the UID of new calendar events.
+ * <p>
+ * The summary and start date identify the event being created. Name-based generators derive the UID from them, so
+ * exporting the same event again gives the same UID; the other strategies ignore them. Implementations must be
+ * thread-safe.
+ */
+@FunctionalInterface
+public interface UidGenerator {
+
+    UUID generate(String summary, ZonedDateTime startDate);
+
+    /**
+     * @return random (version 4) UIDs from {@link UUID#randomUUID()}, which draws on a shared SecureRandom
+     */
+    static UidGenerator random() {
+        return RandomUidGenerator.INSTANCE;
+    }
+
+    /**
+     * @return random (version 4) UIDs from {@link java.util.concurrent.ThreadLocalRandom}; much faster and free of
+     * contention between threads, but not cryptographically strong, so UIDs can be guessed
+     */
+    static UidGenerator threadLocalRandom() {
+        return ThreadLocalRandomUidGenerator.INSTANCE;
+    }
+
+    /**
+     * @return time-ordered (version 7) UIDs, which keep database indexes on the UID append-mostly
+     */
+    static UidGenerator timeOrdered() {
+        return new TimeOrderedUidGenerator();
+    }
+
+    /**
+     * @return name-based (version 5) UIDs derived from the namespace, summary and start date
+     */
+    static UidGenerator nameBased(UUID namespace) {
+        return new NameBasedUidGenerator(namespace);
+    }
+}
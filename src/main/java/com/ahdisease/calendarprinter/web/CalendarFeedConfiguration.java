@@ -0,0 +1,18 @@
+package com.ahdisease.calendarprinter.web;
+
+import com.ahdisease.calendarprinter.ConcurrentCalendarEventStore;
+import com.ahdisease.calendarprinter.EventStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CalendarFeedConfiguration {
+
+    /**
+     * The events served by {@link CalendarFeedController}, safe to add to while feeds are being written.
+     */
+    @Bean
+    public EventStore calendarEventStore() {
+        return new ConcurrentCalendarEventStore();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ahdisease.calendarprinter.web;
+
+import com.ahdisease.calendarprinter.EventStore;
+import com.ahdisease.calendarprinter.CalendarFileWriter;
+import com.ahdisease.calendarprinter.index.EventIntervalIndex;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calendar subscription feed. Serves the events of the {@link EventStore} as a VCALENDAR, optionally limited
+ * to the events overlapping a {@code from}/{@code to} window.
+ * <p>
+ * The response is streamed one cached event encoding at a time, so the calendar is never built in memory, and is
+ * gzipped by the server (see {@code server.compression} in application.properties). The ETag is a hash of the content
+ * fingerprint of every event in the feed, so it also changes when a property is modified without a SEQUENCE bump.
+ * <p>
+ * The store snapshot, the interval index and each feed's ETag are cached under the store's
+ * {@link EventStore#version() version}, which changes whenever an event is added or modified. A poll of an unchanged
+ * calendar therefore costs one version read and a map lookup, however many events it holds; the snapshot, index and
+ * ETags are rebuilt once after each change. Last-Modified is the time the current version was first served, at least
+ * a second after the previous one, so clients that only send If-Modified-Since also see every change.
+ */
+@RestController
+public class CalendarFeedController {
+    //constants
+    public static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+    // bounds of an open-ended window; DTSTART and DTEND are written with four digit years
+    private static final ZonedDateTime EARLIEST = ZonedDateTime.of(0, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final ZonedDateTime LATEST = ZonedDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
+    // windows whose feed is cached per version; feeds for further windows are built on each request
+    private static final int MAX_CACHED_WINDOWS = 64;
+
+    //instance variables
+    private final EventStore events;
+    // the calendar at the store's current version, replaced once the version changes
+    private volatile FeedState state;
+
+    public CalendarFeedController(EventStore events) {
+        this.events = events;
+    }
+
+    @GetMapping("/calendar.ics")
+    public ResponseEntity<StreamingResponseBody> getCalendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime to,
+            WebRequest request) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+
+        FeedState current = state();
+        Feed feed = current.feed(new Window(from, to));
+
+        // sets the ETag and Last-Modified headers, and answers 304 if the client already has this feed
+        if (request.checkNotModified(feed.entityTag(), current.lastModified)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .cacheControl(CacheControl.noCache())
+                .body(out -> CalendarFileWriter.writeCalendar(feed.events(), out));
+    }
+
+    // helper methods
+
+    private FeedState state() {
+        FeedState current = state;
+        if (current != null && current.version == events.version()) {
+            return current;
+        }
+        synchronized (this) {
+            current = state;
+            // the version is read before the snapshot, so the snapshot is at least as new as the version
+            long version = events.version();
+            if (current == null || current.version != version) {
+                // HTTP dates have a resolution of one second, so each version must move Last-Modified by at least that
+                long now = System.currentTimeMillis() / 1000 * 1000;
+                long lastModified = current == null ? now : Math.max(now, current.lastModified + 1000);
+                current = new FeedState(version, events.toList(), lastModified);
+                state = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * @return a hash of the window and of the content fingerprint of every event in the feed, which changes whenever an
+     * event is added, removed from the window or modified
+     */
+    private static String entityTag(Iterable<CalendarEvent> feed, Window window) {
+        long hash = 1125899906842597L;
+        hash = 31 * hash + (window.from() == null ? 0 : window.from().toEpochSecond());
+        hash = 31 * hash + (window.to() == null ? 0 : window.to().toEpochSecond());
+        for (CalendarEvent event : feed) {
+            hash = 31 * hash + event.getContentFingerprint();
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private record Window(ZonedDateTime from, ZonedDateTime to) {
+    }
+
+    private record Feed(Iterable<CalendarEvent> events, String entityTag) {
+    }
+
+    /**
+     * One snapshot of the store with the feeds derived from it.
+     */
+    private static final class FeedState {
+        private final long version;
+        private final List<CalendarEvent> snapshot;
+        private final long lastModified;
+        private final Map<Window, Feed> feeds = new ConcurrentHashMap<>();
+        private EventIntervalIndex index;
+
+        FeedState(long version, List<CalendarEvent> snapshot, long lastModified) {
+            this.version = version;
+            this.snapshot = snapshot;
+            this.lastModified = lastModified;
+        }
+
+        Feed feed(Window window) {
+            Feed feed = feeds.get(window);
+            if (feed == null) {
+                Iterable<CalendarEvent> feedEvents = snapshot;
+                if (window.from() != null || window.to() != null) {
+                    feedEvents = index().overlapping(window.from() == null ? EARLIEST : window.from(),
+                            window.to() == null ? LATEST : window.to());
+                }
+                feed = new Feed(feedEvents, entityTag(feedEvents, window));
+                if (feeds.size() < MAX_CACHED_WINDOWS) {
+                    feeds.putIfAbsent(window, feed);
+                }
+            }
+            return feed;
+        }
+
+        private synchronized EventIntervalIndex index() {
+            if (index == null) {
+                index = new EventIntervalIndex(snapshot);
+            }
+            return index;
+        }
+    }
+}
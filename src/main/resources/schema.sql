@@ -0,0 +1,26 @@
+-- Calendar events, keyed on UID. Timestamps are epoch seconds, as written to DTSTART/DTEND/DTSTAMP, with the time
+-- zone of DTSTART kept separately so events are restored in their original zone.
+CREATE TABLE IF NOT EXISTS calendar_event (
+    uid UUID PRIMARY KEY,
+    sequence INTEGER NOT NULL,
+    summary TEXT,
+    status VARCHAR(16) NOT NULL,
+    transparent BOOLEAN NOT NULL,
+    recurrence_rule VARCHAR(512),
+    start_epoch_second BIGINT NOT NULL,
+    end_epoch_second BIGINT,
+    created_epoch_second BIGINT NOT NULL,
+    zone_id VARCHAR(64) NOT NULL,
+    language_tag VARCHAR(16),
+    location TEXT
+);
+
+-- keyset pagination for exports walks events in (DTSTART, UID) order
+CREATE INDEX IF NOT EXISTS calendar_event_start_uid ON calendar_event (start_epoch_second, uid);
+
+CREATE TABLE IF NOT EXISTS calendar_event_category (
+    uid UUID NOT NULL REFERENCES calendar_event (uid) ON DELETE CASCADE,
+    position INTEGER NOT NULL,
+    category TEXT,
+    PRIMARY KEY (uid, position)
+);
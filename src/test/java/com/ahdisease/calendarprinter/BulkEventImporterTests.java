@@ -0,0 +1,231 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkEventImporterTests {
+
+    @Test
+    public void importTo_keeps_row_order_across_batches() throws IOException {
+        //ARRANGE
+        StringBuilder csv = new StringBuilder("summary,start,end,location\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append("Event ").append(i).append(",2023-10-22T15:00-05:00[America/Chicago],2023-10-22T16:00-05:00[America/Chicago],Room ")
+                    .append(i % 7).append('\n');
+        }
+
+        //ACT
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkEventImporter.ImportReport report;
+        try (BulkEventImporter importer = new BulkEventImporter(4, 16, 2)) {
+            report = importer.importTo(new BufferedReader(new StringReader(csv.toString())), BulkEventImporter.Format.CSV, out);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(500, report.rowsRead());
+        Assertions.assertEquals(500, report.eventsImported());
+        Assertions.assertEquals(0, report.rowsRejected());
+        List<CalendarEvent> events = read(out);
+        Assertions.assertEquals(500, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Assertions.assertEquals("Event " + i, events.get(i).getSummary());
+            Assertions.assertEquals("Room " + (i % 7), events.get(i).getLocation());
+        }
+    }
+
+    @Test
+    public void importTo_reports_malformed_csv_rows_with_line_numbers() throws IOException {
+        //ARRANGE
+        String csv = "summary,start,end,status,transparent,language,categories,location\n" +
+                "Planning,2023-10-22T15:00-05:00,2023-10-22T16:00-05:00,TENTATIVE,false,en-US,WORK;PLANNING,Room 1\n" +
+                "Broken date,yesterday,2023-10-22T16:00-05:00,,,,,\n" +
+                "\"Quoted, with\nline break\",2023-10-23T15:00-05:00,2023-10-23T16:00-05:00,,true,,,\"Hall \"\"B\"\"\"\n" +
+                "Bad language,2023-10-24T15:00-05:00,2023-10-24T16:00-05:00,,,english,,\n" +
+                "Backwards,2023-10-25T15:00-05:00,2023-10-25T14:00-05:00,,,,,\n" +
+                "Holiday,2023-12-25T00:00Z,2023-12-26T00:00Z,CONFIRMED,true,,HOLIDAY,\n";
+
+        //ACT
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkEventImporter.ImportReport report;
+        try (BulkEventImporter importer = new BulkEventImporter(2, 2, 1)) {
+            report = importer.importTo(new BufferedReader(new StringReader(csv)), BulkEventImporter.Format.CSV, out);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(6, report.rowsRead());
+        Assertions.assertEquals(3, report.eventsImported());
+        Assertions.assertEquals(3, report.rowsRejected());
+        Assertions.assertEquals(List.of(3L, 6L, 7L), report.errors().stream().map(BulkEventImporter.RowError::lineNumber).toList());
+        Assertions.assertTrue(report.errors().get(1).message().contains("english"));
+
+        List<CalendarEvent> events = read(out);
+        Assertions.assertEquals(3, events.size());
+        Assertions.assertEquals(CalendarEvent.Status.TENTATIVE, events.get(0).getStatus());
+        Assertions.assertArrayEquals(new String[] {"WORK", "PLANNING"}, events.get(0).getCategories());
+        Assertions.assertEquals("Quoted, with\nline break", events.get(1).getSummary());
+        Assertions.assertEquals("Hall \"B\"", events.get(1).getLocation());
+        Assertions.assertTrue(events.get(1).isTransparent());
+        Assertions.assertEquals("Holiday", events.get(2).getSummary());
+        Assertions.assertEquals(events.get(0).getCreatedDate(), events.get(2).getCreatedDate(), "One import should share a DTSTAMP");
+    }
+
+    @Test
+    public void importTo_reports_unterminated_quote_at_its_line_and_keeps_later_rows() throws IOException {
+        //ARRANGE
+        StringBuilder csv = new StringBuilder("summary,start,end,location\n")
+                .append("Stray 5\" quote,2023-10-22T15:00Z,2023-10-22T16:00Z,Room 1\n")
+                .append("\"Unclosed,2023-10-22T15:00Z,2023-10-22T16:00Z,Room 2\n");
+        int rowsAfter = BulkEventImporter.MAX_RECORD_LINES + 10;
+        for (int i = 0; i < rowsAfter; i++) {
+            csv.append("Event ").append(i).append(",2023-10-23T15:00Z,2023-10-23T16:00Z,Room 3\n");
+        }
+
+        //ACT
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkEventImporter.ImportReport report;
+        try (BulkEventImporter importer = new BulkEventImporter(2, 64, 2)) {
+            report = importer.importTo(new BufferedReader(new StringReader(csv.toString())), BulkEventImporter.Format.CSV, out);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(rowsAfter + 2, report.rowsRead());
+        Assertions.assertEquals(rowsAfter + 1, report.eventsImported());
+        Assertions.assertEquals(List.of(3L), report.errors().stream().map(BulkEventImporter.RowError::lineNumber).toList());
+        List<CalendarEvent> events = read(out);
+        Assertions.assertEquals("Stray 5\" quote", events.get(0).getSummary());
+        Assertions.assertEquals("Event 0", events.get(1).getSummary());
+    }
+
+    @Test
+    public void importTo_imports_missing_summary_and_location_as_empty_text() throws IOException {
+        //ARRANGE
+        String csv = "start,end\n2023-10-22T15:00Z,2023-10-22T16:00Z\n";
+
+        //ACT
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BulkEventImporter importer = new BulkEventImporter(1, 1, 1)) {
+            importer.importTo(new BufferedReader(new StringReader(csv)), BulkEventImporter.Format.CSV, out);
+        }
+
+        //ASSERT
+        String calendar = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertFalse(calendar.contains("null"));
+        Assertions.assertTrue(calendar.contains("SUMMARY:\n"));
+        Assertions.assertTrue(calendar.contains("LOCATION:\n"));
+    }
+
+    @Test
+    public void importFile_reads_json_lines(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        Path input = directory.resolve("events.jsonl");
+        Files.writeString(input, "{\"summary\":\"Planning\",\"start\":\"2023-10-22T15:00-05:00\",\"end\":\"2023-10-22T16:00-05:00\",\"categories\":[\"WORK\",\"Q4, budget\"],\"language\":\"en\",\"priority\":3}\n" +
+                "{\"summary\":\"Broken\",\"start\":\n" +
+                "\n" +
+                "{\"summary\":\"Review\",\"start\":\"2023-10-23T15:00-05:00\",\"end\":\"2023-10-23T16:00-05:00\",\"location\":null}\n");
+        Path target = directory.resolve("out").resolve("imported.ics");
+
+        //ACT
+        BulkEventImporter.ImportReport report;
+        try (BulkEventImporter importer = new BulkEventImporter()) {
+            report = importer.importFile(input, BulkEventImporter.Format.JSON_LINES, target);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(2, report.eventsImported());
+        Assertions.assertEquals(List.of(2L), report.errors().stream().map(BulkEventImporter.RowError::lineNumber).toList());
+        List<CalendarEvent> events;
+        try (CalendarFileReader reader = CalendarFileReader.open(target)) {
+            events = reader.stream().toList();
+        }
+        Assertions.assertEquals("Planning", events.get(0).getSummary());
+        Assertions.assertArrayEquals(new String[] {"WORK", "Q4, budget"}, events.get(0).getCategories());
+        Assertions.assertEquals("en", events.get(0).getLanguageCategory().toLanguageTag());
+        Assertions.assertEquals("Review", events.get(1).getSummary());
+    }
+
+    @Test
+    public void importTo_stops_writer_before_rethrowing_read_failure() throws IOException {
+        //ARRANGE
+        StringBuilder csv = new StringBuilder("summary,start,end\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append("Event ").append(i).append(",2023-10-22T15:00-05:00,2023-10-22T16:00-05:00\n");
+        }
+        BufferedReader failingReader = new BufferedReader(new StringReader(csv.toString())) {
+            private int linesRead;
+
+            @Override
+            public String readLine() throws IOException {
+                if (++linesRead > 150) {
+                    throw new IOException("Disk read failed");
+                }
+                return super.readLine();
+            }
+        };
+        CloseTrackingOutputStream out = new CloseTrackingOutputStream();
+
+        //ACT
+        try (BulkEventImporter importer = new BulkEventImporter(4, 2, 4)) {
+            IOException thrown = Assertions.assertThrows(IOException.class,
+                    () -> importer.importTo(failingReader, BulkEventImporter.Format.CSV, out));
+            out.close();
+            // the writer thread runs one import at a time, so this waits for anything left of the failed one
+            importer.importTo(new BufferedReader(new StringReader("summary,start,end\n")), BulkEventImporter.Format.CSV,
+                    new ByteArrayOutputStream());
+
+            //ASSERT
+            Assertions.assertEquals("Disk read failed", thrown.getMessage());
+        }
+        Assertions.assertFalse(out.writtenAfterClose, "Nothing should be written once importTo has thrown");
+        Assertions.assertFalse(out.toString().contains("END:VCALENDAR"), "An aborted import should not be completed");
+    }
+
+    // helper methods
+
+    private static List<CalendarEvent> read(ByteArrayOutputStream calendar) throws IOException {
+        Path file = Files.createTempFile("import", ".ics");
+        try {
+            Files.write(file, calendar.toByteArray());
+            List<CalendarEvent> events = new ArrayList<>();
+            try (CalendarFileReader reader = CalendarFileReader.open(file)) {
+                reader.forEachRemaining(events::add);
+            }
+            return events;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static class CloseTrackingOutputStream extends ByteArrayOutputStream {
+        private volatile boolean closed;
+        private volatile boolean writtenAfterClose;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writtenAfterClose |= closed;
+            super.write(b, off, len);
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            writtenAfterClose |= closed;
+            super.write(b);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
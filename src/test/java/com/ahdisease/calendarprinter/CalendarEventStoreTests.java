@@ -0,0 +1,89 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CalendarEventStoreTests {
+    private final ZonedDateTime START_DATE = ZonedDateTime.of(2023, 3, 21, 0, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+    private CalendarEventStore store;
+    private CalendarEvent eventOne;
+    private CalendarEvent eventTwo;
+    private CalendarEvent eventThree;
+
+    @BeforeEach
+    public void setup() {
+        store = new CalendarEventStore();
+        eventOne = new CalendarEvent("One", START_DATE, START_DATE.plusDays(1), false, false, null, null, null);
+        eventTwo = new CalendarEvent("Two", START_DATE.plusDays(1), START_DATE.plusDays(2), false, false, null, null, null);
+        eventThree = new CalendarEvent("Three", START_DATE.plusDays(2), START_DATE.plusDays(3), false, false, null, null, null);
+    }
+
+    @Test
+    public void addAll_collection_keeps_insertion_order() {
+        //ARRANGE
+        store.add(eventTwo);
+
+        //ACT
+        store.addAll(List.of(eventThree, eventOne));
+
+        //ASSERT
+        List<CalendarEvent> storedEvents = new ArrayList<>();
+        store.forEach(storedEvents::add);
+        Assertions.assertEquals(List.of(eventTwo, eventThree, eventOne), storedEvents);
+    }
+
+    @Test
+    public void addAll_stream_adds_every_event() {
+        //ACT
+        store.addAll(Stream.of(eventOne, eventTwo, eventThree));
+
+        //ASSERT
+        Assertions.assertEquals(3, store.size());
+        Assertions.assertSame(eventTwo, store.get(eventTwo.getUuid()));
+    }
+
+    @Test
+    public void addAll_rejects_whole_batch_when_event_already_stored() {
+        //ARRANGE
+        store.add(eventOne);
+
+        //ACT & ASSERT
+        try {
+            store.addAll(List.of(eventTwo, eventOne));
+            Assertions.fail("Batch containing a stored event should be rejected");
+        } catch (IllegalArgumentException error) {
+            Assertions.assertEquals("Calendar event already added", error.getMessage());
+        }
+        Assertions.assertEquals(1, store.size(), "Rejected batch should not change the store");
+        Assertions.assertFalse(store.contains(eventTwo.getUuid()));
+    }
+
+    @Test
+    public void addAll_rejects_duplicates_within_batch() {
+        //ACT & ASSERT
+        try {
+            store.addAll(List.of(eventOne, eventTwo, eventOne));
+            Assertions.fail("Batch containing the same event twice should be rejected");
+        } catch (IllegalArgumentException error) {
+            Assertions.assertEquals("Calendar event already added", error.getMessage());
+        }
+        Assertions.assertEquals(0, store.size());
+    }
+
+    @Test
+    public void addAll_rejects_null_events() {
+        //ACT & ASSERT
+        try {
+            store.addAll(Stream.of(eventOne, null));
+            Assertions.fail("Null should not be accepted");
+        } catch (IllegalArgumentException error) {
+            Assertions.assertEquals("Calendar event cannot be empty", error.getMessage());
+        }
+    }
+}
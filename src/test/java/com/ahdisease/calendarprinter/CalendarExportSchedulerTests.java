@@ -0,0 +1,80 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+public class CalendarExportSchedulerTests {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("America/Chicago"));
+
+    @Test
+    public void runAll_writes_every_calendar(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        List<CalendarExportScheduler.ExportJob> jobs = new ArrayList<>();
+        for (int user = 0; user < 200; user++) {
+            List<CalendarEvent> events = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                events.add(new CalendarEvent("User " + user + " event " + i, OCTOBER_22_3PM.plusDays(i), OCTOBER_22_3PM.plusDays(i).plusHours(1), false, false, null, null, null));
+            }
+            jobs.add(new CalendarExportScheduler.ExportJob("user " + user, directory.resolve("users").resolve(user + ".ics"), events));
+        }
+
+        //ACT
+        List<CalendarExportScheduler.ExportResult> results;
+        try (CalendarExportScheduler scheduler = new CalendarExportScheduler(4, 8, 2)) {
+            results = scheduler.runAll(jobs);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(jobs.size(), results.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            CalendarExportScheduler.ExportResult result = results.get(i);
+            Assertions.assertSame(jobs.get(i), result.job(), "Results should be in job order");
+            Assertions.assertTrue(result.isSuccess());
+
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            CalendarFileWriter.writeCalendar(jobs.get(i).events(), expected);
+            Assertions.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(jobs.get(i).target()));
+            Assertions.assertEquals(expected.size(), result.bytesWritten());
+            Assertions.assertFalse(result.latency().isNegative());
+        }
+    }
+
+    @Test
+    public void runAll_reports_failures_without_aborting_other_jobs(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        List<CalendarEvent> events = List.of(new CalendarEvent("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), false, false, null, null, null));
+        Path blockingFile = directory.resolve("not_a_directory");
+        Files.writeString(blockingFile, "a file where a directory is expected");
+        List<CalendarExportScheduler.ExportJob> jobs = List.of(
+                new CalendarExportScheduler.ExportJob("valid", directory.resolve("first.ics"), events),
+                new CalendarExportScheduler.ExportJob("invalid", blockingFile.resolve("second.ics"), events),
+                new CalendarExportScheduler.ExportJob("valid", directory.resolve("third.ics"), events));
+        Semaphore openFiles = new Semaphore(1);
+
+        //ACT
+        List<CalendarExportScheduler.ExportResult> results;
+        try (CalendarExportScheduler scheduler = new CalendarExportScheduler(2, 2, openFiles)) {
+            results = scheduler.runAll(jobs);
+        }
+
+        //ASSERT
+        Assertions.assertTrue(results.get(0).isSuccess());
+        Assertions.assertFalse(results.get(1).isSuccess());
+        Assertions.assertInstanceOf(IOException.class, results.get(1).failure());
+        Assertions.assertTrue(results.get(2).isSuccess());
+        Assertions.assertTrue(Files.exists(directory.resolve("third.ics")));
+        Assertions.assertEquals(1, openFiles.availablePermits(), "Every open file permit should be released");
+    }
+}
@@ -0,0 +1,223 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.RecurrenceRule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class CalendarFileReaderTests {
+    private final ZonedDateTime FIRST_DAY_OF_SPRING_DATE = ZonedDateTime.of(2023, 3, 21, 0, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+    private final ZonedDateTime FIRST_WEEKLY_MEETING_TIME = ZonedDateTime.of(2023, 10, 23, 9, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    public void open_round_trips_events_written_by_CalendarFileWriter() throws IOException {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents();
+        Path calendarFile = temporaryDirectory.resolve("round_trip.ics");
+        Files.writeString(calendarFile, calendarText(events), StandardCharsets.UTF_8);
+
+        //ACT
+        List<CalendarEvent> readEvents = new ArrayList<>();
+        try (CalendarFileReader reader = CalendarFileReader.open(calendarFile)) {
+            reader.forEachRemaining(readEvents::add);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(events.size(), readEvents.size());
+        for (int i = 0; i < events.size(); i++) {
+            Assertions.assertEquals(events.get(i).toString(), readEvents.get(i).toString(), "Event " + i + " should round-trip unchanged");
+            Assertions.assertEquals(events.get(i).getUuid(), readEvents.get(i).getUuid());
+            Assertions.assertEquals(events.get(i).getSequence(), readEvents.get(i).getSequence());
+            // a missing SUMMARY or LOCATION is written as "null", so it reads back as that text
+            Assertions.assertEquals(String.valueOf(events.get(i).getSummary()), readEvents.get(i).getSummary());
+            Assertions.assertEquals(String.valueOf(events.get(i).getLocation()), readEvents.get(i).getLocation());
+            Assertions.assertArrayEquals(events.get(i).getCategories(), readEvents.get(i).getCategories());
+        }
+    }
+
+    @Test
+    public void channel_reader_round_trips_events_written_by_CalendarFileWriter() throws IOException {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents();
+        byte[] calendarBytes = calendarText(events).getBytes(StandardCharsets.UTF_8);
+
+        //ACT
+        List<CalendarEvent> readEvents = new ArrayList<>();
+        try (CalendarFileReader reader = new CalendarFileReader(Channels.newChannel(new ByteArrayInputStream(calendarBytes)))) {
+            reader.stream().forEach(readEvents::add);
+        }
+
+        //ASSERT
+        StringBuilder rewritten = new StringBuilder();
+        for (CalendarEvent event : readEvents) {
+            rewritten.append(event);
+        }
+        StringBuilder original = new StringBuilder();
+        for (CalendarEvent event : events) {
+            original.append(event);
+        }
+        Assertions.assertEquals(original.toString(), rewritten.toString());
+    }
+
+    @Test
+    public void reader_unfolds_lines_and_skips_unsupported_properties() throws IOException {
+        //ARRANGE
+        String calendar = "BEGIN:VCALENDAR\r\n" +
+                "VERSION:2.0\r\n" +
+                "PRODID:-//ZContent.net//Zap Calendar 1.0//EN\r\n" +
+                "BEGIN:VEVENT\r\n" +
+                "SUMMARY:Abraham\r\n" +
+                "  Lincoln\r\n" +
+                "UID:c7614cff-3549-4a00-9152-d25cc1fe077d\r\n" +
+                "SEQUENCE:0\r\n" +
+                "STATUS:CONFIRMED\r\n" +
+                "TRANSP:TRANSPARENT\r\n" +
+                "RRULE:FREQ=YEARLY;INTERVAL=1;BYMONTH=2;BYMONTHDAY=12\r\n" +
+                "DTSTART:20080212\r\n" +
+                "DTEND:20080213\r\n" +
+                "DTSTAMP:20150421T141403\r\n" +
+                "GEO:37.5739497;-85.7399606\r\n" +
+                "URL:http://americanhistorycalendar.com/peoplecalendar/1,328-abraham-lincol\r\n" +
+                " n\r\n" +
+                "BEGIN:VALARM\r\n" +
+                "SUMMARY:Reminder\r\n" +
+                "END:VALARM\r\n" +
+                "END:VEVENT\r\n" +
+                "END:VCALENDAR\r\n";
+
+        //ACT
+        List<CalendarEvent> readEvents = new ArrayList<>();
+        try (CalendarFileReader reader = new CalendarFileReader(Channels.newChannel(new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8))))) {
+            reader.forEachRemaining(readEvents::add);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(1, readEvents.size());
+        CalendarEvent lincoln = readEvents.get(0);
+        Assertions.assertEquals("Abraham Lincoln", lincoln.getSummary());
+        Assertions.assertEquals(UUID.fromString("c7614cff-3549-4a00-9152-d25cc1fe077d"), lincoln.getUuid());
+        Assertions.assertTrue(lincoln.isTransparent());
+        Assertions.assertEquals("FREQ=YEARLY;INTERVAL=1;BYMONTH=2;BYMONTHDAY=12", lincoln.getRecurrenceRule().toString());
+        Assertions.assertEquals(lincoln.getStartDate().plusDays(1), lincoln.getEndDate());
+    }
+
+    @Test
+    public void reader_accepts_week_and_day_durations() throws IOException {
+        //ARRANGE
+        String calendar = "BEGIN:VCALENDAR\n" +
+                "BEGIN:VEVENT\nSUMMARY:Camp\nDTSTART:20230710T130000Z\nDURATION:P2W\nEND:VEVENT\n" +
+                "BEGIN:VEVENT\nSUMMARY:Workshop\nDTSTART:20230710T130000Z\nDURATION:+P1DT2H\nEND:VEVENT\n" +
+                "END:VCALENDAR\n";
+
+        //ACT
+        List<CalendarEvent> readEvents = new ArrayList<>();
+        try (CalendarFileReader reader = new CalendarFileReader(Channels.newChannel(new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8))))) {
+            reader.forEachRemaining(readEvents::add);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(2, readEvents.size());
+        Assertions.assertEquals(readEvents.get(0).getStartDate().plusDays(14), readEvents.get(0).getEndDate());
+        Assertions.assertEquals(readEvents.get(1).getStartDate().plusHours(26), readEvents.get(1).getEndDate());
+    }
+
+    @Test
+    public void reader_throws_IllegalStateException_for_invalid_week_duration() {
+        //ARRANGE
+        String calendar = "BEGIN:VCALENDAR\nBEGIN:VEVENT\nDTSTART:20230710T130000Z\nDURATION:PW\nEND:VEVENT\nEND:VCALENDAR\n";
+
+        //ACT & ASSERT
+        CalendarFileReader reader = new CalendarFileReader(Channels.newChannel(new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8))));
+        Assertions.assertThrows(IllegalStateException.class, reader::hasNext);
+    }
+
+    @Test
+    public void reader_skips_events_with_unsupported_rrule_or_negative_duration() throws IOException {
+        //ARRANGE
+        String calendar = "BEGIN:VCALENDAR\n" +
+                "BEGIN:VEVENT\nSUMMARY:Board meeting\nDTSTART:20230710T130000Z\nRRULE:FREQ=MONTHLY;BYDAY=2MO\nEND:VEVENT\n" +
+                "BEGIN:VEVENT\nSUMMARY:Backwards\nDTSTART:20230710T130000Z\nDURATION:-PT1H\nEND:VEVENT\n" +
+                "BEGIN:VEVENT\nSUMMARY:Workshop\nDTSTART:20230711T130000Z\nDURATION:PT2H\nEND:VEVENT\n" +
+                "END:VCALENDAR\n";
+
+        //ACT
+        List<CalendarEvent> readEvents = new ArrayList<>();
+        List<CalendarFileReader.SkippedEvent> skipped;
+        try (CalendarFileReader reader = new CalendarFileReader(Channels.newChannel(new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8))))) {
+            reader.forEachRemaining(readEvents::add);
+            skipped = reader.getSkippedEvents();
+        }
+
+        //ASSERT
+        Assertions.assertEquals(List.of("Workshop"), readEvents.stream().map(CalendarEvent::getSummary).toList());
+        Assertions.assertEquals(List.of(5L, 10L), skipped.stream().map(CalendarFileReader.SkippedEvent::lineNumber).toList());
+        Assertions.assertTrue(skipped.get(0).reason().contains("BYDAY=2MO"));
+    }
+
+    @Test
+    public void reader_keeps_lowercase_categories_of_other_products() throws IOException {
+        //ARRANGE
+        String calendar = "BEGIN:VCALENDAR\nPRODID:-//Example Corp//Events//EN\n" +
+                "BEGIN:VEVENT\nSUMMARY:Gallery night\nDTSTART:20230710T130000Z\nCATEGORIES:ENTERTAINMENT,art\nEND:VEVENT\n" +
+                "BEGIN:VEVENT\nSUMMARY:Conference\nDTSTART:20230711T130000Z\nCATEGORIES:BUSINESS,en-US\nEND:VEVENT\n" +
+                "END:VCALENDAR\n";
+
+        //ACT
+        List<CalendarEvent> readEvents = new ArrayList<>();
+        try (CalendarFileReader reader = new CalendarFileReader(Channels.newChannel(new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8))))) {
+            reader.forEachRemaining(readEvents::add);
+        }
+
+        //ASSERT
+        Assertions.assertArrayEquals(new String[] {"ENTERTAINMENT", "art"}, readEvents.get(0).getCategories());
+        Assertions.assertNull(readEvents.get(0).getLanguageCategory());
+        Assertions.assertArrayEquals(new String[] {"BUSINESS"}, readEvents.get(1).getCategories());
+        Assertions.assertEquals("en-US", readEvents.get(1).getLanguageCategory().toLanguageTag());
+    }
+
+    @Test
+    public void reader_throws_IllegalStateException_for_unterminated_event() {
+        //ARRANGE
+        String calendar = "BEGIN:VCALENDAR\nBEGIN:VEVENT\nDTSTART:20080212\n";
+
+        //ACT & ASSERT
+        CalendarFileReader reader = new CalendarFileReader(Channels.newChannel(new ByteArrayInputStream(calendar.getBytes(StandardCharsets.UTF_8))));
+        Assertions.assertThrows(IllegalStateException.class, reader::hasNext);
+    }
+
+    //helper methods
+    private List<CalendarEvent> createEvents() {
+        CalendarEvent springBegins = new CalendarEvent("Spring Begins", FIRST_DAY_OF_SPRING_DATE, FIRST_DAY_OF_SPRING_DATE.plusDays(1), false, true, null, new String[]{"HOLIDAY", "SEASON"}, "N/A");
+        CalendarEvent spanishClub = new CalendarEvent("Spanish Club Meeting", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), false, false, "es", new String[]{"EDUCATION", "BEGINNER"}, "Classroom 102");
+        CalendarEvent weeklyMeeting = new CalendarEvent("Rencontre hebdomadaire", FIRST_WEEKLY_MEETING_TIME, FIRST_WEEKLY_MEETING_TIME.plusMinutes(30), true, false, "fr", null, "Salle de réunion au 1er étage");
+        weeklyMeeting.setRecurrenceRule(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO"));
+        CalendarEvent cancelledMeeting = new CalendarEvent(null, OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), true, false, null, new String[]{"HOLIDAY"}, null);
+        cancelledMeeting.cancelEvent();
+        CalendarEvent escapedText = new CalendarEvent("Lincoln, Abraham; born February 12, 1809\nSixteenth President (1861-1865) of the United States of America",
+                FIRST_DAY_OF_SPRING_DATE, FIRST_DAY_OF_SPRING_DATE.plusDays(1), false, true, "en-US", new String[]{"U.S. Presidents", "Civil War, People"}, "Hodgenville, Kentucky");
+        return List.of(springBegins, spanishClub, weeklyMeeting, cancelledMeeting, escapedText);
+    }
+
+    private String calendarText(List<CalendarEvent> events) {
+        CalendarFileWriter writer = new CalendarFileWriter("reader_test_file.ics", temporaryDirectory.toString());
+        writer.addCalendarEvents(events);
+        return writer.toString();
+    }
+}
@@ -1,12 +1,29 @@
 package com.ahdisease.calendarprinter;
 
 import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+import com.ahdisease.calendarprinter.uid.UidGenerator;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 public class CalendarFileWriterTests {
     private CalendarFileWriter writer;
@@ -132,6 +149,186 @@ public class CalendarFileWriterTests {
         }
     }
 
+    @Test
+    public void writeEventsTo_channel_matches_toString_bytes() throws IOException {
+        //ARRANGE
+        writer.addCalendarEvent(eventOne);
+        writer.addCalendarEvent(eventTwo);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        //ACT
+        writer.writeEventsTo(Channels.newChannel(output));
+
+        //ASSERT
+        Assertions.assertArrayEquals(writer.toString().getBytes(StandardCharsets.UTF_8), output.toByteArray(), "Streamed output should match toString byte-for-byte");
+    }
+
+    @Test
+    public void writeEventsTo_writer_matches_toString() throws IOException {
+        //ARRANGE
+        writer.addCalendarEvent(eventOne);
+        StringWriter output = new StringWriter();
+
+        //ACT
+        writer.writeEventsTo(output);
+
+        //ASSERT
+        Assertions.assertEquals(writer.toString(), output.toString());
+    }
+
+    @Test
+    public void writeEventsToFile_replaces_file_without_leaving_temporary_files(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        CalendarFileWriter directoryWriter = new CalendarFileWriter("calendar.ics", directory.toString());
+        directoryWriter.addCalendarEvent(eventOne);
+        directoryWriter.addCalendarEvent(eventTwo);
+        Files.writeString(directory.resolve("calendar.ics"), "previous export");
+
+        //ACT
+        File written = directoryWriter.writeEventsToFile();
+
+        //ASSERT
+        Assertions.assertEquals(directoryWriter.toString(), Files.readString(written.toPath(), StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count(), "Only the calendar file should remain");
+        }
+    }
+
+    @Test
+    public void writeChangedEventsToFile_matches_toString_after_changes(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        CalendarFileWriter directoryWriter = new CalendarFileWriter("calendar.ics", directory.toString());
+        ZonedDateTime start = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("America/Chicago"));
+        CalendarEvent[] events = new CalendarEvent[20];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new CalendarEvent("Event " + i, start.plusDays(i), start.plusDays(i).plusHours(1), false, false, null, null, "Room " + i);
+            directoryWriter.addCalendarEvent(events[i]);
+        }
+        directoryWriter.writeChangedEventsToFile();
+
+        //ACT
+        events[3].cancelEvent();
+        events[4].cancelEvent();
+        events[17].confirmEvent();
+        directoryWriter.addCalendarEvent(new CalendarEvent("Added", start, start.plusHours(1), true, false, null, null, null));
+        File written = directoryWriter.writeChangedEventsToFile();
+
+        //ASSERT
+        Assertions.assertEquals(directoryWriter.toString(), Files.readString(written.toPath(), StandardCharsets.UTF_8));
+        Assertions.assertTrue(Files.isRegularFile(directory.resolve("calendar.ics.idx")), "Index should be written next to the calendar");
+    }
+
+    @Test
+    public void writeChangedEventsToFile_rewrites_events_changed_without_sequence(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        UidGenerator uids = UidGenerator.nameBased(UUID.fromString("c7614cff-3549-4a00-9152-d25cc1fe077d"));
+        ZonedDateTime start = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("America/Chicago"));
+        CalendarFileWriter firstExport = new CalendarFileWriter("calendar.ics", directory.toString());
+        firstExport.addCalendarEvent(new CalendarEvent("Planning", start, start.plusHours(1), false, false, null, null, "Room 1", uids));
+        CalendarEvent holiday = new CalendarEventFactory().holiday("Winter Break", start.plusMonths(2), null);
+        firstExport.addCalendarEvent(holiday);
+        firstExport.writeChangedEventsToFile();
+
+        //ACT
+        // a later run recreates the event with the same UID and SEQUENCE but a new end and location
+        CalendarFileWriter secondExport = new CalendarFileWriter("calendar.ics", directory.toString());
+        CalendarEvent moved = new CalendarEvent("Planning", start, start.plusHours(2), false, false, null, null, "Room 2", uids);
+        secondExport.addCalendarEvent(moved);
+        holiday.confirmEvent();
+        secondExport.addCalendarEvent(holiday);
+        File written = secondExport.writeChangedEventsToFile();
+
+        //ASSERT
+        String calendar = Files.readString(written.toPath(), StandardCharsets.UTF_8);
+        Assertions.assertEquals(0, moved.getSequence());
+        Assertions.assertEquals(0, holiday.getSequence());
+        Assertions.assertEquals(secondExport.toString(), calendar);
+        Assertions.assertTrue(calendar.contains("LOCATION:Room 2"));
+        Assertions.assertTrue(calendar.contains("TRANSP:OPAQUE"));
+    }
+
+    @Test
+    public void writeChangedEventsToFile_rewrites_everything_when_file_no_longer_matches_index(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        CalendarFileWriter directoryWriter = new CalendarFileWriter("calendar.ics", directory.toString());
+        directoryWriter.addCalendarEvent(eventOne);
+        directoryWriter.addCalendarEvent(eventTwo);
+        directoryWriter.writeChangedEventsToFile();
+        Files.writeString(directory.resolve("calendar.ics"), "edited by hand");
+
+        //ACT
+        File written = directoryWriter.writeChangedEventsToFile();
+
+        //ASSERT
+        Assertions.assertEquals(directoryWriter.toString(), Files.readString(written.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeShardedEventsToFiles_writes_one_calendar_per_month(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        CalendarFileWriter directoryWriter = new CalendarFileWriter("calendar.ics", directory.toString());
+        ZonedDateTime start = ZonedDateTime.of(2023, 1, 10, 9, 0, 0, 0, ZoneId.of("America/Chicago"));
+        List<CalendarEvent> events = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            // an event every four days for about eight months
+            CalendarEvent event = new CalendarEvent("Event " + i, start.plusDays(i * 4L), start.plusDays(i * 4L).plusHours(1), false, false, null, null, null);
+            events.add(event);
+            directoryWriter.addCalendarEvent(event);
+        }
+
+        //ACT
+        File manifest = directoryWriter.writeShardedEventsToFiles(ShardPeriod.MONTH, true, 2);
+
+        //ASSERT
+        List<String> lines = Files.readAllLines(manifest.toPath());
+        long expectedShards = events.stream().map(event -> ShardPeriod.MONTH.key(event.getStartDate())).distinct().count();
+        Assertions.assertEquals(expectedShards, lines.size());
+        int eventCount = 0;
+        for (String line : lines) {
+            String[] fields = line.split("\t");
+            Path shard = directory.resolve(fields[1]);
+            Assertions.assertEquals("calendar-" + fields[0] + ".ics.gz", fields[1]);
+            Assertions.assertEquals(Long.parseLong(fields[3]), Files.size(shard));
+
+            String calendar;
+            try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(shard))) {
+                calendar = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            StringBuilder expected = new StringBuilder();
+            for (CalendarEvent event : events) {
+                if (ShardPeriod.MONTH.key(event.getStartDate()).equals(fields[0])) {
+                    expected.append(event);
+                }
+            }
+            Assertions.assertTrue(calendar.startsWith("BEGIN:VCALENDAR"));
+            Assertions.assertTrue(calendar.contains(expected), "Shard " + fields[0] + " should hold exactly its month's events");
+            Assertions.assertTrue(calendar.endsWith("\nEND:VCALENDAR"));
+            eventCount += Integer.parseInt(fields[2]);
+        }
+        Assertions.assertEquals(events.size(), eventCount);
+    }
+
+    @Test
+    public void writeShardedEventsToFiles_releases_open_file_permits(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        CalendarFileWriter directoryWriter = new CalendarFileWriter("calendar.ics", directory.toString());
+        directoryWriter.addCalendarEvent(eventOne);
+        directoryWriter.addCalendarEvent(eventTwo);
+        Semaphore openFiles = new Semaphore(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //ACT
+        try {
+            directoryWriter.writeShardedEventsToFiles(ShardPeriod.YEAR, false, executor, openFiles);
+        } finally {
+            executor.shutdown();
+        }
+
+        //ASSERT
+        Assertions.assertEquals(1, openFiles.availablePermits());
+        Assertions.assertEquals("BEGIN:VCALENDAR", Files.readAllLines(directory.resolve("calendar-2023.ics")).get(0));
+    }
+
     //TODO confirm new file has .ics extention
 
     //TODO confirm file contents match expected string
@@ -0,0 +1,143 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+public class CalendarMergerTests {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("America/Chicago"));
+    private final ZonedDateTime CREATED = ZonedDateTime.of(2023, 10, 1, 9, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void merger_orders_events_from_every_source_by_start() {
+        //ARRANGE
+        CalendarEvent first = event("First", UUID.randomUUID(), 0, 0, CREATED);
+        CalendarEvent second = event("Second", UUID.randomUUID(), 0, 1, CREATED);
+        CalendarEvent third = event("Third", UUID.randomUUID(), 0, 2, CREATED);
+        CalendarEvent fourth = event("Fourth", UUID.randomUUID(), 0, 3, CREATED);
+
+        //ACT
+        List<CalendarEvent> merged = drain(new CalendarMerger(List.of(
+                List.of(first, fourth).iterator(),
+                List.<CalendarEvent>of().iterator(),
+                List.of(second, third).iterator())));
+
+        //ASSERT
+        Assertions.assertEquals(List.of(first, second, third, fourth), merged);
+    }
+
+    @Test
+    public void merger_keeps_highest_sequence_of_duplicate_uid() {
+        //ARRANGE
+        UUID uid = UUID.randomUUID();
+        CalendarEvent original = event("Planning", uid, 0, 0, CREATED);
+        CalendarEvent revised = event("Planning (moved room)", uid, 2, 0, CREATED);
+        CalendarEvent other = event("Review", UUID.randomUUID(), 0, 0, CREATED);
+
+        //ACT
+        CalendarMerger merger = new CalendarMerger(List.of(List.of(original, other).iterator(), List.of(revised).iterator()));
+        List<CalendarEvent> merged = drain(merger);
+
+        //ASSERT
+        Assertions.assertEquals(List.of(revised, other), merged);
+        Assertions.assertEquals(1, merger.getDuplicatesDropped());
+    }
+
+    @Test
+    public void merger_breaks_sequence_tie_by_latest_dtstamp() {
+        //ARRANGE
+        UUID uid = UUID.randomUUID();
+        CalendarEvent older = event("Planning", uid, 1, 0, CREATED);
+        CalendarEvent newer = event("Planning", uid, 1, 0, CREATED.plusHours(1));
+
+        //ACT
+        List<CalendarEvent> merged = drain(new CalendarMerger(List.of(List.of(newer).iterator(), List.of(older).iterator())));
+
+        //ASSERT
+        Assertions.assertEquals(List.of(newer), merged);
+    }
+
+    @Test
+    public void merger_returns_both_revisions_when_dtstart_changed() {
+        //ARRANGE
+        UUID uid = UUID.randomUUID();
+        CalendarEvent original = event("Planning", uid, 0, 1, CREATED);
+        CalendarEvent rescheduled = event("Planning (moved)", uid, 1, 3, CREATED.plusDays(1));
+
+        //ACT
+        CalendarMerger merger = new CalendarMerger(List.of(List.of(original).iterator(), List.of(rescheduled).iterator()));
+        List<CalendarEvent> merged = drain(merger);
+
+        //ASSERT
+        // documented limitation: only events starting at the same second are compared
+        Assertions.assertEquals(List.of(original, rescheduled), merged);
+        Assertions.assertEquals(0, merger.getDuplicatesDropped());
+    }
+
+    @Test
+    public void merger_rejects_unsorted_source() {
+        //ARRANGE
+        CalendarMerger merger = new CalendarMerger(List.of(List.of(
+                event("Later", UUID.randomUUID(), 0, 2, CREATED),
+                event("Earlier", UUID.randomUUID(), 0, 1, CREATED)).iterator()));
+
+        //ACT & ASSERT
+        Assertions.assertThrows(IllegalStateException.class, () -> drain(merger));
+    }
+
+    @Test
+    public void writeMerged_streams_one_calendar_from_files(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        UUID uid = UUID.randomUUID();
+        CalendarEvent original = event("Planning", uid, 0, 1, CREATED);
+        CalendarEvent revised = event("Planning", uid, 1, 1, CREATED.plusDays(1));
+        CalendarEvent holiday = event("Holiday", UUID.randomUUID(), 0, 0, CREATED);
+        CalendarEvent review = event("Review", UUID.randomUUID(), 0, 2, CREATED);
+        Path sales = writeFile(directory.resolve("sales.ics"), List.of(holiday, original));
+        Path support = writeFile(directory.resolve("support.ics"), List.of(revised, review));
+
+        //ACT
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        long dropped = CalendarMerger.writeMerged(List.of(sales, support), merged);
+
+        //ASSERT
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        CalendarFileWriter.writeCalendar(List.of(holiday, revised, review), expected);
+        Assertions.assertEquals(expected.toString(), merged.toString());
+        Assertions.assertEquals(1, dropped);
+    }
+
+    // helper methods
+
+    private CalendarEvent event(String summary, UUID uid, int sequence, int startDay, ZonedDateTime createdDate) {
+        ZonedDateTime start = OCTOBER_22_3PM.plusDays(startDay);
+        return new CalendarEvent(summary, uid, sequence, CalendarEvent.Status.CONFIRMED, false, null,
+                start, start.plusHours(1), createdDate, null, null, null);
+    }
+
+    private static List<CalendarEvent> drain(Iterator<CalendarEvent> events) {
+        List<CalendarEvent> drained = new ArrayList<>();
+        events.forEachRemaining(drained::add);
+        return drained;
+    }
+
+    private static Path writeFile(Path file, List<CalendarEvent> events) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            CalendarFileWriter.writeCalendar(events, out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class CalendarPrinterCliTests {
+
+    @Test
+    public void event_writes_calendar_file(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        Path target = directory.resolve("club").resolve("spanish.ics");
+
+        //ACT
+        int status = run("event", "-o", target.toString(), "--summary", "Spanish Club, Beginners",
+                "--start", "2023-10-22T15:00-05:00[America/Chicago]", "--end", "2023-10-22T17:00-05:00[America/Chicago]",
+                "--status", "tentative", "--language", "es", "--category", "EDUCATION", "--location", "Classroom 102");
+
+        //ASSERT
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_OK, status);
+        List<CalendarEvent> events = read(target);
+        Assertions.assertEquals(1, events.size());
+        CalendarEvent event = events.get(0);
+        Assertions.assertEquals("Spanish Club, Beginners", event.getSummary());
+        Assertions.assertEquals(CalendarEvent.Status.TENTATIVE, event.getStatus());
+        Assertions.assertEquals("Classroom 102", event.getLocation());
+        Assertions.assertEquals(7200, event.getEndDate().toEpochSecond() - event.getStartDate().toEpochSecond());
+    }
+
+    @Test
+    public void import_and_merge_write_calendar_files(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        Path input = directory.resolve("events.csv");
+        Files.writeString(input, "summary,start,end\n" +
+                "Planning,2023-10-22T15:00-05:00,2023-10-22T16:00-05:00\n" +
+                "Review,2023-10-23T15:00-05:00,2023-10-23T16:00-05:00\n");
+        Path imported = directory.resolve("imported.ics");
+        Path single = directory.resolve("single.ics");
+        Path merged = directory.resolve("merged.ics");
+
+        //ACT
+        int importStatus = run("import", "csv", input.toString(), imported.toString());
+        int eventStatus = run("event", "-o", single.toString(), "--summary", "Kickoff",
+                "--start", "2023-10-22T09:00-05:00", "--end", "2023-10-22T10:00-05:00");
+        int mergeStatus = run("merge", merged.toString(), imported.toString(), single.toString());
+
+        //ASSERT
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_OK, importStatus);
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_OK, eventStatus);
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_OK, mergeStatus);
+        Assertions.assertEquals(List.of("Kickoff", "Planning", "Review"),
+                read(merged).stream().map(CalendarEvent::getSummary).toList());
+    }
+
+    @Test
+    public void run_rejects_invalid_arguments(@TempDir Path directory) {
+        //ARRANGE
+        String target = directory.resolve("invalid.ics").toString();
+
+        //ACT & ASSERT
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_USAGE, run());
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_USAGE, run("print"));
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_USAGE, run("event", "-o", target, "--start", "2023-10-22T15:00-05:00"));
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_USAGE, run("event", "-o", target, "--start", "tomorrow", "--end", "2023-10-22T15:00-05:00"));
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_USAGE, run("event", "-o", target, "--start", "2023-10-22T15:00-05:00",
+                "--end", "2023-10-22T16:00-05:00", "--language", "english"));
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_USAGE, run("import", "xml", "in.xml", target));
+        Assertions.assertEquals(CalendarPrinterCli.EXIT_FAILED, run("import", "csv", directory.resolve("missing.csv").toString(), target));
+        Assertions.assertFalse(Files.exists(Path.of(target)));
+    }
+
+    // helper methods
+
+    private static int run(String... args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        return CalendarPrinterCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8), new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    private static List<CalendarEvent> read(Path calendar) throws IOException {
+        try (CalendarFileReader reader = CalendarFileReader.open(calendar)) {
+            return reader.stream().toList();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.uid.UidGenerator;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentCalendarEventStoreTests {
+    private final ZonedDateTime START_DATE = ZonedDateTime.of(2023, 3, 21, 0, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+    private static final int PRODUCERS = 16;
+    private static final int EVENTS_PER_PRODUCER = 2_500;
+    private ConcurrentCalendarEventStore store;
+
+    @BeforeEach
+    public void setup() {
+        store = new ConcurrentCalendarEventStore(4);
+    }
+
+    @Test
+    public void add_from_many_threads_keeps_every_event() throws Exception {
+        //ARRANGE
+        List<List<CalendarEvent>> batches = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            batches.add(createEvents("Producer " + producer, EVENTS_PER_PRODUCER));
+        }
+
+        //ACT
+        runConcurrently(PRODUCERS, producer -> batches.get(producer).forEach(store::add));
+
+        //ASSERT
+        Assertions.assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, store.size());
+        List<CalendarEvent> storedEvents = store.toList();
+        Assertions.assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, storedEvents.size());
+        for (List<CalendarEvent> batch : batches) {
+            // each producer's events keep the order that producer added them in
+            List<CalendarEvent> stored = storedEvents.stream().filter(new HashSet<>(batch)::contains).toList();
+            Assertions.assertEquals(batch, stored);
+        }
+    }
+
+    @Test
+    public void add_accepts_each_uid_once_across_threads() throws Exception {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents("Shared", 1_000);
+        AtomicInteger rejected = new AtomicInteger();
+
+        //ACT
+        runConcurrently(PRODUCERS, producer -> {
+            for (CalendarEvent event : events) {
+                try {
+                    store.add(event);
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        //ASSERT
+        Assertions.assertEquals(events.size(), store.size());
+        Assertions.assertEquals(events.size(), store.toList().size());
+        Assertions.assertEquals((PRODUCERS - 1) * events.size(), rejected.get());
+    }
+
+    @Test
+    public void addAll_rejects_whole_batch_when_event_already_stored() {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents("Event", 3);
+        store.add(events.get(1));
+
+        //ACT & ASSERT
+        try {
+            store.addAll(events);
+            Assertions.fail("Batch containing a stored event should be rejected");
+        } catch (IllegalArgumentException error) {
+            Assertions.assertEquals("Calendar event already added", error.getMessage());
+        }
+        Assertions.assertEquals(1, store.size());
+        Assertions.assertFalse(store.contains(events.get(0).getUuid()));
+        Assertions.assertEquals(List.of(events.get(1)), store.toList());
+    }
+
+    @Test
+    public void addAll_keeps_batch_contiguous() throws Exception {
+        //ARRANGE
+        List<List<CalendarEvent>> batches = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            batches.add(createEvents("Producer " + producer, 200));
+        }
+
+        //ACT
+        runConcurrently(PRODUCERS, producer -> store.addAll(batches.get(producer)));
+
+        //ASSERT
+        List<CalendarEvent> storedEvents = store.toList();
+        for (List<CalendarEvent> batch : batches) {
+            int start = storedEvents.indexOf(batch.get(0));
+            Assertions.assertEquals(batch, storedEvents.subList(start, start + batch.size()));
+        }
+    }
+
+    @Test
+    public void snapshot_is_prefix_of_insertion_order_while_adding() throws Exception {
+        //ARRANGE
+        List<List<CalendarEvent>> batches = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            batches.add(createEvents("Producer " + producer, EVENTS_PER_PRODUCER));
+        }
+        List<List<CalendarEvent>> snapshots = new ArrayList<>();
+        CountDownLatch producersDone = new CountDownLatch(PRODUCERS);
+        Thread reader = new Thread(() -> {
+            do {
+                snapshots.add(store.snapshot());
+            } while (producersDone.getCount() > 0 && snapshots.size() < 100);
+        });
+
+        //ACT
+        reader.start();
+        runConcurrently(PRODUCERS, producer -> {
+            batches.get(producer).forEach(store::add);
+            producersDone.countDown();
+        });
+        reader.join();
+
+        //ASSERT
+        List<CalendarEvent> finalEvents = store.toList();
+        Assertions.assertFalse(snapshots.isEmpty());
+        for (List<CalendarEvent> snapshot : snapshots) {
+            Assertions.assertEquals(finalEvents.subList(0, snapshot.size()), snapshot);
+        }
+    }
+
+    @Test
+    public void iterator_is_unaffected_by_later_adds() {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents("Event", 3);
+        store.add(events.get(0));
+        store.add(events.get(1));
+        Iterator<CalendarEvent> iterator = store.iterator();
+
+        //ACT
+        store.add(events.get(2));
+
+        //ASSERT
+        List<CalendarEvent> iterated = new ArrayList<>();
+        iterator.forEachRemaining(iterated::add);
+        Assertions.assertEquals(events.subList(0, 2), iterated);
+        Assertions.assertEquals(events, store.stream().toList());
+    }
+
+    @Test
+    public void calendarFileWriter_writes_shared_store() throws Exception {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents("Event", 3);
+        store.addAll(events);
+        CalendarFileWriter writer = new CalendarFileWriter("shared.ics", System.getProperty("java.io.tmpdir"), store);
+
+        //ACT
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        writer.writeEventsTo(written);
+
+        //ASSERT
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        CalendarFileWriter.writeCalendar(events, expected);
+        Assertions.assertArrayEquals(expected.toByteArray(), written.toByteArray());
+    }
+
+    // helper methods
+
+    private List<CalendarEvent> createEvents(String summary, int count) {
+        UidGenerator uids = UidGenerator.threadLocalRandom();
+        List<CalendarEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(new CalendarEvent(summary + " " + i, START_DATE.plusHours(i), START_DATE.plusHours(i + 1), false, false, null, null, null, uids));
+        }
+        return events;
+    }
+
+    private interface Producer {
+        void run(int producer);
+    }
+
+    private static void runConcurrently(int threads, Producer producer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    producer.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
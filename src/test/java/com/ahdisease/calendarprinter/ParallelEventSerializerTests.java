@@ -0,0 +1,95 @@
+package com.ahdisease.calendarprinter;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ParallelEventSerializerTests {
+    private final ZonedDateTime CALENDAR_START = ZonedDateTime.of(2023, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    public void writeEvents_matches_sequential_output() throws IOException {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents(5_003);
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        for (CalendarEvent event : events) {
+            event.writeTo(sequential);
+        }
+
+        //ACT
+        try (ParallelEventSerializer serializer = new ParallelEventSerializer(4, 100, 37)) {
+            serializer.writeEvents(events, parallel);
+        }
+
+        //ASSERT
+        Assertions.assertArrayEquals(sequential.toByteArray(), parallel.toByteArray(), "Parallel output should match the sequential writer");
+    }
+
+    @Test
+    public void writeTo_with_serializer_matches_toString(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        CalendarFileWriter writer = new CalendarFileWriter("parallel_test_file.ics", directory.toString());
+        writer.addCalendarEvents(createEvents(250));
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+
+        //ACT
+        try (ParallelEventSerializer serializer = new ParallelEventSerializer(3, 10, 16)) {
+            writer.writeTo(parallel, serializer);
+        }
+
+        //ASSERT
+        Assertions.assertEquals(writer.toString(), parallel.toString());
+    }
+
+    @Test
+    public void writeEvents_propagates_write_failure() {
+        //ARRANGE
+        List<CalendarEvent> events = createEvents(2_000);
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+
+        //ACT & ASSERT
+        try (ParallelEventSerializer serializer = new ParallelEventSerializer(4, 100, 37)) {
+            IOException thrown = Assertions.assertThrows(IOException.class, () -> serializer.writeEvents(events, failing));
+            Assertions.assertEquals("disk full", thrown.getMessage());
+        }
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_invalid_settings() {
+        //ACT & ASSERT
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelEventSerializer(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelEventSerializer(2, -1, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelEventSerializer(2, 10, 0));
+    }
+
+    //helper methods
+    private List<CalendarEvent> createEvents(int count) {
+        List<CalendarEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ZonedDateTime start = CALENDAR_START.plusHours(i);
+            events.add(new CalendarEvent("Event " + i, start, start.plusMinutes(30), i % 3 == 0, i % 2 == 0, "en", new String[]{"WORK"}, "Room " + i));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ahdisease.calendarprinter.benchmark;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of creating and formatting a single CalendarEvent. Run with {@code -prof gc} (the default for the
+ * benchmark profile) to see the allocation rate of each operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CalendarEventBenchmark {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+    private final String[] CATEGORIES = {"EDUCATION", "BEGINNER", "LANGUAGE", "CLUB", "AFTER SCHOOL", "SPANISH"};
+
+    private CalendarEvent plainEvent;
+    private CalendarEvent categorizedEvent;
+    private CalendarEventFactory batchFactory;
+
+    @Setup
+    public void createEvents() {
+        plainEvent = new CalendarEvent("Spanish Club Meeting", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), false, false, null, null, "Classroom 102");
+        categorizedEvent = new CalendarEvent("Spanish Club Meeting", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), false, false, "es-MX", CATEGORIES, "Classroom 102");
+        batchFactory = new CalendarEventFactory().batch();
+    }
+
+    @Benchmark
+    public CalendarEvent construct_without_language() {
+        return new CalendarEvent("Spanish Club Meeting", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), false, false, null, CATEGORIES, "Classroom 102");
+    }
+
+    @Benchmark
+    public CalendarEvent construct_with_language_validation() {
+        // exercises the LANGUAGE_PATTERN_FORMAT check, Locale lookup and UUID generation
+        return new CalendarEvent("Spanish Club Meeting", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), false, false, "es-MX", CATEGORIES, "Classroom 102");
+    }
+
+    @Benchmark
+    public CalendarEvent factory_batch_with_language() {
+        // same event as construct_with_language_validation, with a shared DTSTAMP
+        return batchFactory.create("Spanish Club Meeting", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), CalendarEvent.Status.CONFIRMED,
+                false, "es-MX", CATEGORIES, "Classroom 102");
+    }
+
+    @Benchmark
+    public String toString_without_categories() {
+        return plainEvent.toString();
+    }
+
+    @Benchmark
+    public String toString_with_categories() {
+        // the difference to toString_without_categories is the cost of the CATEGORIES property
+        return categorizedEvent.toString();
+    }
+
+    @Benchmark
+    public void writeTo_cached_encoding() throws IOException {
+        categorizedEvent.writeTo(OutputStream.nullOutputStream());
+    }
+}
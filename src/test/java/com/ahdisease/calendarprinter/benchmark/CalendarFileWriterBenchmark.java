@@ -0,0 +1,94 @@
+package com.ahdisease.calendarprinter.benchmark;
+
+import com.ahdisease.calendarprinter.CalendarFileWriter;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of filling a CalendarFileWriter and writing it out, for calendars of increasing size. Each invocation handles
+ * the whole calendar, so the scores are the steady-state average time per calendar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class CalendarFileWriterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Calendar {
+        private final ZonedDateTime CALENDAR_START = ZonedDateTime.of(2023, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+        @Param({"1000", "100000", "1000000"})
+        public int eventCount;
+
+        List<CalendarEvent> events;
+        File outputDirectory;
+
+        @Setup(Level.Trial)
+        public void createEvents() throws IOException {
+            events = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                ZonedDateTime start = CALENDAR_START.plusMinutes(30L * i);
+                events.add(new CalendarEvent("Event " + i, start, start.plusMinutes(30), i % 5 == 0, i % 2 == 0, "en", new String[]{"WORK", "MEETING"}, "Room " + (i % 100)));
+            }
+            outputDirectory = Files.createTempDirectory("calendar-benchmark").toFile();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyWriter {
+        CalendarFileWriter writer;
+
+        @Setup(Level.Invocation)
+        public void createWriter(Calendar calendar) {
+            writer = new CalendarFileWriter("add.ics", calendar.outputDirectory.getPath());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FilledWriter {
+        CalendarFileWriter writer;
+
+        @Setup(Level.Invocation)
+        public void createWriter(Calendar calendar) {
+            writer = new CalendarFileWriter("write.ics", calendar.outputDirectory.getPath());
+            writer.addCalendarEvents(calendar.events);
+        }
+    }
+
+    @Benchmark
+    public CalendarFileWriter addCalendarEvent(Calendar calendar, EmptyWriter state) {
+        for (CalendarEvent event : calendar.events) {
+            state.writer.addCalendarEvent(event);
+        }
+        return state.writer;
+    }
+
+    @Benchmark
+    public File writeEventsToFile(FilledWriter state) throws IOException {
+        // after the first invocation every event reuses its cached encoding, as in a repeated export
+        return state.writer.writeEventsToFile();
+    }
+
+    @Benchmark
+    public void writeTo_uncached_text(FilledWriter state) throws IOException {
+        // formats every event from scratch, bypassing the per-event encoding cache
+        Writer out = new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+        state.writer.writeTo(out);
+        out.flush();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ahdisease.calendarprinter.benchmark;
+
+import com.ahdisease.calendarprinter.CalendarEventStore;
+import com.ahdisease.calendarprinter.ConcurrentCalendarEventStore;
+import com.ahdisease.calendarprinter.EventStore;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.uid.UidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per add for 16 producers adding to one store: a {@link CalendarEventStore} behind a single lock against the
+ * striped {@link ConcurrentCalendarEventStore}. Compare with {@code -t 1}, {@code -t 4} and {@code -t 8} for the
+ * scaling curve. Each invocation adds a fixed batch of events per producer to a fresh store. The events are created
+ * before the batch starts, so the measurement covers the store alone.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(EventIngestionBenchmark.EVENTS_PER_THREAD)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@Threads(16)
+public class EventIngestionBenchmark {
+    static final int EVENTS_PER_THREAD = 1 << 14;
+    private static final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"locked", "concurrent"})
+        public String store;
+
+        private EventStore events;
+
+        // a fresh store per batch, so every batch adds to a store of the same size
+        @Setup(Level.Iteration)
+        public void createStore() {
+            events = switch (store) {
+                case "locked" -> new LockedEventStore();
+                case "concurrent" -> new ConcurrentCalendarEventStore();
+                default -> throw new IllegalArgumentException("Unknown store: " + store);
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        private final CalendarEvent[] events = new CalendarEvent[EVENTS_PER_THREAD];
+
+        // one batch of unique events per iteration, built outside the measurement
+        @Setup(Level.Iteration)
+        public void createEvents() {
+            UidGenerator uids = UidGenerator.threadLocalRandom();
+            for (int i = 0; i < events.length; i++) {
+                events[i] = new CalendarEvent("Spanish Club Meeting", OCTOBER_22_3PM.plusHours(i), OCTOBER_22_3PM.plusHours(i + 1), false, false, null, null, null, uids);
+            }
+        }
+    }
+
+    @Benchmark
+    public void addBatch(Store store, Producer producer) {
+        for (CalendarEvent event : producer.events) {
+            store.events.add(event);
+        }
+    }
+
+    /**
+     * The single-threaded store made safe for producers the simple way.
+     */
+    private static final class LockedEventStore extends CalendarEventStore {
+        @Override
+        public synchronized void add(CalendarEvent newEvent) {
+            super.add(newEvent);
+        }
+    }
+}
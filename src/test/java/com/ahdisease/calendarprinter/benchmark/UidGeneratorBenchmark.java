@@ -0,0 +1,45 @@
+package com.ahdisease.calendarprinter.benchmark;
+
+import com.ahdisease.calendarprinter.uid.UidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each UID strategy with several threads generating at once, which is where the shared SecureRandom
+ * behind {@link UUID#randomUUID()} contends. Compare with {@code -t 1} for the single-threaded cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class UidGeneratorBenchmark {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+
+    @Param({"random", "threadLocalRandom", "timeOrdered", "nameBased"})
+    public String strategy;
+
+    private UidGenerator generator;
+
+    @Setup
+    public void createGenerator() {
+        generator = switch (strategy) {
+            case "random" -> UidGenerator.random();
+            case "threadLocalRandom" -> UidGenerator.threadLocalRandom();
+            case "timeOrdered" -> UidGenerator.timeOrdered();
+            case "nameBased" -> UidGenerator.nameBased(UUID.fromString("6ba7b810-9dad-11d1-80b4-00c04fd430c8"));
+            default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        };
+    }
+
+    @Benchmark
+    public UUID generate() {
+        return generator.generate("Spanish Club Meeting", OCTOBER_22_3PM);
+    }
+}
@@ -0,0 +1,155 @@
+package com.ahdisease.calendarprinter.compact;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.RecurrenceRule;
+import com.ahdisease.calendarprinter.template.CalendarTemplate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CompactCalendarTests {
+    private final ZonedDateTime CALENDAR_START = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneId.of("America/Chicago"));
+    private List<CalendarEvent> events;
+
+    @BeforeEach
+    public void createEvents() {
+        Random random = new Random(3);
+        events = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            ZonedDateTime start = CALENDAR_START.plusMinutes(random.nextInt(365 * 24 * 60));
+            ZonedDateTime end = start.plusMinutes(random.nextInt(6 * 60));
+            String[] categories = random.nextBoolean() ? new String[] {"Work", "Team, shared"} : null;
+            String language = random.nextInt(3) == 0 ? "en-US" : null;
+            CalendarEvent event = new CalendarEvent("Event " + (i % 50) + "; weekly", start, end, random.nextBoolean(),
+                    random.nextBoolean(), language, categories, random.nextBoolean() ? "Room " + (i % 7) : null);
+            if (random.nextInt(10) == 0) {
+                event.setRecurrenceRule(RecurrenceRule.parse("FREQ=WEEKLY;COUNT=5"));
+            }
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void writeEvent_matches_calendar_event_output() throws IOException {
+        //ARRANGE
+        CompactCalendar calendar = new CompactCalendar();
+        events.forEach(calendar::add);
+
+        for (int i = 0; i < events.size(); i++) {
+            //ACT
+            StringBuilder actual = new StringBuilder();
+            calendar.writeEvent(i, actual);
+
+            //ASSERT
+            Assertions.assertEquals(events.get(i).toString(), actual.toString(), "Compact output should match event " + i);
+        }
+    }
+
+    @Test
+    public void writeEvent_renders_custom_template_like_calendar_event() throws IOException {
+        //ARRANGE
+        CompactCalendar calendar = new CompactCalendar();
+        events.forEach(calendar::add);
+        CalendarTemplate template = CalendarTemplate.builder()
+                .eventLayout("BEGIN:VEVENT\nUID:{uid}\nCLASS:PUBLIC\nDTSTART:{dtstart}\nRRULE:{rrule}\n" +
+                        "CATEGORIES:{categories}\nSUMMARY:{summary}\nEND:VEVENT")
+                .compile();
+
+        for (int i = 0; i < events.size(); i++) {
+            //ACT
+            StringBuilder actual = new StringBuilder();
+            calendar.writeEvent(i, template, actual);
+
+            //ASSERT
+            StringBuilder expected = new StringBuilder();
+            template.writeEvent(events.get(i), expected);
+            Assertions.assertEquals(expected.toString(), actual.toString(), "Compact output should match event " + i);
+        }
+    }
+
+    @Test
+    public void toCalendarEvent_restores_event() {
+        //ARRANGE
+        CompactCalendar calendar = new CompactCalendar();
+        events.forEach(calendar::add);
+
+        for (int i = 0; i < events.size(); i++) {
+            //ACT
+            CalendarEvent restored = calendar.toCalendarEvent(i);
+
+            //ASSERT
+            CalendarEvent original = events.get(i);
+            Assertions.assertEquals(original.toString(), restored.toString());
+            Assertions.assertEquals(original.getUuid(), restored.getUuid());
+            Assertions.assertEquals(original.getStartDate(), restored.getStartDate());
+            Assertions.assertEquals(original.getStatus(), restored.getStatus());
+        }
+    }
+
+    @Test
+    public void add_interns_only_repeated_properties() {
+        //ARRANGE
+        CompactCalendar calendar = new CompactCalendar();
+
+        //ACT
+        events.forEach(calendar::add);
+
+        //ASSERT
+        Assertions.assertEquals(events.size(), calendar.size());
+        // 2 categories, 1 language tag and 1 recurrence rule; summaries and locations are kept as text
+        Assertions.assertEquals(4, calendar.getStrings().size());
+        Assertions.assertTrue(calendar.getTextBytes() > 0);
+    }
+
+    @Test
+    public void add_keeps_unique_text_in_a_fraction_of_the_heap_of_calendar_events() {
+        //ARRANGE
+        // unique summaries, as in real calendars, so nothing is shared between events
+        long beforeEvents = usedHeap();
+        List<CalendarEvent> uniqueEvents = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ZonedDateTime start = CALENDAR_START.plusMinutes(i * 30L);
+            uniqueEvents.add(new CalendarEvent("Quarterly planning session " + i, start, start.plusHours(1), false, false,
+                    "en-US", new String[] {"Work"}, "Building 4, room " + i));
+        }
+        long eventBytes = usedHeap() - beforeEvents;
+
+        //ACT
+        CompactCalendar calendar = new CompactCalendar();
+        uniqueEvents.forEach(calendar::add);
+        calendar.trimToSize();
+        long compactBytes = usedHeap() - beforeEvents - eventBytes;
+
+        //ASSERT
+        // measured at about 130 bytes per compact event and 510 per CalendarEvent
+        Assertions.assertEquals(uniqueEvents.size(), calendar.size());
+        Assertions.assertTrue(compactBytes * 3 < eventBytes,
+                "Compact storage used " + compactBytes + " bytes, the events " + eventBytes);
+    }
+
+    @Test
+    public void add_throws_on_null_event() {
+        //ARRANGE
+        CompactCalendar calendar = new CompactCalendar();
+
+        //ACT & ASSERT
+        Assertions.assertThrows(IllegalArgumentException.class, () -> calendar.add(null));
+    }
+
+    // helper methods
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
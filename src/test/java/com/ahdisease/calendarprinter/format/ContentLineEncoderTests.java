@@ -0,0 +1,84 @@
+package com.ahdisease.calendarprinter.format;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class ContentLineEncoderTests {
+
+    @Test
+    public void appendText_escapes_special_characters() throws IOException {
+        //ARRANGE
+        StringBuilder output = new StringBuilder();
+
+        //ACT
+        new ContentLineEncoder(output).append("LOCATION:").appendText("Hodgenville, Kentucky; \"Sinking Spring\"\\Farm\r\nUSA\nEarth");
+
+        //ASSERT
+        Assertions.assertEquals("LOCATION:Hodgenville\\, Kentucky\\; \"Sinking Spring\"\\\\Farm\\nUSA\\nEarth", output.toString());
+    }
+
+    @Test
+    public void appendEscaped_matches_appendText() throws IOException {
+        //ARRANGE
+        String category = "Civil War People, Union; \\ Confederacy, ".repeat(4);
+        StringBuilder expected = new StringBuilder();
+        new ContentLineEncoder(expected).append("CATEGORIES:").appendText(category);
+        String escaped = expected.substring("CATEGORIES:".length()).replace("\n ", "");
+        StringBuilder output = new StringBuilder();
+
+        //ACT
+        new ContentLineEncoder(output).append("CATEGORIES:").appendEscaped(escaped);
+
+        //ASSERT
+        Assertions.assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    public void append_leaves_short_lines_unchanged() throws IOException {
+        //ARRANGE
+        StringBuilder output = new StringBuilder();
+
+        //ACT
+        new ContentLineEncoder(output).append("BEGIN:VEVENT").append("\nSUMMARY:").appendText("Salle de réunion au 1er étage");
+
+        //ASSERT
+        Assertions.assertEquals("BEGIN:VEVENT\nSUMMARY:Salle de réunion au 1er étage", output.toString());
+    }
+
+    @Test
+    public void appendText_folds_lines_at_75_octets_without_splitting_characters() throws IOException {
+        //ARRANGE
+        StringBuilder output = new StringBuilder();
+        String location = "Salle de réunion au 1er étage, bâtiment é, à côté de la cafétéria 😀 près de l'entrée principale";
+
+        //ACT
+        new ContentLineEncoder(output).append("LOCATION:").appendText(location).append("\nEND:VEVENT");
+
+        //ASSERT
+        String[] lines = output.toString().split("\n");
+        Assertions.assertTrue(lines.length >= 3, "Long value should be folded");
+        for (String line : lines) {
+            Assertions.assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= ContentLineEncoder.MAX_LINE_OCTETS, "Line exceeds 75 octets: " + line);
+            Assertions.assertFalse(Character.isHighSurrogate(line.charAt(line.length() - 1)), "Surrogate pair should not be split");
+            Assertions.assertFalse(line.endsWith("\\") && !line.endsWith("\\\\"), "Escape sequence should not be split");
+        }
+        String unfolded = output.toString().replace("\n ", "");
+        Assertions.assertEquals("LOCATION:" + location.replace(",", "\\,") + "\nEND:VEVENT", unfolded);
+    }
+
+    @Test
+    public void append_resets_line_length_after_line_break() throws IOException {
+        //ARRANGE
+        StringBuilder output = new StringBuilder();
+        String seventyCharacters = "x".repeat(70);
+
+        //ACT
+        new ContentLineEncoder(output).append(seventyCharacters).append('\n').append(seventyCharacters);
+
+        //ASSERT
+        Assertions.assertEquals(seventyCharacters + "\n" + seventyCharacters, output.toString());
+    }
+}
@@ -0,0 +1,85 @@
+package com.ahdisease.calendarprinter.format;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+public class ICalendarDateEncoderTests {
+    private final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    // 0001-01-01T00:00:00Z and 9999-12-31T23:59:59Z
+    private final long MIN_EPOCH_SECOND = -62135596800L;
+    private final long MAX_EPOCH_SECOND = 253402300799L;
+
+    @Test
+    public void appendDateTime_matches_DateTimeFormatter() throws Exception {
+        //ARRANGE
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            long epochSecond = MIN_EPOCH_SECOND + (long) (random.nextDouble() * (MAX_EPOCH_SECOND - MIN_EPOCH_SECOND));
+            String expected = DATE_TIME_FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+
+            //ACT
+            StringBuilder actual = new StringBuilder();
+            ICalendarDateEncoder.appendDateTime(epochSecond, actual);
+
+            //ASSERT
+            Assertions.assertEquals(expected, actual.toString(), "Unexpected encoding of epoch second " + epochSecond);
+        }
+    }
+
+    @Test
+    public void encodeDateTime_writes_same_value_to_every_target() {
+        //ARRANGE
+        long epochSecond = 1679374800L; // 2023-03-21T05:00:00Z
+        char[] chars = new char[ICalendarDateEncoder.DATE_TIME_LENGTH + 2];
+        byte[] bytes = new byte[ICalendarDateEncoder.DATE_TIME_LENGTH];
+        ByteBuffer buffer = ByteBuffer.allocate(ICalendarDateEncoder.DATE_TIME_LENGTH + 1);
+        buffer.put((byte) ':');
+
+        //ACT
+        int charsEnd = ICalendarDateEncoder.encodeDateTime(epochSecond, chars, 2);
+        int bytesEnd = ICalendarDateEncoder.encodeDateTime(epochSecond, bytes, 0);
+        ICalendarDateEncoder.encodeDateTime(epochSecond, buffer);
+
+        //ASSERT
+        Assertions.assertEquals(18, charsEnd);
+        Assertions.assertEquals(16, bytesEnd);
+        Assertions.assertEquals("20230321T050000Z", new String(chars, 2, 16));
+        Assertions.assertEquals("20230321T050000Z", new String(bytes, StandardCharsets.US_ASCII));
+        Assertions.assertEquals(":20230321T050000Z", new String(buffer.array(), StandardCharsets.US_ASCII));
+        Assertions.assertEquals(17, buffer.position());
+    }
+
+    @Test
+    public void encodeDate_matches_LocalDate() throws Exception {
+        //ARRANGE
+        LocalDate[] dates = {LocalDate.of(1970, 1, 1), LocalDate.of(1969, 12, 31), LocalDate.of(2000, 2, 29), LocalDate.of(2100, 3, 1), LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31)};
+
+        for (LocalDate date : dates) {
+            //ACT
+            StringBuilder appended = new StringBuilder();
+            ICalendarDateEncoder.appendDate(date.toEpochDay(), appended);
+            char[] chars = new char[ICalendarDateEncoder.DATE_LENGTH];
+            ICalendarDateEncoder.encodeDate(date.toEpochDay(), chars, 0);
+
+            //ASSERT
+            Assertions.assertEquals(DATE_FORMATTER.format(date), appended.toString());
+            Assertions.assertEquals(DATE_FORMATTER.format(date), new String(chars));
+        }
+    }
+
+    @Test
+    public void encodeDateTime_throws_IllegalArgumentException_for_years_beyond_9999() {
+        //ACT & ASSERT
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ICalendarDateEncoder.encodeDateTime(MAX_EPOCH_SECOND + 1, new char[16], 0));
+    }
+}
@@ -0,0 +1,97 @@
+package com.ahdisease.calendarprinter.index;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CategoryIndexTests {
+    private final ZonedDateTime CALENDAR_START = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private final String[] CATEGORIES = {"HOLIDAY", "EDUCATION", "U.S. Presidents", "Civil War People", "Team, shared"};
+    private List<CalendarEvent> events;
+
+    @BeforeEach
+    public void createEvents() {
+        Random random = new Random(5);
+        events = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            ZonedDateTime start = CALENDAR_START.plusDays(random.nextInt(365));
+            List<String> categories = new ArrayList<>();
+            for (String category : CATEGORIES) {
+                if (random.nextInt(3) == 0) {
+                    categories.add(category);
+                }
+            }
+            String language = random.nextBoolean() ? "en-US" : null;
+            events.add(new CalendarEvent("Event " + i, start, start.plusHours(1), false, false, language,
+                    categories.isEmpty() ? null : categories.toArray(new String[0]), null));
+        }
+    }
+
+    @Test
+    public void withAllCategories_matches_linear_scan() {
+        //ARRANGE
+        CategoryIndex index = new CategoryIndex(events);
+
+        //ACT
+        List<CalendarEvent> actual = index.withAllCategories("HOLIDAY", "Team, shared");
+
+        //ASSERT
+        List<CalendarEvent> expected = events.stream()
+                .filter(event -> event.getCategories() != null)
+                .filter(event -> Arrays.asList(event.getCategories()).containsAll(List.of("HOLIDAY", "Team, shared")))
+                .toList();
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void withAnyCategory_matches_linear_scan() {
+        //ARRANGE
+        CategoryIndex index = new CategoryIndex(events);
+
+        //ACT
+        List<CalendarEvent> actual = index.withAnyCategory("EDUCATION", "Civil War People");
+
+        //ASSERT
+        List<CalendarEvent> expected = events.stream()
+                .filter(event -> event.getCategories() != null)
+                .filter(event -> Arrays.asList(event.getCategories()).contains("EDUCATION")
+                        || Arrays.asList(event.getCategories()).contains("Civil War People"))
+                .toList();
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void language_tag_is_indexed_as_category() {
+        //ARRANGE
+        CategoryIndex index = new CategoryIndex(events);
+
+        //ACT
+        int count = index.count("en-US");
+
+        //ASSERT
+        long expected = events.stream().filter(event -> event.getLanguageCategory() != null).count();
+        Assertions.assertEquals(expected, count);
+    }
+
+    @Test
+    public void unknown_category_matches_nothing() {
+        //ARRANGE
+        CategoryIndex index = new CategoryIndex(events);
+
+        //ACT
+        List<CalendarEvent> actual = index.withAllCategories("HOLIDAY", "Not a category in any calendar");
+
+        //ASSERT
+        Assertions.assertTrue(actual.isEmpty());
+        Assertions.assertEquals(0, index.count("Not a category in any calendar"));
+    }
+}
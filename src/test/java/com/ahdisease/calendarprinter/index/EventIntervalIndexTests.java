@@ -0,0 +1,98 @@
+package com.ahdisease.calendarprinter.index;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.RecurrenceRule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+public class EventIntervalIndexTests {
+    private final ZonedDateTime CALENDAR_START = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private List<CalendarEvent> events;
+
+    @BeforeEach
+    public void createEvents() {
+        Random random = new Random(7);
+        events = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            ZonedDateTime start = CALENDAR_START.plusMinutes(random.nextInt(365 * 24 * 60));
+            ZonedDateTime end = start.plusMinutes(random.nextInt(6 * 60));
+            CalendarEvent event = new CalendarEvent("Event " + i, start, end, false, random.nextBoolean(), null, null, null);
+            if (random.nextInt(10) == 0) {
+                event.cancelEvent();
+            }
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void overlapping_matches_linear_scan() {
+        //ARRANGE
+        EventIntervalIndex index = new EventIntervalIndex(events);
+        Random random = new Random(11);
+
+        for (int i = 0; i < 200; i++) {
+            ZonedDateTime from = CALENDAR_START.plusMinutes(random.nextInt(365 * 24 * 60));
+            ZonedDateTime to = from.plusMinutes(1 + random.nextInt(3 * 24 * 60));
+
+            //ACT
+            Set<CalendarEvent> actual = new HashSet<>(index.overlapping(from, to));
+
+            //ASSERT
+            Set<CalendarEvent> expected = new HashSet<>();
+            for (CalendarEvent event : events) {
+                if (event.getStartDate().isBefore(to) && (event.getEndDate().isAfter(from)
+                        || (event.getEndDate().equals(event.getStartDate()) && !event.getStartDate().isBefore(from)))) {
+                    expected.add(event);
+                }
+            }
+            Assertions.assertEquals(expected, actual, "Index should return the same events as a linear scan");
+        }
+    }
+
+    @Test
+    public void ofBusyEvents_excludes_transparent_and_cancelled_events() {
+        //ARRANGE
+        EventIntervalIndex index = EventIntervalIndex.ofBusyEvents(events);
+
+        //ACT
+        List<CalendarEvent> busyEvents = index.overlapping(CALENDAR_START, CALENDAR_START.plusYears(1));
+
+        //ASSERT
+        Assertions.assertFalse(busyEvents.isEmpty());
+        for (CalendarEvent event : busyEvents) {
+            Assertions.assertFalse(event.isTransparent());
+            Assertions.assertNotEquals(CalendarEvent.Status.CANCELLED, event.getStatus());
+        }
+    }
+
+    @Test
+    public void containing_returns_events_in_progress_at_instant() {
+        //ARRANGE
+        CalendarEvent morning = new CalendarEvent("Morning", CALENDAR_START.plusHours(9), CALENDAR_START.plusHours(12), false, false, null, null, null);
+        CalendarEvent lunch = new CalendarEvent("Lunch", CALENDAR_START.plusHours(12), CALENDAR_START.plusHours(13), false, false, null, null, null);
+        EventIntervalIndex index = new EventIntervalIndex(List.of(lunch, morning));
+
+        //ACT & ASSERT
+        Assertions.assertEquals(List.of(morning), index.containing(CALENDAR_START.plusHours(11)));
+        Assertions.assertEquals(List.of(lunch), index.containing(CALENDAR_START.plusHours(12)), "DTEND is exclusive");
+        Assertions.assertEquals(List.of(), index.containing(CALENDAR_START.plusHours(13)));
+    }
+
+    @Test
+    public void overlapping_includes_recurring_event_with_occurrence_in_window() {
+        //ARRANGE
+        CalendarEvent standup = new CalendarEvent("Standup", CALENDAR_START.plusHours(9), CALENDAR_START.plusHours(10), false, false, null, null, null);
+        standup.setRecurrenceRule(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO"));
+        EventIntervalIndex index = new EventIntervalIndex(List.of(standup));
+
+        //ACT & ASSERT
+        // 2023-06-05 is a Monday
+        Assertions.assertEquals(List.of(standup), index.containing(ZonedDateTime.of(2023, 6, 5, 9, 30, 0, 0, ZoneOffset.UTC)));
+        Assertions.assertEquals(List.of(), index.containing(ZonedDateTime.of(2023, 6, 6, 9, 30, 0, 0, ZoneOffset.UTC)));
+    }
+}
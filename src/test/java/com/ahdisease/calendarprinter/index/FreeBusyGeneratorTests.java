@@ -0,0 +1,52 @@
+package com.ahdisease.calendarprinter.index;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public class FreeBusyGeneratorTests {
+    private final ZonedDateTime MONDAY = ZonedDateTime.of(2023, 10, 23, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    public void busyPeriods_merges_overlapping_and_adjacent_events() {
+        //ARRANGE
+        CalendarEvent meeting = new CalendarEvent("Meeting", MONDAY.plusHours(9), MONDAY.plusHours(10), false, false, null, null, null);
+        CalendarEvent overlappingMeeting = new CalendarEvent("Overlapping", MONDAY.plusHours(9).plusMinutes(30), MONDAY.plusHours(11), false, false, null, null, null);
+        CalendarEvent adjacentMeeting = new CalendarEvent("Adjacent", MONDAY.plusHours(11), MONDAY.plusHours(12), false, false, null, null, null);
+        CalendarEvent afternoon = new CalendarEvent("Afternoon", MONDAY.plusHours(14), MONDAY.plusHours(15), false, false, null, null, null);
+        CalendarEvent holiday = new CalendarEvent("Holiday", MONDAY, MONDAY.plusDays(1), false, true, null, null, null);
+        CalendarEvent cancelled = new CalendarEvent("Cancelled", MONDAY.plusHours(16), MONDAY.plusHours(17), false, false, null, null, null);
+        cancelled.cancelEvent();
+        FreeBusyGenerator generator = new FreeBusyGenerator(List.of(afternoon, holiday, adjacentMeeting, meeting, cancelled, overlappingMeeting));
+
+        //ACT
+        List<BusyPeriod> periods = generator.busyPeriods(MONDAY, MONDAY.plusDays(1));
+
+        //ASSERT
+        Assertions.assertEquals(List.of(
+                new BusyPeriod(MONDAY.plusHours(9).toInstant(), MONDAY.plusHours(12).toInstant()),
+                new BusyPeriod(MONDAY.plusHours(14).toInstant(), MONDAY.plusHours(15).toInstant())
+        ), periods);
+    }
+
+    @Test
+    public void toFreeBusyString_lists_busy_periods_clipped_to_window() {
+        //ARRANGE
+        CalendarEvent meeting = new CalendarEvent("Meeting", MONDAY.plusHours(9), MONDAY.plusHours(10), false, false, null, null, null);
+        FreeBusyGenerator generator = new FreeBusyGenerator(List.of(meeting));
+
+        //ACT
+        String[] lines = generator.toFreeBusyString(MONDAY.plusHours(9).plusMinutes(30), MONDAY.plusDays(1)).split("\n");
+
+        //ASSERT
+        Assertions.assertEquals("BEGIN:VFREEBUSY", lines[0]);
+        Assertions.assertEquals("DTSTART:20231023T093000Z", lines[3]);
+        Assertions.assertEquals("DTEND:20231024T000000Z", lines[4]);
+        Assertions.assertEquals("FREEBUSY:20231023T093000Z/20231023T100000Z", lines[5]);
+        Assertions.assertEquals("END:VFREEBUSY", lines[6]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ahdisease.calendarprinter.metrics;
+
+import com.ahdisease.calendarprinter.CalendarFileWriter;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public class CalendarMetricsTests {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("America/Chicago"));
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    public void setup() {
+        // CalendarMetrics registers its meters statically; the registry receives them when it is added
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    public void addCalendarEvent_counts_accepted_and_duplicate_events(@TempDir Path directory) {
+        //ARRANGE
+        CalendarFileWriter writer = new CalendarFileWriter("metrics.ics", directory.toString());
+        CalendarEvent event = new CalendarEvent("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), false, false, null, null, null);
+
+        //ACT
+        writer.addCalendarEvent(event);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> writer.addCalendarEvent(event));
+
+        //ASSERT
+        Assertions.assertEquals(1, registry.get("calendar.ingest.events").counter().count());
+        Assertions.assertEquals(1, registry.get("calendar.ingest.duplicates").counter().count());
+    }
+
+    @Test
+    public void addCalendarEvents_times_each_batch(@TempDir Path directory) {
+        //ARRANGE
+        CalendarFileWriter writer = new CalendarFileWriter("metrics.ics", directory.toString());
+        long batches = registry.get("calendar.ingest").timer().count();
+
+        //ACT
+        writer.addCalendarEvents(List.of(
+                new CalendarEvent("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), false, false, null, null, null),
+                new CalendarEvent("Review", OCTOBER_22_3PM.plusDays(1), OCTOBER_22_3PM.plusDays(1).plusHours(1), false, false, null, null, null)));
+
+        //ASSERT
+        Assertions.assertEquals(1, registry.get("calendar.ingest").timer().count() - batches);
+    }
+
+    @Test
+    public void writeEventsToFile_records_serialization_and_bytes_written(@TempDir Path directory) throws Exception {
+        //ARRANGE
+        CalendarFileWriter writer = new CalendarFileWriter("metrics.ics", directory.toString());
+        List<CalendarEvent> events = List.of(
+                new CalendarEvent("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), false, false, "en-US", new String[] {"Work"}, null),
+                new CalendarEvent("Review", OCTOBER_22_3PM.plusDays(1), OCTOBER_22_3PM.plusDays(1).plusHours(1), false, false, null, null, null));
+        writer.addCalendarEvents(events);
+
+        //ACT
+        Path file = writer.writeEventsToFile().toPath();
+
+        //ASSERT
+        Assertions.assertEquals(2, registry.get("calendar.event.serialize").timer().count());
+        Assertions.assertEquals(2, registry.get("calendar.event.size").summary().count());
+        Assertions.assertEquals(events.get(0).getEncodedLength() + events.get(1).getEncodedLength(),
+                registry.get("calendar.event.size").summary().totalAmount());
+        // "Work" and the en-US language tag
+        Assertions.assertEquals(2, registry.get("calendar.event.categories").summary().totalAmount());
+        Assertions.assertEquals(1, registry.get("calendar.export.write").tag("export", "full").timer().count());
+        Assertions.assertEquals(Files.size(file), registry.get("calendar.export.bytes").counter().count());
+    }
+}
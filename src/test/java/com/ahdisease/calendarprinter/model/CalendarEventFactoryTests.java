@@ -0,0 +1,139 @@
+package com.ahdisease.calendarprinter.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+public class CalendarEventFactoryTests {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("America/Chicago"));
+
+    @Test
+    public void isLanguageTag_matches_language_pattern() {
+        //ARRANGE
+        String[] tags = {"en", "eng", "en-US", "zh-CN-Hans", "zh-CHN-hant", "e", "engl", "EN", "en-us", "en-U",
+                "en-USAA", "en-US-Han", "en-US-Hansx", "en_US", "en-", "en-US-", "", "en-US-Ha1s", "én"};
+
+        for (String tag : tags) {
+            //ACT
+            boolean actual = CalendarEventFactory.isLanguageTag(tag);
+
+            //ASSERT
+            Assertions.assertEquals(tag.matches(CalendarEvent.LANGUAGE_PATTERN_FORMAT), actual, "Mismatch for '" + tag + "'");
+        }
+    }
+
+    @Test
+    public void toLocale_returns_cached_locale_for_valid_tags() {
+        //ACT
+        Locale first = CalendarEventFactory.toLocale("es-MX");
+        Locale second = CalendarEventFactory.toLocale("es-MX");
+
+        //ASSERT
+        Assertions.assertEquals(Locale.forLanguageTag("es-MX"), first);
+        Assertions.assertSame(first, second);
+        Assertions.assertNull(CalendarEventFactory.toLocale("Spanish"));
+        Assertions.assertNull(CalendarEventFactory.toLocale(null));
+    }
+
+    @Test
+    public void batch_shares_one_created_date() {
+        //ARRANGE
+        MutableClock clock = new MutableClock(Instant.parse("2023-10-01T12:00:00Z"));
+        CalendarEventFactory batch = new CalendarEventFactory(clock).batch();
+
+        //ACT
+        CalendarEvent first = batch.meeting("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), "Room 1");
+        clock.advance(Duration.ofMinutes(5));
+        CalendarEvent second = batch.meeting("Review", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), "Room 2");
+
+        //ASSERT
+        Assertions.assertSame(first.getCreatedDate(), second.getCreatedDate());
+        Assertions.assertNotEquals(first.getUuid(), second.getUuid());
+    }
+
+    @Test
+    public void factory_without_batch_reads_clock_per_event() {
+        //ARRANGE
+        MutableClock clock = new MutableClock(Instant.parse("2023-10-01T12:00:00Z"));
+        CalendarEventFactory factory = new CalendarEventFactory(clock);
+
+        //ACT
+        CalendarEvent first = factory.meeting("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), "Room 1");
+        clock.advance(Duration.ofMinutes(5));
+        CalendarEvent second = factory.meeting("Review", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), "Room 2");
+
+        //ASSERT
+        Assertions.assertEquals(Duration.ofMinutes(5), Duration.between(first.getCreatedDate(), second.getCreatedDate()));
+    }
+
+    @Test
+    public void holiday_spans_whole_day_and_is_transparent() {
+        //ARRANGE
+        CalendarEventFactory factory = new CalendarEventFactory();
+
+        //ACT
+        CalendarEvent holiday = factory.holiday("Lincoln's Birthday", OCTOBER_22_3PM, "en-US");
+
+        //ASSERT
+        Assertions.assertEquals(OCTOBER_22_3PM.toLocalDate().atStartOfDay(OCTOBER_22_3PM.getZone()), holiday.getStartDate());
+        Assertions.assertEquals(holiday.getStartDate().plusDays(1), holiday.getEndDate());
+        Assertions.assertTrue(holiday.isTransparent());
+        Assertions.assertEquals(CalendarEvent.Status.CONFIRMED, holiday.getStatus());
+        Assertions.assertArrayEquals(new String[] {CalendarEventFactory.HOLIDAY_CATEGORY}, holiday.getCategories());
+        Assertions.assertEquals(Locale.forLanguageTag("en-US"), holiday.getLanguageCategory());
+    }
+
+    @Test
+    public void meeting_templates_set_status_and_transparency() {
+        //ARRANGE
+        CalendarEventFactory factory = new CalendarEventFactory();
+        ZonedDateTime end = OCTOBER_22_3PM.plusHours(1);
+
+        //ACT
+        CalendarEvent meeting = factory.meeting("Planning", OCTOBER_22_3PM, end, null);
+        CalendarEvent tentative = factory.tentativeMeeting("Planning", OCTOBER_22_3PM, end, null);
+        CalendarEvent optional = factory.optionalMeeting("Planning", OCTOBER_22_3PM, end, null);
+
+        //ASSERT
+        Assertions.assertEquals(CalendarEvent.Status.CONFIRMED, meeting.getStatus());
+        Assertions.assertFalse(meeting.isTransparent());
+        Assertions.assertEquals(CalendarEvent.Status.TENTATIVE, tentative.getStatus());
+        Assertions.assertFalse(tentative.isTransparent());
+        Assertions.assertEquals(CalendarEvent.Status.TENTATIVE, optional.getStatus());
+        Assertions.assertTrue(optional.isTransparent());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
@@ -191,6 +194,81 @@ public class CalendarEventTests {
         //ASSERT
     }
 
+    @Test
+    public void writeTo_reuses_cached_encoding_for_unchanged_event() throws IOException {
+        //ARRANGE
+        ByteArrayOutputStream firstWrite = new ByteArrayOutputStream();
+        ByteArrayOutputStream secondWrite = new ByteArrayOutputStream();
+        long missesBefore = CalendarEvent.getEncodingCacheMisses();
+        long hitsBefore = CalendarEvent.getEncodingCacheHits();
+
+        //ACT
+        event2.writeTo(firstWrite);
+        event2.writeTo(secondWrite);
+
+        //ASSERT
+        Assertions.assertEquals(event2.toString(), firstWrite.toString(StandardCharsets.UTF_8), "Encoded bytes should match toString");
+        Assertions.assertArrayEquals(firstWrite.toByteArray(), secondWrite.toByteArray());
+        Assertions.assertEquals(1, CalendarEvent.getEncodingCacheMisses() - missesBefore, "Only the first write should encode the event");
+        Assertions.assertEquals(1, CalendarEvent.getEncodingCacheHits() - hitsBefore, "The second write should reuse the cached encoding");
+    }
+
+    @Test
+    public void cancelEvent_invalidates_cached_encoding_and_bumps_sequence() throws IOException {
+        //ARRANGE
+        ByteArrayOutputStream beforeCancel = new ByteArrayOutputStream();
+        ByteArrayOutputStream afterCancel = new ByteArrayOutputStream();
+        event3.writeTo(beforeCancel);
+
+        //ACT
+        event3.cancelEvent();
+        event3.writeTo(afterCancel);
+
+        //ASSERT
+        Assertions.assertEquals(1, event3.getSequence(), "Cancelling a tentative event is a significant revision");
+        Assertions.assertEquals(event3.toString(), afterCancel.toString(StandardCharsets.UTF_8));
+        Assertions.assertTrue(afterCancel.toString(StandardCharsets.UTF_8).contains("\nSTATUS:CANCELLED\n"));
+        Assertions.assertTrue(afterCancel.toString(StandardCharsets.UTF_8).contains("\nSEQUENCE:1\n"));
+    }
+
+    @Test
+    public void writeTo_discards_encoding_formatted_while_event_changed() throws IOException {
+        //ARRANGE
+        // cancels the event while its first encoding is being formatted, as a concurrent mutator could
+        CalendarEvent event = new CalendarEvent("Rencontre hebdomadaire", FIRST_WEEKLY_MEETING_TIME,
+                FIRST_WEEKLY_MEETING_TIME.plusMinutes(30), true, false, "fr", null, "Salle 1") {
+            private boolean cancelled;
+
+            @Override
+            public String toString() {
+                String text = super.toString();
+                if (!cancelled) {
+                    cancelled = true;
+                    cancelEvent();
+                }
+                return text;
+            }
+        };
+        event.writeTo(new ByteArrayOutputStream());
+
+        //ACT
+        ByteArrayOutputStream afterCancel = new ByteArrayOutputStream();
+        event.writeTo(afterCancel);
+
+        //ASSERT
+        Assertions.assertTrue(afterCancel.toString(StandardCharsets.UTF_8).contains("\nSTATUS:CANCELLED\n"),
+                "An encoding formatted before the change should not be reused");
+    }
+
+    @Test
+    public void confirmEvent_does_not_bump_sequence_of_confirmed_event() {
+        //ACT
+        event1.confirmEvent();
+
+        //ASSERT
+        Assertions.assertEquals(0, event1.getSequence());
+    }
+
     //helper methods
     private int getPropertyLineIndexFromToString(CalendarEvent event, String propertyName) {
         String[] eventStrings = event.toString().split("\n");
@@ -0,0 +1,26 @@
+package com.ahdisease.calendarprinter.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CategoryDictionaryTests {
+
+    @Test
+    public void intern_stops_adding_values_at_capacity() {
+        //ARRANGE
+        CategoryDictionary dictionary = new CategoryDictionary(2);
+        int work = dictionary.intern("Work");
+        int team = dictionary.intern("Team, shared");
+
+        //ACT
+        int full = dictionary.intern("Offsite");
+
+        //ASSERT
+        Assertions.assertEquals(CategoryDictionary.NOT_INTERNED, full);
+        Assertions.assertEquals(work, dictionary.intern("Work"), "Values already interned keep their id");
+        Assertions.assertEquals("Team\\, shared", dictionary.getEscaped(team));
+        Assertions.assertEquals(CategoryDictionary.NULL_ID, dictionary.idOf("Offsite"));
+        Assertions.assertEquals(2, dictionary.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CategoryDictionary(0));
+    }
+}
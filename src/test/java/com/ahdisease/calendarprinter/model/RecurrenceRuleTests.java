@@ -0,0 +1,154 @@
+package com.ahdisease.calendarprinter.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class RecurrenceRuleTests {
+    private final ZoneId EASTERN = ZoneId.of("America/New_York");
+    private final ZonedDateTime FIRST_WEEKLY_MEETING_TIME = ZonedDateTime.of(2023, 10, 23, 9, 0, 0, 0, EASTERN);
+
+    @Test
+    public void parse_and_toString_round_trip() {
+        //ARRANGE
+        String[] rules = {
+                "FREQ=YEARLY;INTERVAL=1;BYMONTH=2;BYMONTHDAY=12",
+                "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE,FR;COUNT=10",
+                "FREQ=MONTHLY;INTERVAL=1;BYMONTHDAY=1,-1;UNTIL=20241231T235959Z"
+        };
+
+        //ACT & ASSERT
+        for (String rule : rules) {
+            Assertions.assertEquals(rule, RecurrenceRule.parse(rule).toString());
+        }
+    }
+
+    @Test
+    public void parse_throws_IllegalArgumentException_for_invalid_rules() {
+        //ACT & ASSERT
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("INTERVAL=1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=HOURLY"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=1MO"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;COUNT=2;UNTIL=20240101"));
+    }
+
+    @Test
+    public void occurrences_expands_weekly_rule_within_window() {
+        //ARRANGE
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,TH");
+
+        //ACT
+        List<ZonedDateTime> occurrences = collect(rule.occurrences(FIRST_WEEKLY_MEETING_TIME,
+                ZonedDateTime.of(2023, 11, 1, 0, 0, 0, 0, EASTERN),
+                ZonedDateTime.of(2023, 11, 10, 0, 0, 0, 0, EASTERN)));
+
+        //ASSERT
+        Assertions.assertEquals(List.of(
+                ZonedDateTime.of(2023, 11, 2, 9, 0, 0, 0, EASTERN),
+                ZonedDateTime.of(2023, 11, 6, 9, 0, 0, 0, EASTERN),
+                ZonedDateTime.of(2023, 11, 9, 9, 0, 0, 0, EASTERN)
+        ), occurrences);
+    }
+
+    @Test
+    public void occurrences_respects_count_from_first_occurrence() {
+        //ARRANGE
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2;COUNT=5");
+
+        //ACT
+        List<ZonedDateTime> occurrences = collect(rule.occurrences(FIRST_WEEKLY_MEETING_TIME,
+                FIRST_WEEKLY_MEETING_TIME.plusDays(3), FIRST_WEEKLY_MEETING_TIME.plusYears(1)));
+
+        //ASSERT
+        Assertions.assertEquals(List.of(
+                FIRST_WEEKLY_MEETING_TIME.plusDays(4),
+                FIRST_WEEKLY_MEETING_TIME.plusDays(6),
+                FIRST_WEEKLY_MEETING_TIME.plusDays(8)
+        ), occurrences);
+    }
+
+    @Test
+    public void occurrences_skips_months_without_matching_day() {
+        //ARRANGE
+        ZonedDateTime lastDayOfJanuary = ZonedDateTime.of(2024, 1, 31, 12, 0, 0, 0, EASTERN);
+        RecurrenceRule rule = new RecurrenceRule(RecurrenceRule.Frequency.MONTHLY, 1, null, null, null, 0, null);
+
+        //ACT
+        List<ZonedDateTime> occurrences = collect(rule.occurrences(lastDayOfJanuary, lastDayOfJanuary, lastDayOfJanuary.plusMonths(4)));
+
+        //ASSERT
+        Assertions.assertEquals(List.of(
+                lastDayOfJanuary,
+                ZonedDateTime.of(2024, 3, 31, 12, 0, 0, 0, EASTERN)
+        ), occurrences);
+    }
+
+    @Test
+    public void occurrences_in_late_window_match_full_expansion() {
+        //ARRANGE
+        ZonedDateTime lincolnsBirthday = ZonedDateTime.of(1810, 2, 12, 0, 0, 0, 0, EASTERN);
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;INTERVAL=3;BYDAY=SA,SU;UNTIL=21000101T000000Z");
+        ZonedDateTime windowStart = ZonedDateTime.of(2023, 6, 1, 0, 0, 0, 0, EASTERN);
+        ZonedDateTime windowEnd = ZonedDateTime.of(2024, 6, 1, 0, 0, 0, 0, EASTERN);
+
+        //ACT
+        List<ZonedDateTime> windowed = collect(rule.occurrences(lincolnsBirthday, windowStart, windowEnd));
+        List<ZonedDateTime> fullExpansion = new ArrayList<>();
+        rule.occurrences(lincolnsBirthday, lincolnsBirthday, windowEnd).forEachRemaining(occurrence -> {
+            if (!occurrence.isBefore(windowStart)) {
+                fullExpansion.add(occurrence);
+            }
+        });
+
+        //ASSERT
+        Assertions.assertFalse(windowed.isEmpty());
+        Assertions.assertEquals(fullExpansion, windowed, "Skipping ahead should not change which occurrences are produced");
+        for (ZonedDateTime occurrence : windowed) {
+            Assertions.assertTrue(occurrence.getDayOfWeek() == DayOfWeek.SATURDAY || occurrence.getDayOfWeek() == DayOfWeek.SUNDAY);
+        }
+    }
+
+    @Test
+    public void calendarEvent_toString_includes_RRULE_line() {
+        //ARRANGE
+        CalendarEvent weeklyMeeting = new CalendarEvent("Rencontre hebdomadaire", FIRST_WEEKLY_MEETING_TIME, FIRST_WEEKLY_MEETING_TIME.plusMinutes(30), false, false, null, null, null);
+
+        //ACT
+        weeklyMeeting.setRecurrenceRule(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO"));
+        String[] lines = weeklyMeeting.toString().split("\n");
+
+        //ASSERT
+        Assertions.assertEquals("TRANSP:OPAQUE", lines[5]);
+        Assertions.assertEquals("RRULE:FREQ=WEEKLY;INTERVAL=1;BYDAY=MO", lines[6]);
+        Assertions.assertEquals(1, weeklyMeeting.getSequence(), "Setting a recurrence rule is a significant revision");
+    }
+
+    @Test
+    public void setRecurrenceRule_keeps_sequence_for_equal_rule() {
+        //ARRANGE
+        CalendarEvent weeklyMeeting = new CalendarEvent("Rencontre hebdomadaire", FIRST_WEEKLY_MEETING_TIME, FIRST_WEEKLY_MEETING_TIME.plusMinutes(30), false, false, null, null, null);
+        weeklyMeeting.setRecurrenceRule(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO"));
+
+        //ACT
+        weeklyMeeting.setRecurrenceRule(RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO"));
+        int sequenceAfterEqualRule = weeklyMeeting.getSequence();
+        weeklyMeeting.setRecurrenceRule(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=TU"));
+
+        //ASSERT
+        Assertions.assertEquals(1, sequenceAfterEqualRule, "An equal rule is not a revision");
+        Assertions.assertEquals(2, weeklyMeeting.getSequence());
+    }
+
+    //helper methods
+    private List<ZonedDateTime> collect(Iterator<ZonedDateTime> occurrences) {
+        List<ZonedDateTime> collected = new ArrayList<>();
+        occurrences.forEachRemaining(collected::add);
+        return collected;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ahdisease.calendarprinter.persistence;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.RecurrenceRule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@JdbcTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:calendar_printer;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CalendarEventRepository.class)
+public class CalendarEventRepositoryTests {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("America/Chicago"));
+    private final String[] CATEGORIES = {"EDUCATION", "Club, after school"};
+
+    @Autowired
+    private CalendarEventRepository repository;
+
+    @Test
+    public void saveAll_round_trips_every_property() {
+        //ARRANGE
+        CalendarEvent event = new CalendarEvent("Spanish Club; weekly", UUID.randomUUID(), 2, CalendarEvent.Status.TENTATIVE, true,
+                RecurrenceRule.parse("FREQ=WEEKLY;COUNT=5"), OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), OCTOBER_22_3PM.minusDays(1),
+                Locale.forLanguageTag("es-MX"), CATEGORIES, "Classroom 102");
+
+        //ACT
+        repository.saveAll(List.of(event));
+        CalendarEvent stored = repository.findByUid(event.getUuid()).orElseThrow();
+
+        //ASSERT
+        Assertions.assertEquals(event.toString(), stored.toString());
+        Assertions.assertEquals(event.getStartDate(), stored.getStartDate());
+        Assertions.assertArrayEquals(CATEGORIES, stored.getCategories());
+    }
+
+    @Test
+    public void saveAll_keeps_highest_sequence() {
+        //ARRANGE
+        UUID uid = UUID.randomUUID();
+        CalendarEvent original = revision(uid, 1, "Original", new String[] {"A", "B"});
+        CalendarEvent revised = revision(uid, 3, "Revised", new String[] {"C"});
+        CalendarEvent stale = revision(uid, 2, "Stale", null);
+
+        //ACT
+        repository.saveAll(List.of(original));
+        repository.saveAll(List.of(revised));
+        repository.saveAll(List.of(stale));
+        CalendarEvent stored = repository.findByUid(uid).orElseThrow();
+
+        //ASSERT
+        Assertions.assertEquals(3, stored.getSequence());
+        Assertions.assertEquals("Revised", stored.getSummary());
+        Assertions.assertArrayEquals(new String[] {"C"}, stored.getCategories());
+    }
+
+    @Test
+    public void saveAll_ignores_equal_sequence() {
+        //ARRANGE
+        UUID uid = UUID.randomUUID();
+        CalendarEvent original = revision(uid, 1, "Original", new String[] {"A"});
+        CalendarEvent other = revision(uid, 1, "Other", new String[] {"B"});
+
+        //ACT
+        repository.saveAll(List.of(original));
+        repository.saveAll(List.of(other));
+        CalendarEvent stored = repository.findByUid(uid).orElseThrow();
+
+        //ASSERT
+        Assertions.assertEquals("Original", stored.getSummary());
+        Assertions.assertArrayEquals(new String[] {"A"}, stored.getCategories(), "Categories must belong to the stored revision");
+    }
+
+    @Test
+    public void saveAll_handles_several_statements_and_duplicate_uids() {
+        //ARRANGE
+        List<CalendarEvent> events = new ArrayList<>();
+        for (int i = 0; i < CalendarEventRepository.ROWS_PER_STATEMENT * 2 + 17; i++) {
+            events.add(new CalendarEvent("Event " + i, OCTOBER_22_3PM.plusHours(i), OCTOBER_22_3PM.plusHours(i + 1), false, false, null, CATEGORIES, null));
+        }
+        UUID duplicated = events.get(5).getUuid();
+        events.add(6, revision(duplicated, 4, "Duplicate", null));
+
+        //ACT
+        repository.saveAll(events);
+
+        //ASSERT
+        Assertions.assertEquals(events.size() - 1, repository.count());
+        Assertions.assertEquals("Duplicate", repository.findByUid(duplicated).orElseThrow().getSummary());
+    }
+
+    @Test
+    public void streamAll_returns_events_in_start_order_across_pages() {
+        //ARRANGE
+        List<CalendarEvent> events = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            // several events share each start, so pages have to be split on the UID
+            ZonedDateTime start = OCTOBER_22_3PM.plusDays(i % 40);
+            events.add(new CalendarEvent("Event " + i, start, start.plusHours(1), false, false, null, i % 3 == 0 ? CATEGORIES : null, null));
+        }
+        repository.saveAll(events);
+
+        //ACT
+        List<CalendarEvent> streamed = repository.streamAll(7).toList();
+
+        //ASSERT
+        Assertions.assertEquals(events.size(), streamed.size());
+        for (int i = 1; i < streamed.size(); i++) {
+            Assertions.assertFalse(streamed.get(i).getStartDate().isBefore(streamed.get(i - 1).getStartDate()), "Events should be in start order");
+        }
+        for (CalendarEvent event : streamed) {
+            Assertions.assertEquals(repository.findByUid(event.getUuid()).orElseThrow().toString(), event.toString());
+        }
+    }
+
+    @Test
+    public void exportTo_writes_calendar() throws IOException {
+        //ARRANGE
+        CalendarEvent event = new CalendarEvent("Spanish Club", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), false, false, "es-MX", CATEGORIES, "Classroom 102");
+        repository.saveAll(List.of(event));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //ACT
+        repository.exportTo(out);
+
+        //ASSERT
+        String calendar = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(calendar.startsWith("BEGIN:VCALENDAR"));
+        Assertions.assertTrue(calendar.contains(event.getUuid().toString()));
+        Assertions.assertTrue(calendar.endsWith("END:VCALENDAR"));
+    }
+
+    private CalendarEvent revision(UUID uid, int sequence, String summary, String[] categories) {
+        return new CalendarEvent(summary, uid, sequence, CalendarEvent.Status.CONFIRMED, false, null,
+                OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), OCTOBER_22_3PM, null, categories, null);
+    }
+}
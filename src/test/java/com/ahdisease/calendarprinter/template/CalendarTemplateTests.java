@@ -0,0 +1,187 @@
+package com.ahdisease.calendarprinter.template;
+
+import com.ahdisease.calendarprinter.CalendarFileWriter;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+public class CalendarTemplateTests {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneId.of("EST", ZoneId.SHORT_IDS));
+    private final UUID UID = UUID.fromString("c7614cff-3549-4a00-9152-d25cc1fe077d");
+
+    @Test
+    public void defaultTemplate_writes_icalendar_org_header() throws IOException {
+        //ARRANGE
+        CalendarEvent event = createEvent();
+
+        //ACT
+        ByteArrayOutputStream calendar = new ByteArrayOutputStream();
+        CalendarTemplate.defaultTemplate().writeCalendar(List.of(event), calendar);
+
+        //ASSERT
+        String expected = "BEGIN:VCALENDAR\n" +
+                "VERSION:2.0\n" +
+                "PRODID:-//ZContent.net//Zap Calendar 1.0//EN\n" +
+                "CALSCALE:GREGORIAN\n" +
+                "METHOD:PUBLISH\n" +
+                event +
+                "\nEND:VCALENDAR";
+        Assertions.assertEquals(expected, calendar.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void compile_applies_tenant_header_and_event_layout() throws IOException {
+        //ARRANGE
+        CalendarTemplate template = CalendarTemplate.builder()
+                .productId("-//Example School//Club Calendar//EN")
+                .calendarScale(null)
+                .method("REQUEST")
+                .property("X-WR-CALNAME", "Clubs")
+                .eventLayout("BEGIN:VEVENT\n" +
+                        "UID:{uid}\n" +
+                        "SUMMARY:{summary}\n" +
+                        "CLASS:PUBLIC\n" +
+                        "RRULE:{rrule}\n" +
+                        "DTSTART:{dtstart}\n" +
+                        "CATEGORIES:{categories}\n" +
+                        "END:VEVENT")
+                .compile();
+
+        //ACT
+        ByteArrayOutputStream calendar = new ByteArrayOutputStream();
+        template.writeCalendar(List.of(createEvent()), calendar);
+
+        //ASSERT
+        String expected = "BEGIN:VCALENDAR\n" +
+                "VERSION:2.0\n" +
+                "PRODID:-//Example School//Club Calendar//EN\n" +
+                "METHOD:REQUEST\n" +
+                "X-WR-CALNAME:Clubs\n" +
+                "BEGIN:VEVENT\n" +
+                "UID:c7614cff-3549-4a00-9152-d25cc1fe077d\n" +
+                "SUMMARY:Spanish Club\\, Beginners\n" +
+                "CLASS:PUBLIC\n" +
+                "DTSTART:20231022T200000Z\n" +
+                "CATEGORIES:EDUCATION,es\n" +
+                "END:VEVENT\n" +
+                "END:VCALENDAR";
+        Assertions.assertEquals(expected, calendar.toString(StandardCharsets.UTF_8));
+        Assertions.assertFalse(template.hasDefaultEventLayout());
+        Assertions.assertNotEquals(CalendarTemplate.defaultTemplate().getFingerprint(), template.getFingerprint());
+    }
+
+    @Test
+    public void writeEvent_folds_long_literal_and_field_across_segments() throws IOException {
+        //ARRANGE
+        String longLiteral = "A".repeat(100);
+        CalendarTemplate template = CalendarTemplate.builder()
+                .eventLayout("BEGIN:VEVENT\nX-NOTE:" + longLiteral + "\nSUMMARY:{summary}\nEND:VEVENT")
+                .compile();
+        CalendarEvent event = new CalendarEvent("B".repeat(100), UID, 0, CalendarEvent.Status.CONFIRMED, false, null,
+                OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), OCTOBER_22_3PM, null, null, null);
+
+        //ACT
+        StringBuilder written = new StringBuilder();
+        template.writeEvent(event, written);
+
+        //ASSERT
+        String expected = "BEGIN:VEVENT\n" +
+                "X-NOTE:" + "A".repeat(68) + "\n " + "A".repeat(32) + "\n" +
+                "SUMMARY:" + "B".repeat(67) + "\n " + "B".repeat(33) + "\n" +
+                "END:VEVENT";
+        Assertions.assertEquals(expected, written.toString());
+    }
+
+    @Test
+    public void compile_rejects_invalid_layouts() {
+        //ACT & ASSERT
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CalendarTemplate.builder().eventLayout("SUMMARY:{summary}\nEND:VEVENT").compile());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CalendarTemplate.builder().eventLayout("BEGIN:VEVENT\nSUMMARY:{title}\nEND:VEVENT").compile());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CalendarTemplate.builder().eventLayout("BEGIN:VEVENT\nSUMMARY:Club {summary}\nEND:VEVENT").compile());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CalendarTemplate.builder().eventLayout("BEGIN:VEVENT\nnot a property\nEND:VEVENT").compile());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CalendarTemplate.builder().productId(null));
+    }
+
+    @Test
+    public void calendarFileWriter_writes_with_template(@TempDir Path directory) throws IOException {
+        //ARRANGE
+        CalendarTemplate template = CalendarTemplate.builder().method("REQUEST").compile();
+        CalendarFileWriter writer = new CalendarFileWriter("tenant.ics", directory.toString());
+        writer.addCalendarEvent(createEvent());
+        writer.setTemplate(template);
+
+        //ACT
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        writer.writeEventsTo(written);
+
+        //ASSERT
+        String calendar = written.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(calendar.contains("\nMETHOD:REQUEST\n"));
+        Assertions.assertEquals(writer.toString(), calendar);
+    }
+
+    @Test
+    public void writeEvent_looks_up_cached_encoding_once() throws IOException {
+        //ARRANGE
+        CalendarEvent event = createEvent();
+        CalendarTemplate template = CalendarTemplate.defaultTemplate();
+        template.writeEvent(event, OutputStream.nullOutputStream());
+        long hits = CalendarEvent.getEncodingCacheHits();
+
+        //ACT
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        int length = template.writeEvent(event, written);
+
+        //ASSERT
+        Assertions.assertEquals(1, CalendarEvent.getEncodingCacheHits() - hits);
+        Assertions.assertEquals(written.size(), length);
+    }
+
+    @Test
+    public void writeEvent_caches_custom_layout_until_event_changes() throws IOException {
+        //ARRANGE
+        CalendarEvent event = createEvent();
+        CalendarTemplate template = CalendarTemplate.builder()
+                .eventLayout("BEGIN:VEVENT\nUID:{uid}\nSTATUS:{status}\nEND:VEVENT")
+                .compile();
+        template.writeEvent(event, OutputStream.nullOutputStream());
+        long misses = CalendarEvent.getEncodingCacheMisses();
+
+        //ACT
+        ByteArrayOutputStream cached = new ByteArrayOutputStream();
+        template.writeEvent(event, cached);
+        long missesWhileCached = CalendarEvent.getEncodingCacheMisses() - misses;
+        event.cancelEvent();
+        ByteArrayOutputStream changed = new ByteArrayOutputStream();
+        template.writeEvent(event, changed);
+
+        //ASSERT
+        Assertions.assertEquals(0, missesWhileCached);
+        Assertions.assertTrue(cached.toString(StandardCharsets.UTF_8).contains("STATUS:CONFIRMED"));
+        Assertions.assertTrue(changed.toString(StandardCharsets.UTF_8).contains("STATUS:CANCELLED"));
+    }
+
+    // helper methods
+
+    private CalendarEvent createEvent() {
+        return new CalendarEvent("Spanish Club, Beginners", UID, 0, CalendarEvent.Status.CONFIRMED, false, null,
+                OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), OCTOBER_22_3PM, Locale.forLanguageTag("es"),
+                new String[] {"EDUCATION"}, "Classroom 102");
+    }
+}
@@ -0,0 +1,87 @@
+package com.ahdisease.calendarprinter.uid;
+
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+public class UidGeneratorTests {
+    private final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneOffset.UTC);
+    private final UUID NAMESPACE = UUID.fromString("6ba7b810-9dad-11d1-80b4-00c04fd430c8");
+
+    @Test
+    public void random_strategies_create_unique_version_4_uids() {
+        for (UidGenerator generator : new UidGenerator[] {UidGenerator.random(), UidGenerator.threadLocalRandom()}) {
+            //ARRANGE
+            Set<UUID> uids = new HashSet<>();
+
+            for (int i = 0; i < 10_000; i++) {
+                //ACT
+                UUID uid = generator.generate("Planning", OCTOBER_22_3PM);
+
+                //ASSERT
+                Assertions.assertEquals(4, uid.version());
+                Assertions.assertEquals(2, uid.variant());
+                Assertions.assertTrue(uids.add(uid), "UIDs should be unique");
+            }
+        }
+    }
+
+    @Test
+    public void timeOrdered_uids_sort_by_creation_millisecond() {
+        //ARRANGE
+        Instant now = Instant.parse("2023-10-01T12:00:00Z");
+        UidGenerator earlier = new TimeOrderedUidGenerator(Clock.fixed(now, ZoneOffset.UTC));
+        UidGenerator later = new TimeOrderedUidGenerator(Clock.fixed(now.plusMillis(1), ZoneOffset.UTC));
+
+        //ACT
+        UUID first = earlier.generate("Planning", OCTOBER_22_3PM);
+        UUID second = later.generate("Planning", OCTOBER_22_3PM);
+
+        //ASSERT
+        Assertions.assertEquals(7, first.version());
+        Assertions.assertEquals(2, first.variant());
+        Assertions.assertEquals(now.toEpochMilli(), first.getMostSignificantBits() >>> 16);
+        Assertions.assertTrue(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    public void nameBased_uids_are_stable_for_the_same_event() {
+        //ARRANGE
+        UidGenerator generator = UidGenerator.nameBased(NAMESPACE);
+
+        //ACT
+        UUID first = generator.generate("Lincoln's Birthday", OCTOBER_22_3PM);
+        UUID second = UidGenerator.nameBased(NAMESPACE).generate("Lincoln's Birthday", OCTOBER_22_3PM);
+        UUID nextYear = generator.generate("Lincoln's Birthday", OCTOBER_22_3PM.plusYears(1));
+
+        //ASSERT
+        Assertions.assertEquals(5, first.version());
+        Assertions.assertEquals(2, first.variant());
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotEquals(first, nextYear);
+    }
+
+    @Test
+    public void calendar_event_and_factory_use_given_generator() {
+        //ARRANGE
+        UidGenerator generator = UidGenerator.nameBased(NAMESPACE);
+        UUID expected = generator.generate("Planning", OCTOBER_22_3PM);
+
+        //ACT
+        CalendarEvent constructed = new CalendarEvent("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), false, false, null, null, null, generator);
+        CalendarEvent created = new CalendarEventFactory().withUidGenerator(generator).meeting("Planning", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(1), null);
+
+        //ASSERT
+        Assertions.assertEquals(expected, constructed.getUuid());
+        Assertions.assertEquals(expected, created.getUuid());
+    }
+}
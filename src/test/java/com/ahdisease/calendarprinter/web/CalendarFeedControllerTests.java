@@ -0,0 +1,157 @@
+package com.ahdisease.calendarprinter.web;
+
+import com.ahdisease.calendarprinter.CalendarEventStore;
+import com.ahdisease.calendarprinter.model.CalendarEvent;
+import com.ahdisease.calendarprinter.model.CalendarEventFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CalendarFeedController.class)
+public class CalendarFeedControllerTests {
+    private static final ZonedDateTime OCTOBER_22_3PM = ZonedDateTime.of(2023, 10, 22, 15, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CalendarEventStore events;
+
+    private CalendarEvent octoberEvent;
+    private CalendarEvent novemberEvent;
+
+    @TestConfiguration
+    static class StoreConfiguration {
+        @Bean
+        public CalendarEventStore calendarEventStore() {
+            return new CalendarEventStore();
+        }
+    }
+
+    @BeforeEach
+    public void addEvents() {
+        if (events.size() == 0) {
+            octoberEvent = new CalendarEvent("Spanish Club Meeting", OCTOBER_22_3PM, OCTOBER_22_3PM.plusHours(2), false, false, null, null, "Classroom 102");
+            novemberEvent = new CalendarEvent("Chess Club Meeting", OCTOBER_22_3PM.plusMonths(1), OCTOBER_22_3PM.plusMonths(1).plusHours(2), false, false, null, null, "Library");
+            events.add(octoberEvent);
+            events.add(novemberEvent);
+        } else {
+            octoberEvent = events.toList().get(0);
+            novemberEvent = events.toList().get(1);
+        }
+    }
+
+    @Test
+    public void getCalendar_streams_all_events() throws Exception {
+        //ACT
+        MvcResult result = mockMvc.perform(get("/calendar.ics")).andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        //ASSERT
+        Assertions.assertTrue(body.startsWith("BEGIN:VCALENDAR"));
+        Assertions.assertTrue(body.endsWith("END:VCALENDAR"));
+        Assertions.assertTrue(body.contains(octoberEvent.getUuid().toString()));
+        Assertions.assertTrue(body.contains(novemberEvent.getUuid().toString()));
+        Assertions.assertTrue(result.getResponse().getContentType().startsWith("text/calendar"));
+        Assertions.assertNotNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        Assertions.assertNotNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    public void getCalendar_filters_events_by_window() throws Exception {
+        //ACT
+        MvcResult result = mockMvc.perform(get("/calendar.ics")
+                        .param("from", "2023-11-01T00:00:00Z")
+                        .param("to", "2023-12-01T00:00:00Z"))
+                .andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString();
+
+        //ASSERT
+        Assertions.assertFalse(body.contains(octoberEvent.getUuid().toString()));
+        Assertions.assertTrue(body.contains(novemberEvent.getUuid().toString()));
+    }
+
+    @Test
+    public void getCalendar_returns_not_modified_for_matching_etag() throws Exception {
+        //ARRANGE
+        String etag = mockMvc.perform(get("/calendar.ics")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //ACT & ASSERT
+        mockMvc.perform(get("/calendar.ics").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void getCalendar_changes_etag_when_event_is_revised() throws Exception {
+        //ARRANGE
+        String etag = mockMvc.perform(get("/calendar.ics")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //ACT
+        novemberEvent.cancelEvent();
+        MvcResult result = mockMvc.perform(get("/calendar.ics").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        //ASSERT
+        Assertions.assertEquals(200, result.getResponse().getStatus());
+        Assertions.assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void getCalendar_changes_etag_when_content_changes_without_sequence() throws Exception {
+        //ARRANGE
+        CalendarEvent holiday = new CalendarEventFactory().holiday("Winter Break", OCTOBER_22_3PM.plusMonths(2), null);
+        events.add(holiday);
+        String etag = mockMvc.perform(get("/calendar.ics")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //ACT
+        // confirming an already confirmed event only makes it OPAQUE, which is not a significant revision
+        holiday.confirmEvent();
+        MvcResult result = mockMvc.perform(get("/calendar.ics").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        //ASSERT
+        Assertions.assertEquals(0, holiday.getSequence());
+        Assertions.assertEquals(200, result.getResponse().getStatus());
+        Assertions.assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void getCalendar_changes_last_modified_when_event_is_modified() throws Exception {
+        //ARRANGE
+        CalendarEvent holiday = new CalendarEventFactory().holiday("Spring Break", OCTOBER_22_3PM.plusMonths(5), null);
+        events.add(holiday);
+        String lastModified = mockMvc.perform(get("/calendar.ics")).andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        //ACT
+        // the DTSTAMP of the event does not change, only the store version does
+        holiday.confirmEvent();
+        MvcResult result = mockMvc.perform(get("/calendar.ics").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified)).andReturn();
+
+        //ASSERT
+        Assertions.assertEquals(200, result.getResponse().getStatus());
+        Assertions.assertNotEquals(lastModified, result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+        mockMvc.perform(get("/calendar.ics").header(HttpHeaders.IF_MODIFIED_SINCE, result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void getCalendar_rejects_empty_window() throws Exception {
+        //ACT & ASSERT
+        mockMvc.perform(get("/calendar.ics")
+                        .param("from", "2023-12-01T00:00:00Z")
+                        .param("to", "2023-11-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+}